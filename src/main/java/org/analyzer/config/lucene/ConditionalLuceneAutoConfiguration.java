@@ -58,7 +58,8 @@ public class ConditionalLuceneAutoConfiguration {
     @Bean(destroyMethod = "close")
     public IndexWriter luceneIndexWriter(
             LuceneConfiguration configuration,
-            Directory directory) throws IOException {
+            Directory directory,
+            LuceneLogRecordFieldMetadata logRecordFieldMetadata) throws IOException {
 
         final var analyzer = new StandardAnalyzer();
         final var indexWriterConfig =
@@ -68,13 +69,20 @@ public class ConditionalLuceneAutoConfiguration {
                     .setMaxBufferedDocs(IndexWriterConfig.DISABLE_AUTO_FLUSH)
                     .setMergeScheduler(new ConcurrentMergeScheduler())
                     .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND)
-                    .setRAMBufferSizeMB(configuration.getBufferSizeMb());
+                    .setRAMBufferSizeMB(configuration.getBufferSizeMb())
+                    .setIndexSort(logRecordFieldMetadata.getTimestampSort());
         return new IndexWriter(directory, indexWriterConfig);
     }
 
     @Bean
-    public LuceneIndexSearcherFactory luceneIndexReaderFactory(IndexWriter indexWriter) throws IOException {
-        return new LuceneIndexSearcherFactory(indexWriter);
+    public LuceneIndexSearcherFactory luceneIndexReaderFactory(
+            LuceneConfiguration configuration,
+            IndexWriter indexWriter) throws IOException {
+        return new LuceneIndexSearcherFactory(
+                indexWriter,
+                configuration.getSearcherMinStalenessMs(),
+                configuration.getSearcherMaxStalenessMs()
+        );
     }
 
     @Bean
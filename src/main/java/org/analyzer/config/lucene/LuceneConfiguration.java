@@ -13,4 +13,6 @@ public class LuceneConfiguration {
     LuceneIndex type;
     String storagePath;
     int bufferSizeMb;
+    long searcherMinStalenessMs;
+    long searcherMaxStalenessMs;
 }
@@ -0,0 +1,26 @@
+package org.analyzer.config.parsing;
+
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
+
+import java.nio.charset.Charset;
+
+@Value
+@RequiredArgsConstructor(onConstructor = @__(@ConstructorBinding))
+@ConfigurationProperties("logs.analyzer.parsing")
+public class LogRecordsParsingProperties {
+
+    int threads;
+    int parallelThresholdMb;
+    int chunkSizeMb;
+    int maxRecordSizeKb;
+    int detectionSampleSizeKb;
+    int learnedFormatsMaxCount;
+    Charset fallbackCharset;
+    int packageMaxRecords;
+    int packageMinSizeKb;
+    int packageMaxSizeKb;
+    int packageTargetLatencyMs;
+}
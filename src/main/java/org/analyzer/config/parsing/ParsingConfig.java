@@ -0,0 +1,24 @@
+package org.analyzer.config.parsing;
+
+import lombok.NonNull;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@EnableConfigurationProperties(LogRecordsParsingProperties.class)
+public class ParsingConfig {
+
+    @Bean
+    @ParsingTasksPool
+    public ThreadPoolTaskExecutor parsingThreadPool(@NonNull final LogRecordsParsingProperties parsingProperties) {
+        final var threadPoolTaskExecutor = new ThreadPoolTaskExecutor();
+        threadPoolTaskExecutor.setCorePoolSize(parsingProperties.getThreads());
+        threadPoolTaskExecutor.setMaxPoolSize(parsingProperties.getThreads());
+        threadPoolTaskExecutor.setThreadNamePrefix("parsing-tasks-pool");
+        threadPoolTaskExecutor.setThreadFactory(Thread.ofVirtual().factory());
+        threadPoolTaskExecutor.setWaitForTasksToCompleteOnShutdown(false);
+        return threadPoolTaskExecutor;
+    }
+}
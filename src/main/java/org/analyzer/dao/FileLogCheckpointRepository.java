@@ -0,0 +1,13 @@
+package org.analyzer.dao;
+
+import org.analyzer.entities.FileLogCheckpointEntity;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+
+public interface FileLogCheckpointRepository extends MongoRepository<FileLogCheckpointEntity, String> {
+
+    @Nonnull
+    List<FileLogCheckpointEntity> findAllBySettingsId(@Nonnull String settingsId);
+}
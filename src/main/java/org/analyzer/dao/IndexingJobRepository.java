@@ -0,0 +1,24 @@
+package org.analyzer.dao;
+
+import org.analyzer.entities.IndexingJobEntity;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
+
+import javax.annotation.Nonnull;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface IndexingJobRepository extends MongoRepository<IndexingJobEntity, String> {
+
+    @Nonnull
+    List<IndexingJobEntity> findAllByNode(@Nonnull String node);
+
+    @Query("{ '_id' : ?0, 'lease_owner' : { $ne : ?1 }, $or : [ { 'lease_expires' : null }, { 'lease_expires' : { $lt : ?2 } } ] }")
+    @Update("{ $set : { 'lease_owner' : ?1, 'lease_expires' : ?3 } }")
+    long claimById(@Nonnull String id, @Nonnull String owner, @Nonnull LocalDateTime now, @Nonnull LocalDateTime leaseExpires);
+
+    @Query("{ '_id' : ?0, 'lease_owner' : ?1 }")
+    @Update("{ $set : { 'lease_expires' : ?2 } }")
+    long renewLeaseById(@Nonnull String id, @Nonnull String owner, @Nonnull LocalDateTime leaseExpires);
+}
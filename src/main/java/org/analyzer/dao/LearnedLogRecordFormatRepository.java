@@ -0,0 +1,16 @@
+package org.analyzer.dao;
+
+import org.analyzer.entities.LearnedLogRecordFormatEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+
+public interface LearnedLogRecordFormatRepository extends MongoRepository<LearnedLogRecordFormatEntity, String> {
+
+    @Nonnull
+    List<LearnedLogRecordFormatEntity> findAllByUserKey(
+            @Nonnull String userKey,
+            @Nonnull Pageable pageable);
+}
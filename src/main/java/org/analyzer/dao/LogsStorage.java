@@ -4,8 +4,11 @@ import org.analyzer.entities.LogRecordEntity;
 import org.analyzer.service.logs.SearchQuery;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.List;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
 
 public interface LogsStorage {
 
@@ -13,15 +16,60 @@ public interface LogsStorage {
 
     void deleteByQuery(@Nonnull StorageQuery query);
 
+    /**
+     * Deletes the records by their exact ids.
+     */
+    void deleteAllByIds(@Nonnull Collection<String> ids);
+
     void saveAll(@Nonnull Collection<LogRecordEntity> records);
 
     void flush();
 
+    /**
+     * Waits until the records saved and deleted before the call are visible to the following searches.
+     */
+    default void awaitSearchable() {
+    }
+
     long allCount();
 
     @Nonnull
-    List<LogRecordEntity> searchByQuery(@Nonnull StorageQuery query);
+    default List<LogRecordEntity> searchByQuery(@Nonnull StorageQuery query) {
+        return searchPageByQuery(query).records();
+    }
+
+    /**
+     * Searches the page of the records, the position of its last record is returned with it to search the next page.
+     */
+    @Nonnull
+    StoragePage searchPageByQuery(@Nonnull StorageQuery query);
+
+    /**
+     * Streams all the records found by the query starting from its page. Pages are searched lazily from the single
+     * point-in-time view of the storage, so the records changed during the walk don't shift them.
+     * The stream must be closed to release the view.
+     */
+    @Nonnull
+    Stream<LogRecordEntity> streamByQuery(@Nonnull StorageQuery query);
+
+    /**
+     * Finds the records of the user with any of the fingerprints, only ids and fingerprints of the records are loaded.
+     * Only the records which are searchable at the moment are found.
+     */
+    @Nonnull
+    List<LogRecordEntity> findAllByFingerprints(@Nonnull String userKey, @Nonnull Collection<Long> fingerprints);
+
+    /**
+     * Passes the fingerprints of all the records of the user to the consumer.
+     */
+    void forEachFingerprint(@Nonnull String userKey, @Nonnull LongConsumer consumer);
 
     record StorageQuery(@Nonnull SearchQuery query, @Nonnull String userKey) {
     }
+
+    /**
+     * Page of the records with the position to search the next page after, the position isn't set for the last page.
+     */
+    record StoragePage(@Nonnull List<LogRecordEntity> records, @Nullable Object searchAfter) {
+    }
 }
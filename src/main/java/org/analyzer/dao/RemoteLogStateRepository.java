@@ -0,0 +1,7 @@
+package org.analyzer.dao;
+
+import org.analyzer.entities.RemoteLogStateEntity;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface RemoteLogStateRepository extends MongoRepository<RemoteLogStateEntity, String> {
+}
@@ -6,21 +6,47 @@ import org.analyzer.dao.LogsStorage;
 import org.analyzer.entities.LogRecordEntity;
 import org.analyzer.service.logs.SearchQueryParser;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
 import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.query.FetchSourceFilter;
+import org.springframework.data.elasticsearch.core.query.Query;
 import org.springframework.data.elasticsearch.core.query.StringQuery;
 
-import java.util.Collection;
-import java.util.List;
+import java.time.Duration;
+import java.util.*;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class ElasticLogsStorage implements LogsStorage {
 
+    private static final String USER_RECORDS_QUERY_TEMPLATE = """
+            {"prefix":
+                {
+                    "id.keyword": "%s#"
+                }
+            }""";
+
+    private static final String USER_RECORDS_BY_FINGERPRINTS_QUERY_TEMPLATE = """
+            {"bool":
+                {
+                    "filter": [
+                        {"terms": {"fingerprint": %s}},
+                        {"prefix": {"id.keyword": "%s#"}}
+                    ]
+                }
+            }""";
+
     @Autowired
     private ElasticLogRecordRepository repository;
     @Autowired
     private ElasticsearchTemplate template;
     @Autowired
     private SearchQueryParser<StringQuery> queryParser;
+    @Value("${logs.analyzer.elastic.point-in-time-keep-alive-seconds:60}")
+    private long pointInTimeKeepAliveSeconds;
 
     @Override
     public void deleteAllByIdRegex(@NonNull String id) {
@@ -29,16 +55,19 @@ public class ElasticLogsStorage implements LogsStorage {
 
     @Override
     public void deleteByQuery(@NonNull StorageQuery query) {
-        var pageQuery = query;
-        List<LogRecordEntity> records;
-        while (!(records = searchByQuery(pageQuery)).isEmpty()) {
-            this.repository.deleteAll(records);
-
-            final var searchQuery = pageQuery.query();
-            pageQuery = new StorageQuery(searchQuery.toNextPageQuery(), query.userKey());
+        // pages are searched in the point in time, so the pages shifted by the deletion aren't skipped
+        try (final var pages = new PointInTimePages(query)) {
+            while (pages.hasNext()) {
+                this.repository.deleteAll(pages.next().records());
+            }
         }
     }
 
+    @Override
+    public void deleteAllByIds(@NonNull Collection<String> ids) {
+        this.repository.deleteAllById(ids);
+    }
+
     @Override
     public void saveAll(@NonNull Collection<LogRecordEntity> records) {
         this.repository.saveAll(records);
@@ -56,11 +85,110 @@ public class ElasticLogsStorage implements LogsStorage {
 
     @NonNull
     @Override
-    public List<LogRecordEntity> searchByQuery(@NonNull StorageQuery query) {
+    public StoragePage searchPageByQuery(@NonNull StorageQuery query) {
         final var searchQuery = this.queryParser.parse(query.query(), query.userKey());
-        return this.template.search(searchQuery, LogRecordEntity.class)
-                            .stream()
-                            .map(SearchHit::getContent)
-                            .toList();
+        return toStoragePage(this.template.search(searchQuery, LogRecordEntity.class), searchQuery.getPageable().getPageSize());
+    }
+
+    @NonNull
+    @Override
+    public Stream<LogRecordEntity> streamByQuery(@NonNull StorageQuery query) {
+        final var pages = new PointInTimePages(query);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(pages, Spliterator.ORDERED), false)
+                            .flatMap(page -> page.records().stream())
+                            .onClose(pages::close);
+    }
+
+    @NonNull
+    @Override
+    public List<LogRecordEntity> findAllByFingerprints(@NonNull String userKey, @NonNull Collection<Long> fingerprints) {
+        final var query = new StringQuery(USER_RECORDS_BY_FINGERPRINTS_QUERY_TEMPLATE.formatted(fingerprints, userKey));
+        query.addSourceFilter(new FetchSourceFilter(new String[] { "id", "fingerprint" }, null));
+
+        try (final var hits = this.template.searchForStream(query, LogRecordEntity.class)) {
+            return hits.stream()
+                        .map(SearchHit::getContent)
+                        .toList();
+        }
+    }
+
+    @Override
+    public void forEachFingerprint(@NonNull String userKey, @NonNull LongConsumer consumer) {
+        final var query = new StringQuery(USER_RECORDS_QUERY_TEMPLATE.formatted(userKey));
+        query.addSourceFilter(new FetchSourceFilter(new String[] { "fingerprint" }, null));
+
+        try (final var hits = this.template.searchForStream(query, LogRecordEntity.class)) {
+            hits.forEachRemaining(hit -> {
+                final var fingerprint = hit.getContent().getFingerprint();
+                if (fingerprint != null) {
+                    consumer.accept(fingerprint);
+                }
+            });
+        }
+    }
+
+    private StoragePage toStoragePage(final SearchHits<LogRecordEntity> searchHits, final int pageSize) {
+        final var hits = searchHits.getSearchHits();
+        final var records = hits.stream()
+                                .map(SearchHit::getContent)
+                                .toList();
+        final var searchAfter = hits.size() < pageSize ? null : hits.get(hits.size() - 1).getSortValues();
+        return new StoragePage(records, searchAfter);
+    }
+
+    /**
+     * Pages of the query searched one after another in the point in time of the index, which is opened on the first page.
+     */
+    private class PointInTimePages implements Iterator<StoragePage>, AutoCloseable {
+
+        private final StorageQuery query;
+        private final Duration keepAlive;
+        private String pointInTimeId;
+        private Object searchAfter;
+        private boolean lastPageSearched;
+
+        private PointInTimePages(final StorageQuery query) {
+            this.query = query;
+            this.keepAlive = Duration.ofSeconds(pointInTimeKeepAliveSeconds);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !this.lastPageSearched;
+        }
+
+        @Override
+        public StoragePage next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            if (this.pointInTimeId == null) {
+                this.pointInTimeId = template.openPointInTime(template.getIndexCoordinatesFor(LogRecordEntity.class), this.keepAlive, false);
+            }
+
+            final var pageQuery = this.searchAfter == null ? this.query.query() : this.query.query().toNextPageQuery(this.searchAfter);
+            final var searchQuery = queryParser.parse(pageQuery, this.query.userKey());
+            searchQuery.setPointInTime(new Query.PointInTime(this.pointInTimeId, this.keepAlive));
+
+            final var searchHits = template.search(searchQuery, LogRecordEntity.class);
+            // the id of the point in time may be changed by the search
+            if (searchHits.getPointInTimeId() != null) {
+                this.pointInTimeId = searchHits.getPointInTimeId();
+            }
+
+            final var page = toStoragePage(searchHits, searchQuery.getPageable().getPageSize());
+            this.searchAfter = page.searchAfter();
+            this.lastPageSearched = this.searchAfter == null;
+            return page;
+        }
+
+        @Override
+        public void close() {
+            if (this.pointInTimeId != null) {
+                template.closePointInTime(this.pointInTimeId);
+                this.pointInTimeId = null;
+            }
+        }
     }
 }
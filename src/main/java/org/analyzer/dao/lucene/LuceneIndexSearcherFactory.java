@@ -2,41 +2,102 @@ package org.analyzer.dao.lucene;
 
 import jakarta.annotation.PreDestroy;
 import lombok.NonNull;
-import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
-import org.apache.lucene.search.IndexSearcher;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.apache.lucene.search.*;
 
 import java.io.IOException;
-import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Searchers are reopened in the background thread not more often than the min staleness and not less often than the max one,
+ * so searches don't reopen the readers themselves. Each acquired searcher is the stable snapshot of the index
+ * until it is released, superseded readers are closed after all their searchers are released.
+ */
 public class LuceneIndexSearcherFactory {
 
-    private final IndexWriter indexWriter;
-    private final AtomicReference<IndexSearcher> indexSearcher;
+    private final QueryCachingPolicy queryCachingPolicy = new UserRecordsCachingPolicy();
+    private final SearcherManager searcherManager;
+    private final ControlledRealTimeReopenThread<IndexSearcher> reopenThread;
 
-    @Autowired
-    public LuceneIndexSearcherFactory(@NonNull IndexWriter writer) throws IOException {
-        this.indexWriter = writer;
-        final var reader = DirectoryReader.open(writer);
-        this.indexSearcher = new AtomicReference<>(new IndexSearcher(reader));
+    public LuceneIndexSearcherFactory(
+            @NonNull IndexWriter writer,
+            long minStalenessMs,
+            long maxStalenessMs) throws IOException {
+        this.searcherManager = new SearcherManager(writer, new SearcherFactory() {
+            @Override
+            public IndexSearcher newSearcher(IndexReader reader, IndexReader previousReader) {
+                final var searcher = new IndexSearcher(reader);
+                searcher.setQueryCachingPolicy(queryCachingPolicy);
+                return searcher;
+            }
+        });
+
+        this.reopenThread = new ControlledRealTimeReopenThread<>(
+                writer,
+                this.searcherManager,
+                maxStalenessMs / 1000.0,
+                Math.min(minStalenessMs, maxStalenessMs) / 1000.0
+        );
+        this.reopenThread.setName("lucene-searcher-reopen");
+        this.reopenThread.setDaemon(true);
+        this.reopenThread.start();
     }
 
+    /**
+     * Acquires the current searcher, it must be released by {@link #release(IndexSearcher)} after the search.
+     */
     @NonNull
-    public IndexSearcher get() {
-        return this.indexSearcher.updateAndGet(oldSearcher -> {
-            try {
-                final var indexReader = (DirectoryReader) oldSearcher.getIndexReader();
-                final var newReader = DirectoryReader.openIfChanged(indexReader, this.indexWriter, false);
-                return newReader == null ? oldSearcher : new IndexSearcher(newReader);
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
-        });
+    public IndexSearcher acquire() {
+        try {
+            return this.searcherManager.acquire();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public void release(@NonNull IndexSearcher searcher) {
+        try {
+            this.searcherManager.release(searcher);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Waits until the searchers see the changes of the index writer up to the given sequence number.
+     */
+    public void waitForGeneration(long generation) {
+        try {
+            this.reopenThread.waitForGeneration(generation);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
     }
 
     @PreDestroy
     private void destroy() throws IOException {
-        this.indexSearcher.get().getIndexReader().close();
+        this.reopenThread.close();
+        this.searcherManager.close();
+    }
+
+    /**
+     * The filter of the user records is a part of each query, so its segment bitsets are cached from the first use,
+     * while the default policy never caches the term queries. Cached bitsets of the segment are dropped with the segment.
+     */
+    private static class UserRecordsCachingPolicy implements QueryCachingPolicy {
+
+        private final QueryCachingPolicy defaultPolicy = new UsageTrackingQueryCachingPolicy();
+
+        @Override
+        public void onUse(Query query) {
+            this.defaultPolicy.onUse(query);
+        }
+
+        @Override
+        public boolean shouldCache(Query query) throws IOException {
+            return query instanceof TermQuery termQuery && LuceneLogRecordBuilder.USER_KEY_FIELD.equals(termQuery.getTerm().field())
+                    || this.defaultPolicy.shouldCache(query);
+        }
     }
 }
@@ -3,7 +3,7 @@ package org.analyzer.dao.lucene;
 import lombok.NonNull;
 import org.analyzer.entities.LogRecordEntity;
 import org.apache.lucene.document.*;
-import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.util.BytesRef;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.time.LocalDate;
@@ -14,6 +14,9 @@ import static org.analyzer.entities.LogRecordEntity.toStorageFieldName;
 
 public class LuceneLogRecordBuilder {
 
+    public static final String USER_KEY_FIELD = toStorageFieldName("userKey");
+    public static final String INDEXING_KEY_FIELD = toStorageFieldName("indexingKey");
+
     @Autowired
     private LuceneLogRecordFieldMetadata logRecordFieldMetadata;
 
@@ -24,6 +27,7 @@ public class LuceneLogRecordBuilder {
                                     .forEach((field, type) ->
                                             tryAddFieldToDocument(field, type, entity, doc)
                                     );
+        addRecordKeys(entity.getId(), doc);
 
         return doc;
     }
@@ -35,6 +39,7 @@ public class LuceneLogRecordBuilder {
                     .setId(getStringFieldValue(document, "id"))
                     .setTime(parseTime(document))
                     .setDate(parseDate(document))
+                    .setTimestamp(parseTimestamp(document))
                     .setLevel(getStringFieldValue(document, "level"))
                     .setThread(getStringFieldValue(document, "thread"))
                     .setTraceId(getStringFieldValue(document, "traceId"))
@@ -57,22 +62,34 @@ public class LuceneLogRecordBuilder {
             return;
         }
 
-        final IndexableField result;
-        if (type == LongField.class) {
-            final var resultAsLong =
-                    value instanceof LocalDate
-                            ? ((LocalDate) value).toEpochDay()
-                            : value instanceof LocalTime
-                                ? ((LocalTime) value).toNanoOfDay()
-                                : (long) value;
-            result = new NumericDocValuesField(storageField, resultAsLong);
+        if (type == LongPoint.class) {
+            final var resultAsLong = this.logRecordFieldMetadata.toLongValue(storageField, value);
+            document.add(new LongPoint(storageField, resultAsLong));
+            document.add(new NumericDocValuesField(storageField, resultAsLong));
+            document.add(new StoredField(storageField, resultAsLong));
+        } else if (type == StringField.class) {
+            document.add(new StringField(storageField, value.toString(), Field.Store.YES));
+            document.add(new SortedDocValuesField(storageField, new BytesRef(value.toString())));
         } else if (type == TextField.class) {
-            result = new TextField(storageField, value.toString(), Field.Store.YES);
+            document.add(new TextField(storageField, value.toString(), Field.Store.YES));
         } else {
             throw new IllegalArgumentException("Unsupported field type: " + type);
         }
+    }
+
+    private void addRecordKeys(final String id, final Document document) {
+        // records are restricted by the user on each search, so the keys from the id are indexed as the single terms
+        final var userKeyEnd = id.indexOf('#');
+        if (userKeyEnd < 0) {
+            return;
+        }
 
-        document.add(result);
+        document.add(new StringField(USER_KEY_FIELD, id.substring(0, userKeyEnd), Field.Store.NO));
+
+        final var indexingKeyEnd = id.indexOf('$', userKeyEnd);
+        if (indexingKeyEnd > 0) {
+            document.add(new StringField(INDEXING_KEY_FIELD, id.substring(userKeyEnd + 1, indexingKeyEnd), Field.Store.NO));
+        }
     }
 
     private LocalDate parseDate(final Document document) {
@@ -85,6 +102,11 @@ public class LuceneLogRecordBuilder {
         return value < 0 ? null : LocalTime.ofNanoOfDay(value);
     }
 
+    private Long parseTimestamp(final Document document) {
+        final var field = document.getField(toStorageFieldName("timestamp"));
+        return field == null || field.numericValue() == null ? null : field.numericValue().longValue();
+    }
+
     private long getLongFieldValue(final Document document, final String entityFieldName) {
         final var field = document.getField(toStorageFieldName(entityFieldName));
         if (field == null) {
@@ -3,26 +3,40 @@ package org.analyzer.dao.lucene;
 import lombok.NonNull;
 import org.analyzer.entities.LogRecordEntity;
 import org.apache.lucene.document.Field;
-import org.apache.lucene.document.LongField;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
+import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.SortField;
 import org.springframework.data.annotation.Transient;
 
+import javax.annotation.Nullable;
 import java.lang.reflect.Modifier;
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.time.temporal.TemporalAccessor;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 import static org.analyzer.entities.LogRecordEntity.toStorageFieldName;
 
+/**
+ * Only the text of the record is analyzed, the other string fields are indexed as keywords with sorted doc values
+ * and the temporal and numeric fields are indexed as points with numeric doc values.
+ */
 public class LuceneLogRecordFieldMetadata {
 
+    private static final Set<String> FULL_TEXT_FIELDS = Set.of(toStorageFieldName("source"), toStorageFieldName("record"));
+
     private final Map<String, Class<? extends Field>> field2type;
+    private final Map<String, Class<?>> field2valueType;
     private final Map<String, SortField.Type> field2sort;
 
     public LuceneLogRecordFieldMetadata() {
         final var fields = LogRecordEntity.class.getDeclaredFields();
         final Map<String, Class<? extends Field>> tempAll = new HashMap<>(fields.length, 1);
+        final Map<String, Class<?>> tempValueTypes = new HashMap<>(fields.length, 1);
         final Map<String, SortField.Type> tempSortFields = new HashMap<>(fields.length, 1);
         for (final var field : fields) {
             if (Modifier.isStatic(field.getModifiers())
@@ -33,7 +47,13 @@ public class LuceneLogRecordFieldMetadata {
 
             final var storageField = toStorageFieldName(field.getName());
             final var isLongFieldType = TemporalAccessor.class.isAssignableFrom(field.getType()) || Long.class == field.getType();
-            tempAll.put(storageField, isLongFieldType ? LongField.class : TextField.class);
+            tempAll.put(
+                    storageField,
+                    isLongFieldType
+                            ? LongPoint.class
+                            : FULL_TEXT_FIELDS.contains(storageField) ? TextField.class : StringField.class
+            );
+            tempValueTypes.put(storageField, field.getType());
 
             final var sortType = isLongFieldType
                                     ? SortField.Type.LONG
@@ -42,6 +62,7 @@ public class LuceneLogRecordFieldMetadata {
         }
 
         this.field2type = Map.copyOf(tempAll);
+        this.field2valueType = Map.copyOf(tempValueTypes);
         this.field2sort = Map.copyOf(tempSortFields);
     }
 
@@ -50,9 +71,43 @@ public class LuceneLogRecordFieldMetadata {
         return this.field2type;
     }
 
+    @Nullable
+    public Class<? extends Field> getStorageFieldType(@NonNull final String field) {
+        return this.field2type.get(toStorageFieldName(field));
+    }
+
     @NonNull
     public SortField.Type getSortFieldType(@NonNull final String field) {
         final var storageField = toStorageFieldName(field);
         return this.field2sort.get(storageField);
     }
+
+    /**
+     * Returns the sort of the records from the latest ones, the index is sorted by it too,
+     * so searches with this sort are terminated early after the requested number of the records.
+     */
+    @NonNull
+    public Sort getTimestampSort() {
+        return new Sort(new SortField(toStorageFieldName("timestamp"), SortField.Type.LONG, true));
+    }
+
+    /**
+     * Converts the value of the point field to the indexed long value, string values are parsed as the values of the entity field.
+     */
+    public long toLongValue(@NonNull final String field, @NonNull final Object value) {
+        if (value instanceof String stringValue) {
+            final var valueType = this.field2valueType.get(toStorageFieldName(field));
+            return valueType == LocalDate.class
+                    ? LocalDate.parse(stringValue).toEpochDay()
+                    : valueType == LocalTime.class
+                        ? LocalTime.parse(stringValue).toNanoOfDay()
+                        : Long.parseLong(stringValue);
+        }
+
+        return value instanceof LocalDate date
+                ? date.toEpochDay()
+                : value instanceof LocalTime time
+                    ? time.toNanoOfDay()
+                    : (long) value;
+    }
 }
@@ -3,28 +3,30 @@ package org.analyzer.dao.lucene;
 import lombok.NonNull;
 import org.analyzer.dao.LogsStorage;
 import org.analyzer.entities.LogRecordEntity;
+import org.analyzer.service.logs.SearchQuery;
 import org.analyzer.service.logs.SearchQueryParser;
-import org.apache.lucene.index.IndexWriter;
-import org.apache.lucene.index.Term;
-import org.apache.lucene.search.PrefixQuery;
-import org.apache.lucene.search.Query;
-import org.apache.lucene.search.Sort;
-import org.apache.lucene.search.SortField;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.*;
+import org.apache.lucene.search.*;
 import org.apache.lucene.store.Directory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.LongConsumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.analyzer.entities.LogRecordEntity.toStorageFieldName;
 
 public class LuceneLogsStorage implements LogsStorage {
 
+    private static final String FINGERPRINT_FIELD = toStorageFieldName("fingerprint");
+    private static final String ID_FIELD = toStorageFieldName("id");
+
     @Autowired
     private SearchQueryParser<Query> queryParser;
     @Autowired
@@ -40,11 +42,13 @@ public class LuceneLogsStorage implements LogsStorage {
     @Value("${logs.analyzer.search.default.max_results}")
     private int maxResultsDefault;
 
+    private final AtomicLong lastWriteGeneration = new AtomicLong();
+
     @Override
     public void deleteAllByIdRegex(@NonNull String id) {
-        final var prefixQuery = new PrefixQuery(new Term(toStorageFieldName("id"), id));
+        final var prefixQuery = new PrefixQuery(new Term(ID_FIELD, id));
         try {
-            this.indexWriter.deleteDocuments(prefixQuery);
+            onWrite(this.indexWriter.deleteDocuments(prefixQuery));
             flush();
         } catch (IOException e) {
             throw new RuntimeException(e);
@@ -55,13 +59,26 @@ public class LuceneLogsStorage implements LogsStorage {
     public void deleteByQuery(@NonNull StorageQuery query) {
         final var parsedQuery = this.queryParser.parse(query.query(), query.userKey());
         try {
-            this.indexWriter.deleteDocuments(parsedQuery);
+            onWrite(this.indexWriter.deleteDocuments(parsedQuery));
             flush();
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    @Override
+    public void deleteAllByIds(@NonNull Collection<String> ids) {
+        final var terms = ids
+                            .stream()
+                            .map(id -> new Term(ID_FIELD, id))
+                            .toArray(Term[]::new);
+        try {
+            onWrite(this.indexWriter.deleteDocuments(terms));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     @Override
     public void saveAll(@NonNull Collection<LogRecordEntity> records) {
         final var documents = records
@@ -69,7 +86,7 @@ public class LuceneLogsStorage implements LogsStorage {
                                 .map(this.logRecordBuilder::buildDocument)
                                 .collect(Collectors.toList());
         try {
-            this.indexWriter.addDocuments(documents);
+            onWrite(this.indexWriter.addDocuments(documents));
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -84,38 +101,169 @@ public class LuceneLogsStorage implements LogsStorage {
         }
     }
 
+    @Override
+    public void awaitSearchable() {
+        this.indexSearcherFactory.waitForGeneration(this.lastWriteGeneration.get());
+    }
+
     @Override
     public long allCount() {
-        final var searcher = this.indexSearcherFactory.get();
-        return searcher.getIndexReader().numDocs();
+        final var searcher = this.indexSearcherFactory.acquire();
+        try {
+            return searcher.getIndexReader().numDocs();
+        } finally {
+            this.indexSearcherFactory.release(searcher);
+        }
     }
 
     @NonNull
     @Override
-    public List<LogRecordEntity> searchByQuery(@NonNull LogsStorage.StorageQuery storageQuery) {
+    public StoragePage searchPageByQuery(@NonNull LogsStorage.StorageQuery storageQuery) {
+        final var searcher = this.indexSearcherFactory.acquire();
+        try {
+            return new PageSearch(searcher, storageQuery).searchPage(storageQuery.query());
+        } finally {
+            this.indexSearcherFactory.release(searcher);
+        }
+    }
 
-        final var searcher = this.indexSearcherFactory.get();
-        final var query = storageQuery.query();
-        final var parsedQuery = this.queryParser.parse(query, storageQuery.userKey());
-        final var pageSize = query.pageSize() == 0 || query.pageSize() > maxResultsDefault ? maxResultsDefault : query.pageSize();
-        final var sort = buildSort(query.sorts());
-        final var offset = query.pageNumber() * pageSize;
+    @NonNull
+    @Override
+    public Stream<LogRecordEntity> streamByQuery(@NonNull StorageQuery storageQuery) {
+        // the searcher is acquired until the stream is closed, so it is the point-in-time view for all the pages
+        final var searcher = this.indexSearcherFactory.acquire();
+        try {
+            final var pageSearch = new PageSearch(searcher, storageQuery);
+            return Stream.iterate(
+                            pageSearch.searchPage(storageQuery.query()),
+                            Objects::nonNull,
+                            page -> page.searchAfter() == null ? null : pageSearch.searchPage(storageQuery.query().toNextPageQuery(page.searchAfter()))
+                        )
+                        .flatMap(page -> page.records().stream())
+                        .onClose(() -> this.indexSearcherFactory.release(searcher));
+        } catch (RuntimeException e) {
+            this.indexSearcherFactory.release(searcher);
+            throw e;
+        }
+    }
 
+    @NonNull
+    @Override
+    public List<LogRecordEntity> findAllByFingerprints(@NonNull String userKey, @NonNull Collection<Long> fingerprints) {
+        // the current searcher is used, the callers wait for the saved records to be searchable when it is needed
+        final var searcher = this.indexSearcherFactory.acquire();
+        final var query = new BooleanQuery.Builder()
+                                .add(LongPoint.newSetQuery(FINGERPRINT_FIELD, fingerprints), BooleanClause.Occur.FILTER)
+                                .add(createUserQuery(userKey), BooleanClause.Occur.FILTER)
+                                .build();
         try {
-            final var docs = searcher.search(parsedQuery, offset + pageSize, sort);
-            final var scoreDocs = docs.scoreDocs;
+            final Map<Integer, Long> doc2fingerprint = new HashMap<>();
+            collectFingerprints(searcher, query, doc2fingerprint::put);
 
             final var storedFields = searcher.storedFields();
-
-            final List<LogRecordEntity> result = new ArrayList<>();
-            for (int i = offset; i < scoreDocs.length; i++) {
-                final var recordDoc = storedFields.document(scoreDocs[i].doc);
-                result.add(this.logRecordBuilder.buildEntity(recordDoc));
+            final List<LogRecordEntity> result = new ArrayList<>(doc2fingerprint.size());
+            for (final var docFingerprint : doc2fingerprint.entrySet()) {
+                final var recordDoc = storedFields.document(docFingerprint.getKey(), Set.of(ID_FIELD));
+                result.add(new LogRecordEntity().setId(recordDoc.get(ID_FIELD)).setFingerprint(docFingerprint.getValue()));
             }
 
             return result;
         } catch (IOException ex) {
             throw new RuntimeException(ex);
+        } finally {
+            this.indexSearcherFactory.release(searcher);
+        }
+    }
+
+    @Override
+    public void forEachFingerprint(@NonNull String userKey, @NonNull LongConsumer consumer) {
+        final var searcher = this.indexSearcherFactory.acquire();
+        try {
+            collectFingerprints(searcher, createUserQuery(userKey), (doc, fingerprint) -> consumer.accept(fingerprint));
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        } finally {
+            this.indexSearcherFactory.release(searcher);
+        }
+    }
+
+    private void onWrite(final long sequenceNumber) {
+        this.lastWriteGeneration.accumulateAndGet(sequenceNumber, Math::max);
+    }
+
+    private Query createUserQuery(final String userKey) {
+        return new ConstantScoreQuery(new TermQuery(new Term(LuceneLogRecordBuilder.USER_KEY_FIELD, userKey)));
+    }
+
+    private void collectFingerprints(
+            final IndexSearcher searcher,
+            final Query query,
+            final BiConsumer<Integer, Long> consumer) throws IOException {
+        // fingerprints are read from the doc values, so the stored fields of the records aren't loaded
+        searcher.search(query, new SimpleCollector() {
+
+            private NumericDocValues fingerprints;
+            private int docBase;
+
+            @Override
+            protected void doSetNextReader(LeafReaderContext context) throws IOException {
+                this.fingerprints = DocValues.getNumeric(context.reader(), FINGERPRINT_FIELD);
+                this.docBase = context.docBase;
+            }
+
+            @Override
+            public void collect(int doc) throws IOException {
+                if (this.fingerprints.advanceExact(doc)) {
+                    consumer.accept(this.docBase + doc, this.fingerprints.longValue());
+                }
+            }
+
+            @Override
+            public ScoreMode scoreMode() {
+                return ScoreMode.COMPLETE_NO_SCORES;
+            }
+        });
+    }
+
+    private class PageSearch {
+
+        private final IndexSearcher searcher;
+        private final Query parsedQuery;
+        private final Sort sort;
+        private final int pageSize;
+
+        private PageSearch(final IndexSearcher searcher, final StorageQuery storageQuery) {
+            final var query = storageQuery.query();
+            this.searcher = searcher;
+            this.parsedQuery = queryParser.parse(query, storageQuery.userKey());
+            this.sort = buildSort(query.sorts());
+            this.pageSize = query.pageSize() == 0 || query.pageSize() > maxResultsDefault ? maxResultsDefault : query.pageSize();
+        }
+
+        private StoragePage searchPage(final SearchQuery query) {
+            // the page after the last record of the previous one is collected without collecting all the previous pages
+            final var searchAfter = query.searchAfter() instanceof FieldDoc lastDoc ? lastDoc : null;
+            final var offset = searchAfter == null ? query.pageNumber() * this.pageSize : 0;
+
+            try {
+                final var docs = searchAfter == null
+                        ? this.searcher.search(this.parsedQuery, offset + this.pageSize, this.sort)
+                        : this.searcher.searchAfter(searchAfter, this.parsedQuery, this.pageSize, this.sort);
+                final var scoreDocs = docs.scoreDocs;
+
+                final var storedFields = this.searcher.storedFields();
+
+                final List<LogRecordEntity> result = new ArrayList<>();
+                for (int i = offset; i < scoreDocs.length; i++) {
+                    final var recordDoc = storedFields.document(scoreDocs[i].doc);
+                    result.add(logRecordBuilder.buildEntity(recordDoc));
+                }
+
+                final var lastDoc = scoreDocs.length == offset + this.pageSize ? scoreDocs[scoreDocs.length - 1] : null;
+                return new StoragePage(result, lastDoc);
+            } catch (IOException ex) {
+                throw new RuntimeException(ex);
+            }
         }
     }
 
@@ -124,17 +272,12 @@ public class LuceneLogsStorage implements LogsStorage {
         final var sortFields = sorts
                                 .entrySet()
                                 .stream()
-                                .map(e -> new SortField(e.getKey(), this.logRecordFieldMetadata.getSortFieldType(e.getKey()), e.getValue().isDescending()))
+                                .map(e -> new SortField(toStorageFieldName(e.getKey()), this.logRecordFieldMetadata.getSortFieldType(e.getKey()), e.getValue().isDescending()))
                                 .toList();
         if (!sortFields.isEmpty()) {
             return new Sort(sortFields.toArray(new SortField[0]));
         }
 
-        final var dateField = toStorageFieldName("date");
-        final var timeField = toStorageFieldName("time");
-        return new Sort(
-                new SortField(dateField, this.logRecordFieldMetadata.getSortFieldType(dateField), true),
-                new SortField(timeField, this.logRecordFieldMetadata.getSortFieldType(timeField), true)
-        );
+        return this.logRecordFieldMetadata.getTimestampSort();
     }
 }
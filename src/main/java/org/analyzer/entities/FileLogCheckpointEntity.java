@@ -0,0 +1,61 @@
+package org.analyzer.entities;
+
+import lombok.*;
+import lombok.experimental.Accessors;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+
+/**
+ * Position up to which the followed log file is indexed with the position of its last indexed record, the file
+ * is identified by its file key (inode) to detect rotations of the file.
+ */
+@Document("file-logs-checkpoints")
+@Data
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@NoArgsConstructor
+@Accessors(chain = true)
+public class FileLogCheckpointEntity {
+
+    @Id
+    @EqualsAndHashCode.Include
+    @NonNull
+    private String id;
+    @NonNull
+    @Indexed
+    @Field("settings_id")
+    private String settingsId;
+    @NonNull
+    @ToString.Exclude
+    @Field("user_key")
+    private String userKey;
+    @NonNull
+    private String path;
+    @NonNull
+    @Field("file_key")
+    private String fileKey;
+    private long offset;
+    @Field("last_record_offset")
+    private long lastRecordOffset;
+    /**
+     * Logs in charsets which aren't compatible with ASCII (like UTF-16) can't be appended, so only their data indexed
+     * at the first check is indexed.
+     */
+    @Field("append_unsupported")
+    private boolean appendUnsupported;
+    /**
+     * Checksum of the first bytes of the file, the file truncated and written again past the offset between two checks
+     * (copytruncate rotation) is detected by it.
+     */
+    @Field("head_checksum")
+    private long headChecksum;
+    @Field("head_length")
+    private long headLength;
+    @Field("indexing_key")
+    private String indexingKey;
+    @Field("last_indexed")
+    private LocalDateTime lastIndexed;
+}
@@ -0,0 +1,17 @@
+package org.analyzer.entities;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.NonNull;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+@Data
+@Builder
+public class FileSystemDataSettings {
+
+    @NonNull
+    @Field("directory")
+    private String directory;
+    @Field("file_pattern")
+    private String filePattern;
+}
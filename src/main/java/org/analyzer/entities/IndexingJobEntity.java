@@ -0,0 +1,87 @@
+package org.analyzer.entities;
+
+import lombok.*;
+import lombok.experimental.Accessors;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Indexing job which isn't completed yet, with the positions up to which the files of the indexed log are stored,
+ * so the job interrupted by the restart of the node is resumed from these positions.
+ */
+@Document("indexing-jobs")
+@Data
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@NoArgsConstructor
+@Accessors(chain = true)
+public class IndexingJobEntity {
+
+    @Id
+    @EqualsAndHashCode.Include
+    @NonNull
+    private String id;
+    @NonNull
+    @ToString.Exclude
+    @Field("user_key")
+    private String userKey;
+    @NonNull
+    @Indexed
+    private String node;
+    @NonNull
+    @Field("log_name")
+    private String logName;
+    @NonNull
+    @Field("source_path")
+    private String sourcePath;
+    @Field("source_completed")
+    private boolean sourceCompleted;
+    @Field("record_pattern")
+    private String logRecordPattern;
+    @Field("date_format")
+    private String dateFormat;
+    @Field("time_format")
+    private String timeFormat;
+    private String charset;
+    @Field("include_files")
+    private List<String> includeFiles;
+    @Field("exclude_files")
+    private List<String> excludeFiles;
+    @NonNull
+    private List<FileCheckpoint> checkpoints = new ArrayList<>();
+    private int attempts;
+    /**
+     * Instance of the application which runs the job, another instance may claim the job only when the lease expires.
+     */
+    @Field("lease_owner")
+    private String leaseOwner;
+    @Field("lease_expires")
+    private LocalDateTime leaseExpires;
+    @NonNull
+    private LocalDateTime created;
+    private LocalDateTime updated;
+
+    @Data
+    @NoArgsConstructor
+    @Accessors(chain = true)
+    public static class FileCheckpoint {
+
+        @NonNull
+        @Field("file_name")
+        private String fileName;
+        /**
+         * Position of the first record which may be not stored yet.
+         */
+        private long offset;
+        /**
+         * Position up to which the records may be stored, they are deleted before indexing them again on resuming.
+         */
+        private long watermark;
+        private boolean completed;
+    }
+}
@@ -0,0 +1,39 @@
+package org.analyzer.entities;
+
+import lombok.*;
+import lombok.experimental.Accessors;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+
+@Document("learned-record-formats")
+@Data
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@NoArgsConstructor
+@Accessors(chain = true)
+public class LearnedLogRecordFormatEntity {
+
+    @Id
+    @EqualsAndHashCode.Include
+    @NonNull
+    @Indexed(unique = true)
+    private String id;
+    @NonNull
+    @ToString.Exclude
+    @Indexed
+    @Field("user_key")
+    private String userKey;
+    @NonNull
+    private String pattern;
+    @Field("date_format")
+    private String dateFormat;
+    @Field("time_format")
+    private String timeFormat;
+    @Field("last_detected")
+    private LocalDateTime lastDetected;
+    @Field("detections_count")
+    private long detectionsCount;
+}
@@ -9,8 +9,10 @@ import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Document(indexName = "logs")
@@ -36,6 +38,11 @@ public class LogRecordEntity {
             format = DateFormat.hour_minute_second_millis
     )
     private LocalTime time;
+    @Field(
+            type = FieldType.Date,
+            format = DateFormat.epoch_millis
+    )
+    private Long timestamp;
     private String level;
     @NonNull
     @ToString.Exclude
@@ -45,6 +52,7 @@ public class LogRecordEntity {
     private String traceId;
     private String spanId;
     private String record;
+    private Long fingerprint;
 
     @Nonnull
     public static Function<LogRecordEntity, Object> field2FieldValueFunction(@Nonnull final String fieldName) {
@@ -54,15 +62,35 @@ public class LogRecordEntity {
             case "record" -> LogRecordEntity::getRecord;
             case "date" -> LogRecordEntity::getDate;
             case "time" -> LogRecordEntity::getTime;
+            case "timestamp" -> LogRecordEntity::getTimestamp;
             case "traceId" -> LogRecordEntity::getTraceId;
             case "spanId" -> LogRecordEntity::getSpanId;
             case "level" -> LogRecordEntity::getLevel;
             case "id" -> LogRecordEntity::getId;
             case "source" -> LogRecordEntity::getSource;
+            case "fingerprint" -> LogRecordEntity::getFingerprint;
             default -> throw new IllegalArgumentException("Unsupported field: " + fieldName);
         };
     }
 
+    /**
+     * Returns the epoch millis of the record, records stored without the timestamp have only the date and time.
+     */
+    public Long getTimestamp() {
+        return this.timestamp == null && (this.date != null || this.time != null)
+                ? Long.valueOf(toTimestamp(this.date, this.time))
+                : this.timestamp;
+    }
+
+    /**
+     * Combines the date and time of the record to the epoch millis in UTC, the missing parts are zero.
+     */
+    public static long toTimestamp(@Nullable final LocalDate date, @Nullable final LocalTime time) {
+        final var dateMillis = date == null ? 0 : TimeUnit.DAYS.toMillis(date.toEpochDay());
+        final var timeMillis = time == null ? 0 : TimeUnit.NANOSECONDS.toMillis(time.toNanoOfDay());
+        return dateMillis + timeMillis;
+    }
+
     @Nonnull
     public static String toStorageFieldName(@NonNull final String field) {
         return field.endsWith(FIELD_SUFFIX) ? field : field + FIELD_SUFFIX;
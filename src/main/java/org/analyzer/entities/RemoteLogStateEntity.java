@@ -0,0 +1,50 @@
+package org.analyzer.entities;
+
+import lombok.*;
+import lombok.experimental.Accessors;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+
+/**
+ * State of the remote log downloaded by the scheduled indexing settings, used to send conditional
+ * and ranged requests on the next runs.
+ */
+@Document("remote-logs-states")
+@Data
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@NoArgsConstructor
+@Accessors(chain = true)
+public class RemoteLogStateEntity {
+
+    @Id
+    @EqualsAndHashCode.Include
+    @NonNull
+    private String id;
+    @NonNull
+    @ToString.Exclude
+    @Indexed
+    @Field("user_key")
+    private String userKey;
+    @NonNull
+    @Field("data_url")
+    private String logsUrl;
+    @NonNull
+    @Field("indexing_key")
+    private String indexingKey;
+    private String etag;
+    @Field("last_modified")
+    private String lastModified;
+    private long length;
+    @Field("last_record_position")
+    private long lastRecordPosition;
+    @ToString.Exclude
+    private byte[] tail;
+    @Field("ranges_supported")
+    private boolean rangesSupported;
+    @Field("last_downloaded")
+    private LocalDateTime lastDownloaded;
+}
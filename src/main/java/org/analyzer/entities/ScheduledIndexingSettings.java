@@ -12,7 +12,9 @@ public class ScheduledIndexingSettings {
     @NonNull
     @Field("settings_id")
     private String settingsId;
-    @NonNull
+    /**
+     * Cron schedule of the network data indexing, the file system data is followed continuously.
+     */
     private String schedule;
     @Field("log_record_pattern")
     private String logRecordPattern;
@@ -20,7 +22,9 @@ public class ScheduledIndexingSettings {
     private String dateFormat;
     @Field("time_format")
     private String timeFormat;
+    private String charset;
     @Field("network_settings")
-    @NonNull
     private NetworkDataSettings networkSettings;
+    @Field("file_system_settings")
+    private FileSystemDataSettings fileSystemSettings;
 }
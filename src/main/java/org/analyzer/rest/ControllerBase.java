@@ -4,6 +4,8 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.analyzer.service.exceptions.EntityNotFoundException;
+import org.analyzer.service.exceptions.IllegalIndexingSettingsException;
+import org.analyzer.service.exceptions.IllegalUploadChunkException;
 import org.analyzer.service.exceptions.UnsupportedSearchQueryFormatException;
 import org.analyzer.service.exceptions.UserAlreadyDisabledException;
 import org.analyzer.service.exceptions.UserAlreadyExistsException;
@@ -62,7 +64,7 @@ public class ControllerBase {
                 .body(new ExceptionResource(exceptionToString(ex)));
     }
 
-    @ExceptionHandler({UserAlreadyDisabledException.class, UserAlreadyExistsException.class, UnsupportedSearchQueryFormatException.class})
+    @ExceptionHandler({UserAlreadyDisabledException.class, UserAlreadyExistsException.class, UnsupportedSearchQueryFormatException.class, IllegalUploadChunkException.class, IllegalIndexingSettingsException.class})
     protected ResponseEntity<ExceptionResource> userOperationsHandler(RuntimeException ex) {
         log.error("", ex);
         return ResponseEntity
@@ -3,8 +3,13 @@ package org.analyzer.rest.records;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import org.analyzer.service.logs.LogRecordFormat;
 
+import java.util.List;
+
 public record LogRecordFormatResource(
         String pattern,
         @JsonProperty("date_format") String dateFormat,
-        @JsonProperty("time_format") String timeFormat) implements LogRecordFormat {
+        @JsonProperty("time_format") String timeFormat,
+        String charset,
+        @JsonProperty("include_files") List<String> includeFiles,
+        @JsonProperty("exclude_files") List<String> excludeFiles) implements LogRecordFormat {
 }
@@ -0,0 +1,25 @@
+package org.analyzer.rest.records;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.NonNull;
+import org.analyzer.rest.ResourceLink;
+import org.analyzer.service.logs.LogUpload;
+
+import java.util.List;
+
+@JsonAutoDetect
+@JsonSerialize
+public record LogUploadResource(
+        @NonNull String id,
+        @NonNull @JsonProperty("log_name") String logName,
+        @JsonProperty("chunk_size") long chunkSize,
+        @NonNull @JsonProperty("received_chunks") List<Integer> receivedChunks,
+        boolean completed,
+        @NonNull List<ResourceLink> links) {
+
+    LogUploadResource(@NonNull LogUpload upload, @NonNull List<ResourceLink> links) {
+        this(upload.id(), upload.logName(), upload.chunkSize(), upload.receivedChunks(), upload.completed(), links);
+    }
+}
@@ -6,6 +6,7 @@ import org.analyzer.rest.RootEntrypointResource;
 import org.analyzer.rest.hateoas.LinksCollector;
 import org.analyzer.rest.hateoas.NamedEndpoint;
 import org.analyzer.rest.util.WebUtils;
+import org.analyzer.service.logs.LogUploadsService;
 import org.analyzer.service.logs.LogsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
@@ -13,6 +14,7 @@ import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
@@ -20,7 +22,11 @@ import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping(LogsController.PATH_BASE)
@@ -29,12 +35,19 @@ public class LogsController extends ControllerBase {
 
     static final String PATH_BASE = "/logs";
     static final String PATH_INDEX = "/index";
+    static final String PATH_INDEX_STREAM = "/index/stream";
     static final String PATH_SEARCH = "/query";
     static final String PATH_EXPORT = "/export";
+    static final String PATH_UPLOADS = "/uploads";
+    static final String PATH_UPLOAD = PATH_UPLOADS + "/{uploadId}";
+    static final String PATH_UPLOAD_CHUNK = PATH_UPLOAD + "/chunks/{chunkNumber}";
+    static final String PATH_UPLOAD_COMPLETE = PATH_UPLOAD + "/complete";
 
     @Autowired
     private LogsService service;
     @Autowired
+    private LogUploadsService uploadsService;
+    @Autowired
     private WebUtils webUtils;
     @Autowired
     @Lazy
@@ -47,21 +60,78 @@ public class LogsController extends ControllerBase {
             @RequestPart("file") MultipartFile file,
             @RequestPart(value = "record_patterns", required = false) LogRecordFormatResource recordPattern) {
 
-        final DeferredResult<IndexingResult> deferredResult = new DeferredResult<>();
-        deferredResult.onError(ex -> log.error("", ex));
-
+        // the multipart is already stored on disk, so it is moved to the file which is parsed by the byte ranges in parallel
         final var tempFile = this.webUtils.createTempFile(file);
-        this.service.index(tempFile, recordPattern).whenComplete((indexingKey, ex) -> {
-            tempFile.delete();
+        final var indexing = this.service.index(tempFile, recordPattern);
+        indexing.whenComplete((indexingKey, ex) -> tempFile.delete());
+        return createIndexingResult(indexing);
+    }
 
-            if (ex != null) {
-                deferredResult.setErrorResult(ex);
-            } else {
-                deferredResult.setResult(new IndexingResult(indexingKey, this.linksCollector.collectFor(IndexingResult.class)));
-            }
-        });
+    @PostMapping(value = PATH_INDEX_STREAM, consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    @NamedEndpoint(value = "index.logs.stream", includeTo = RootEntrypointResource.class)
+    public DeferredResult<IndexingResult> loadStream(
+            InputStream body,
+            @RequestParam(value = "name", required = false) String name,
+            @RequestParam(value = "pattern", required = false) String pattern,
+            @RequestParam(value = "date_format", required = false) String dateFormat,
+            @RequestParam(value = "time_format", required = false) String timeFormat,
+            @RequestParam(value = "charset", required = false) String charset,
+            @RequestParam(value = "include_files", required = false) List<String> includeFiles,
+            @RequestParam(value = "exclude_files", required = false) List<String> excludeFiles) {
 
-        return deferredResult;
+        final var logName = StringUtils.hasLength(name) ? name : UUID.randomUUID().toString();
+        final var recordPattern = new LogRecordFormatResource(pattern, dateFormat, timeFormat, charset, includeFiles, excludeFiles);
+        return createIndexingResult(this.service.index(body, logName, recordPattern));
+    }
+
+    @PostMapping(PATH_UPLOADS)
+    @ResponseStatus(HttpStatus.CREATED)
+    @NamedEndpoint(value = "upload.logs", includeTo = RootEntrypointResource.class)
+    public LogUploadResource createUpload(
+            @RequestParam(value = "name", required = false) String name,
+            @RequestParam("chunk_size") long chunkSize,
+            @RequestParam(value = "pattern", required = false) String pattern,
+            @RequestParam(value = "date_format", required = false) String dateFormat,
+            @RequestParam(value = "time_format", required = false) String timeFormat,
+            @RequestParam(value = "charset", required = false) String charset,
+            @RequestParam(value = "include_files", required = false) List<String> includeFiles,
+            @RequestParam(value = "exclude_files", required = false) List<String> excludeFiles) {
+
+        final var logName = StringUtils.hasLength(name) ? name : UUID.randomUUID().toString();
+        final var recordPattern = new LogRecordFormatResource(pattern, dateFormat, timeFormat, charset, includeFiles, excludeFiles);
+        return new LogUploadResource(this.uploadsService.create(logName, chunkSize, recordPattern), this.linksCollector.collectFor(LogUploadResource.class));
+    }
+
+    @GetMapping(PATH_UPLOAD)
+    @NamedEndpoint(value = "self", includeTo = LogUploadResource.class)
+    public LogUploadResource readUpload(@PathVariable("uploadId") String uploadId) {
+        return new LogUploadResource(this.uploadsService.findById(uploadId), this.linksCollector.collectFor(LogUploadResource.class));
+    }
+
+    @PutMapping(value = PATH_UPLOAD_CHUNK, consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @NamedEndpoint(value = "upload.chunk", includeTo = LogUploadResource.class)
+    public LogUploadResource uploadChunk(
+            @PathVariable("uploadId") String uploadId,
+            @PathVariable("chunkNumber") int chunkNumber,
+            InputStream body) {
+        return new LogUploadResource(this.uploadsService.writeChunk(uploadId, chunkNumber, body), this.linksCollector.collectFor(LogUploadResource.class));
+    }
+
+    @PostMapping(PATH_UPLOAD_COMPLETE)
+    @ResponseStatus(HttpStatus.CREATED)
+    @NamedEndpoint(value = "upload.complete", includeTo = LogUploadResource.class)
+    public DeferredResult<IndexingResult> completeUpload(
+            @PathVariable("uploadId") String uploadId,
+            @RequestParam("chunks") int chunksCount) {
+        return createIndexingResult(this.uploadsService.complete(uploadId, chunksCount));
+    }
+
+    @DeleteMapping(PATH_UPLOAD)
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @NamedEndpoint(value = "upload.cancel", includeTo = LogUploadResource.class)
+    public void cancelUpload(@PathVariable("uploadId") String uploadId) {
+        this.uploadsService.cancel(uploadId);
     }
 
     @PostMapping(PATH_SEARCH)
@@ -88,8 +158,24 @@ public class LogsController extends ControllerBase {
         this.service.deleteByQuery(query);
     }
 
+    private DeferredResult<IndexingResult> createIndexingResult(final CompletableFuture<String> indexingProcess) {
+
+        final DeferredResult<IndexingResult> deferredResult = new DeferredResult<>();
+        deferredResult.onError(ex -> log.error("", ex));
+
+        indexingProcess.whenComplete((indexingKey, ex) -> {
+            if (ex != null) {
+                deferredResult.setErrorResult(ex);
+            } else {
+                deferredResult.setResult(new IndexingResult(indexingKey, this.linksCollector.collectFor(IndexingResult.class)));
+            }
+        });
+
+        return deferredResult;
+    }
+
     @Override
     protected Set<HttpMethod> supportedMethods() {
-        return Set.of(HttpMethod.OPTIONS, HttpMethod.POST, HttpMethod.DELETE);
+        return Set.of(HttpMethod.OPTIONS, HttpMethod.GET, HttpMethod.POST, HttpMethod.PUT, HttpMethod.DELETE);
     }
 }
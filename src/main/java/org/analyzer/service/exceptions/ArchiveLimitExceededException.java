@@ -0,0 +1,11 @@
+package org.analyzer.service.exceptions;
+
+import lombok.NonNull;
+import org.analyzer.i18n.MessageHelper;
+
+public class ArchiveLimitExceededException extends RuntimeException {
+
+    public ArchiveLimitExceededException(@NonNull String limitName, @NonNull Object limitValue) {
+        super(MessageHelper.getMessage("org.analyzer.archive.limit.exceeded", limitName, limitValue));
+    }
+}
@@ -0,0 +1,11 @@
+package org.analyzer.service.exceptions;
+
+import lombok.NonNull;
+import org.analyzer.i18n.MessageHelper;
+
+public class IllegalIndexingSettingsException extends RuntimeException {
+
+    public IllegalIndexingSettingsException(@NonNull String settingsId, @NonNull String reason) {
+        super(MessageHelper.getMessage("org.analyzer.indexing.settings.illegal", settingsId, reason));
+    }
+}
@@ -0,0 +1,11 @@
+package org.analyzer.service.exceptions;
+
+import lombok.NonNull;
+import org.analyzer.i18n.MessageHelper;
+
+public class IllegalUploadChunkException extends RuntimeException {
+
+    public IllegalUploadChunkException(@NonNull String uploadId, int chunkNumber, @NonNull String reason) {
+        super(MessageHelper.getMessage("org.analyzer.upload.illegal.chunk", uploadId, chunkNumber, reason));
+    }
+}
@@ -0,0 +1,11 @@
+package org.analyzer.service.exceptions;
+
+import lombok.NonNull;
+import org.analyzer.i18n.MessageHelper;
+
+public class LogUploadNotFoundException extends EntityNotFoundException {
+
+    public LogUploadNotFoundException(@NonNull String uploadId) {
+        super(MessageHelper.getMessage("org.analyzer.upload.not.found", uploadId));
+    }
+}
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.node.ArrayNode;
 import lombok.NonNull;
 import org.analyzer.dao.HttpArchiveRepository;
 import org.analyzer.entities.HttpArchiveEntity;
+import org.analyzer.entities.LogRecordEntity;
 import org.analyzer.i18n.MessageHelper;
 import org.analyzer.service.exceptions.EntityNotFoundException;
 import org.analyzer.service.exceptions.UnsupportedSearchQueryFormatException;
@@ -38,8 +39,7 @@ import static org.analyzer.service.har.HttpArchiveBody.getFieldValueByPath;
 public class DefaultHttpArchiveService implements HttpArchiveService {
 
     private static final LocalDate emptyDate = LocalDate.ofInstant(Instant.EPOCH, ZoneOffset.UTC);
-    private static final String BY_INTERVAL_QUERY =
-            "(_exists_:date.keyword AND date.keyword:[%s TO %s] OR date.keyword:%s) AND time.keyword:[%s TO %s]";
+    private static final String BY_INTERVAL_QUERY = "(timestamp.keyword:[%d TO %d] OR timestamp.keyword:[%d TO %d])";
 
     @Autowired
     private HttpArchiveRepository httpArchiveRepository;
@@ -213,18 +213,16 @@ public class DefaultHttpArchiveService implements HttpArchiveService {
                                             ),
                             () -> {
                                 final var interval = getRequestExecutionInterval(request);
-                                final var startIntervalDate = LocalDate.ofInstant(interval.getLeft(), ZoneOffset.UTC);
-                                final var endIntervalDate = LocalDate.ofInstant(interval.getRight(), ZoneOffset.UTC);
                                 final var startIntervalTime = LocalTime.ofInstant(interval.getLeft(), ZoneOffset.UTC);
                                 final var endIntervalTime = LocalTime.ofInstant(interval.getRight(), ZoneOffset.UTC);
 
+                                // records without the date are in the empty date, so only their time is compared
                                 final var formattedIntervalQuery =
                                         BY_INTERVAL_QUERY.formatted(
-                                                startIntervalDate.toString(),
-                                                endIntervalDate.toString(),
-                                                emptyDate.toString(),
-                                                startIntervalTime.toString(),
-                                                endIntervalTime.toString()
+                                                interval.getLeft().toEpochMilli(),
+                                                interval.getRight().toEpochMilli(),
+                                                LogRecordEntity.toTimestamp(emptyDate, startIntervalTime),
+                                                LogRecordEntity.toTimestamp(emptyDate, endIntervalTime)
                                         );
                                 query.append(formattedIntervalQuery);
                             }
@@ -236,8 +234,8 @@ public class DefaultHttpArchiveService implements HttpArchiveService {
                     searchQuery == null ? Map.of() : searchQuery.sorts()
             );
 
-            final List<String> logs = new ArrayList<>(this.logsService.searchByQuery(requestSearchQuery));
-            while (logs.addAll(this.logsService.searchByQuery(requestSearchQuery.toNextPageQuery())));
+            final List<String> logs = new ArrayList<>();
+            this.logsService.searchAllByQuery(requestSearchQuery, logs::add);
 
             result.put(request, logs);
         });
@@ -20,4 +20,9 @@ public interface LogKeysFactory {
 
     @Nonnull
     String createLogRecordKey(@Nonnull String indexedFileKey, long recordId);
+
+    /**
+     * Extracts the byte position of the record in its log from the record key.
+     */
+    long getLogRecordPosition(@Nonnull String recordKey);
 }
@@ -1,6 +1,7 @@
 package org.analyzer.service.logs;
 
 import javax.annotation.Nullable;
+import java.util.List;
 
 public interface LogRecordFormat {
 
@@ -12,4 +13,28 @@ public interface LogRecordFormat {
 
     @Nullable
     String dateFormat();
+
+    /**
+     * Charset of the logs, if not set the charset is detected by the byte order mark or the content of the logs.
+     */
+    @Nullable
+    default String charset() {
+        return null;
+    }
+
+    /**
+     * Glob patterns of the archive entries to index, if not set all entries except the default excludes are indexed.
+     */
+    @Nullable
+    default List<String> includeFiles() {
+        return null;
+    }
+
+    /**
+     * Glob patterns of the archive entries to skip.
+     */
+    @Nullable
+    default List<String> excludeFiles() {
+        return null;
+    }
 }
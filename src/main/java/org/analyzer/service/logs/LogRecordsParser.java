@@ -2,11 +2,15 @@ package org.analyzer.service.logs;
 
 import org.analyzer.entities.LogRecordEntity;
 
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.util.Collection;
 import java.util.Iterator;
 
@@ -18,9 +22,58 @@ public interface LogRecordsParser {
             @Nonnull File logFile,
             @Nullable LogRecordFormat recordFormat) throws IOException;
 
+    /**
+     * Parses records incrementally while the data arrives, the channel is closed with the returned iterator.
+     */
+    @Nonnull
+    LogRecordsPackageIterator parse(
+            @Nonnull String logKey,
+            @Nonnull ReadableByteChannel logChannel,
+            @Nullable LogRecordFormat recordFormat);
+
+    @Nonnull
+    default LogRecordsPackageIterator parse(
+            @Nonnull String logKey,
+            @Nonnull InputStream logStream,
+            @Nullable LogRecordFormat recordFormat) {
+        return parse(logKey, Channels.newChannel(logStream), recordFormat);
+    }
+
+    /**
+     * Parses the continuation of the log which starts at the given byte position of the whole log, so the records
+     * get the same keys as if the whole log was parsed. Leading lines continuing the last record
+     * of the already parsed part of the log are skipped. The logs in charsets which aren't compatible with ASCII
+     * (like UTF-16) can't be parsed from a position other than the beginning, see {@link LogRecordsPackageIterator#bytePositions()}.
+     */
+    @Nonnull
+    LogRecordsPackageIterator parse(
+            @Nonnull String logKey,
+            @Nonnull InputStream logStream,
+            @Nonnegative long logPosition,
+            @Nullable LogRecordFormat recordFormat);
+
+    /**
+     * Parses the log from the record at the given position, unlike {@link #parse(String, InputStream, long, LogRecordFormat)}
+     * the stream starts at the beginning of the log, so the position is the one of the record parsed before in any charset.
+     */
+    @Nonnull
+    LogRecordsPackageIterator parseFrom(
+            @Nonnull String logKey,
+            @Nonnull InputStream logStream,
+            @Nonnegative long recordPosition,
+            @Nullable LogRecordFormat recordFormat);
+
     @NotThreadSafe
     interface LogRecordsPackageIterator extends Iterator<Collection<LogRecordEntity>>, AutoCloseable {
 
+        /**
+         * Whether the positions of the records are byte offsets in the log. The logs transcoded to UTF-8 to be split
+         * into lines (like UTF-16) have the positions in the transcoded data, so they can't be continued from them.
+         */
+        default boolean bytePositions() {
+            return true;
+        }
+
         @Override
         void close();
     }
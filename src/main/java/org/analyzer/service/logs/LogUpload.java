@@ -0,0 +1,16 @@
+package org.analyzer.service.logs;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+
+/**
+ * State of the chunked upload of the log, chunks are numbered from zero and all of them except the last
+ * have the size of the upload chunk.
+ */
+public record LogUpload(
+        @Nonnull String id,
+        @Nonnull String logName,
+        long chunkSize,
+        @Nonnull List<Integer> receivedChunks,
+        boolean completed) {
+}
@@ -0,0 +1,43 @@
+package org.analyzer.service.logs;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Uploads of large logs by chunks. Indexing of the upload starts when it is created and indexes the chunks
+ * as soon as all the previous chunks are received, so the chunks failed to be sent are just sent again.
+ * Zip archives are indexed only when the upload is completed.
+ */
+public interface LogUploadsService {
+
+    @Nonnull
+    LogUpload create(
+            @Nonnull String logName,
+            @Nonnegative long chunkSize,
+            @Nullable LogRecordFormat recordFormat);
+
+    @Nonnull
+    LogUpload findById(@Nonnull String uploadId);
+
+    /**
+     * Writes the chunk of the upload, the chunk which was already received is skipped.
+     */
+    @Nonnull
+    LogUpload writeChunk(
+            @Nonnull String uploadId,
+            @Nonnegative int chunkNumber,
+            @Nonnull InputStream chunkStream);
+
+    /**
+     * Completes the upload with the given number of chunks, returns the indexing of the uploaded log.
+     */
+    @Nonnull
+    CompletableFuture<String> complete(
+            @Nonnull String uploadId,
+            @Nonnegative int chunksCount);
+
+    void cancel(@Nonnull String uploadId);
+}
@@ -3,24 +3,75 @@ package org.analyzer.service.logs;
 import lombok.NonNull;
 import org.analyzer.entities.LogsStatisticsEntity;
 
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.File;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public interface LogsService {
 
     @Nonnull
+    default CompletableFuture<String> index(
+            @Nonnull File logFile,
+            @Nullable LogRecordFormat patternFormat) {
+        return index(logFile, logFile.getName(), patternFormat);
+    }
+
+    /**
+     * Indexes the file with the records keyed by the given log name instead of the name of the file.
+     */
+    @Nonnull
     CompletableFuture<String> index(
             @Nonnull File logFile,
+            @Nonnull String logName,
+            @Nullable LogRecordFormat patternFormat);
+
+    /**
+     * Indexes the data while it is being read from the stream; the stream is closed when indexing completes.
+     */
+    @Nonnull
+    CompletableFuture<String> index(
+            @Nonnull InputStream logStream,
+            @Nonnull String logName,
+            @Nullable LogRecordFormat patternFormat);
+
+    /**
+     * Indexes the data of the log which is continued later by {@link #append}, the result points to the last record
+     * of the indexed data to continue the log from it. The stream is closed when indexing completes.
+     */
+    @Nonnull
+    CompletableFuture<IndexedLogTail> indexAppendable(
+            @Nonnull InputStream logStream,
+            @Nonnull String logName,
+            @Nullable LogRecordFormat patternFormat);
+
+    /**
+     * Indexes the continuation of the log already indexed with the key of the tail. The stream starts at the byte position
+     * of the last indexed record of the log, so the record is indexed again with the lines appended to it since
+     * the previous indexing. The statistics of the key are recalculated when indexing completes; the stream is closed too.
+     * The tail which isn't appendable is rejected.
+     */
+    @Nonnull
+    CompletableFuture<IndexedLogTail> append(
+            @Nonnull IndexedLogTail tail,
+            @Nonnull InputStream logStream,
+            @Nonnull String logName,
             @Nullable LogRecordFormat patternFormat);
 
     @Nonnull
     List<String> searchByQuery(@Nonnull SearchQuery query);
 
+    /**
+     * Passes all the records found by the query to the consumer, unlike {@link #searchByQuery(SearchQuery)} not only the page of the query.
+     */
+    void searchAllByQuery(@Nonnull SearchQuery query, @Nonnull Consumer<String> consumer);
+
     @Nonnull
     File searchAndExportByQuery(@Nonnull SearchQuery query);
 
@@ -39,4 +90,12 @@ public interface LogsService {
     List<String> deleteAllStatisticsByCreationDate(@NonNull LocalDateTime beforeDate);
 
     void deleteByQuery(@Nonnull SearchQuery deleteQuery);
+
+    /**
+     * Indexing key of the appendable log with the byte position of its last indexed record, the record may be continued
+     * by the lines appended to the log later. The logs in charsets which aren't compatible with ASCII (like UTF-16)
+     * aren't appendable, positions of their records aren't byte offsets of the log.
+     */
+    record IndexedLogTail(@Nonnull String indexingKey, @Nonnegative long lastRecordPosition, boolean appendable) {
+    }
 }
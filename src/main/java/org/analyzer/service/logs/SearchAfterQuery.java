@@ -0,0 +1,70 @@
+package org.analyzer.service.logs;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.NonNull;
+import org.analyzer.service.util.JsonConverter;
+import org.springframework.data.domain.Sort;
+
+import java.util.Map;
+
+/**
+ * Query of the page after the given position of the storage.
+ */
+record SearchAfterQuery(@NonNull SearchQuery delegate, @NonNull Object position) implements SearchQuery {
+
+    @NonNull
+    @Override
+    public String query() {
+        return this.delegate.query();
+    }
+
+    @Override
+    public boolean extendedFormat() {
+        return this.delegate.extendedFormat();
+    }
+
+    @NonNull
+    @Override
+    public Map<String, JsonNode> postFilters() {
+        return this.delegate.postFilters();
+    }
+
+    @Override
+    public int pageSize() {
+        return this.delegate.pageSize();
+    }
+
+    @Override
+    public int pageNumber() {
+        return this.delegate.pageNumber();
+    }
+
+    @NonNull
+    @Override
+    public SearchQuery toNextPageQuery() {
+        return this.delegate.toNextPageQuery();
+    }
+
+    @NonNull
+    @Override
+    public SearchQuery toNextPageQuery(@NonNull Object searchAfter) {
+        return new SearchAfterQuery(this.delegate, searchAfter);
+    }
+
+    @Override
+    public Object searchAfter() {
+        return this.position;
+    }
+
+    @NonNull
+    @Override
+    public Map<String, Sort.Direction> sorts() {
+        return this.delegate.sorts();
+    }
+
+    @NonNull
+    @Override
+    public String toJson(@NonNull JsonConverter jsonConverter) {
+        return this.delegate.toJson(jsonConverter);
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.data.domain.Sort;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.Map;
 
 public interface SearchQuery {
@@ -27,6 +28,23 @@ public interface SearchQuery {
     @Nonnull
     SearchQuery toNextPageQuery();
 
+    /**
+     * Position of the storage after which the page is searched, the page number is ignored if it is set,
+     * so the cost of the page doesn't depend on the number of the previous pages.
+     */
+    @Nullable
+    default Object searchAfter() {
+        return null;
+    }
+
+    /**
+     * Returns the query of the page after the position returned by the storage with the previous page.
+     */
+    @Nonnull
+    default SearchQuery toNextPageQuery(@Nonnull Object searchAfter) {
+        return new SearchAfterQuery(this, searchAfter);
+    }
+
     @Nonnull
     Map<String, Sort.Direction> sorts();
 
@@ -11,6 +11,8 @@ import org.springframework.data.domain.Sort;
 import org.springframework.data.elasticsearch.core.query.StringQuery;
 import org.springframework.data.elasticsearch.core.query.StringQueryBuilder;
 
+import java.util.List;
+
 import static org.analyzer.entities.LogRecordEntity.toStorageFieldName;
 
 /**
@@ -57,14 +59,18 @@ public class ElasticSearchQueryParser implements SearchQueryParser<StringQuery>
                 .stream()
                 .map(e -> Sort.by(e.getValue(), toStorageFieldName(e.getKey())))
                 .reduce(Sort::and)
-                .orElse(
-                        Sort.by(
-                                Sort.Order.asc(toStorageFieldName("date")).nullsLast(),
-                                Sort.Order.asc(toStorageFieldName("time")).nullsLast()
-                        )
-                );
+                .orElse(Sort.by(Sort.Order.asc(toStorageFieldName("timestamp")).nullsLast()))
+                // the unique tiebreaker is required to search after the sort values of the last record
+                .and(Sort.by(Sort.Order.asc(toStorageFieldName("id"))));
 
         final var maxSize = query.pageSize() == 0 || query.pageSize() > maxResultsDefault ? maxResultsDefault : query.pageSize();
+        if (query.searchAfter() instanceof List<?> sortValues) {
+            return new StringQueryBuilder(resultQueryString)
+                    .withPageable(PageRequest.of(0, maxSize, sort))
+                    .withSearchAfter(List.copyOf(sortValues))
+                    .build();
+        }
+
         return new StringQueryBuilder(resultQueryString)
                 .withPageable(PageRequest.of(query.pageNumber(), maxSize, sort))
                 .build();
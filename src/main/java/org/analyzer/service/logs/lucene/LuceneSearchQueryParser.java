@@ -1,21 +1,36 @@
 package org.analyzer.service.logs.lucene;
 
 import lombok.NonNull;
+import org.analyzer.dao.lucene.LuceneLogRecordBuilder;
+import org.analyzer.dao.lucene.LuceneLogRecordFieldMetadata;
 import org.analyzer.service.exceptions.UnsupportedSearchQueryFormatException;
 import org.analyzer.service.logs.SearchQuery;
 import org.analyzer.service.logs.SearchQueryParser;
+import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.Term;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TermRangeQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.format.DateTimeParseException;
 
 import static org.analyzer.entities.LogRecordEntity.toStorageFieldName;
 
 public class LuceneSearchQueryParser implements SearchQueryParser<Query> {
 
-    private static final String QUERY_TEMPLATE = "(%s) AND (id.keyword:%s#)";
     private static final String SOURCE_KEYWORD = toStorageFieldName("source");
 
+    @Autowired
+    private LuceneLogRecordFieldMetadata logRecordFieldMetadata;
+
     @NonNull
     @Override
     public Query parse(@NonNull SearchQuery query, @NonNull String userKey) {
@@ -24,12 +39,88 @@ public class LuceneSearchQueryParser implements SearchQueryParser<Query> {
         }
 
         try (final var analyzer = new StandardAnalyzer()) {
-            final var parser = new QueryParser(SOURCE_KEYWORD, analyzer);
+            final var parser = new TypedFieldsQueryParser(analyzer);
             parser.setAllowLeadingWildcard(true);
             parser.setDefaultOperator(QueryParser.Operator.AND);
-            return parser.parse(QUERY_TEMPLATE.formatted(query.query(), userKey));
+
+            // records of the user are selected by the filter, so it doesn't affect the scores and is cached by the searcher
+            return new BooleanQuery.Builder()
+                        .add(parser.parse(query.query()), BooleanClause.Occur.MUST)
+                        .add(new TermQuery(new Term(LuceneLogRecordBuilder.USER_KEY_FIELD, userKey)), BooleanClause.Occur.FILTER)
+                        .build();
         } catch (ParseException e) {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Keyword fields are indexed as the single terms, so the terms of the query for them aren't analyzed too
+     * and match the values case-sensitively, as the keyword fields of Elasticsearch do ({@code level:error}
+     * doesn't match {@code ERROR}). Terms and ranges of the point fields are parsed as the values of the entity fields.
+     */
+    private class TypedFieldsQueryParser extends QueryParser {
+
+        private TypedFieldsQueryParser(final Analyzer analyzer) {
+            super(SOURCE_KEYWORD, analyzer);
+        }
+
+        @Override
+        protected Query getFieldQuery(String field, String queryText, boolean quoted) throws ParseException {
+            if (isKeywordField(field)) {
+                return new TermQuery(new Term(toStorageFieldName(field), queryText));
+            } else if (!isPointField(field)) {
+                return super.getFieldQuery(field, queryText, quoted);
+            }
+
+            return LongPoint.newExactQuery(toStorageFieldName(field), toLongValue(field, queryText));
+        }
+
+        @Override
+        protected Query getPrefixQuery(String field, String termStr) throws ParseException {
+            return isKeywordField(field) ? newPrefixQuery(new Term(toStorageFieldName(field), termStr)) : super.getPrefixQuery(field, termStr);
+        }
+
+        @Override
+        protected Query getWildcardQuery(String field, String termStr) throws ParseException {
+            return isKeywordField(field) ? newWildcardQuery(new Term(toStorageFieldName(field), termStr)) : super.getWildcardQuery(field, termStr);
+        }
+
+        @Override
+        protected Query getRegexpQuery(String field, String termStr) throws ParseException {
+            return isKeywordField(field) ? newRegexpQuery(new Term(toStorageFieldName(field), termStr)) : super.getRegexpQuery(field, termStr);
+        }
+
+        @Override
+        protected Query getRangeQuery(String field, String part1, String part2, boolean startInclusive, boolean endInclusive) throws ParseException {
+            if (isKeywordField(field)) {
+                return TermRangeQuery.newStringRange(toStorageFieldName(field), part1, part2, startInclusive, endInclusive);
+            } else if (!isPointField(field)) {
+                return super.getRangeQuery(field, part1, part2, startInclusive, endInclusive);
+            }
+
+            final var lowerValue = part1 == null ? Long.MIN_VALUE : toLongValue(field, part1);
+            final var upperValue = part2 == null ? Long.MAX_VALUE : toLongValue(field, part2);
+            return LongPoint.newRangeQuery(
+                    toStorageFieldName(field),
+                    startInclusive || part1 == null ? lowerValue : Math.addExact(lowerValue, 1),
+                    endInclusive || part2 == null ? upperValue : Math.addExact(upperValue, -1)
+            );
+        }
+
+        private boolean isKeywordField(final String field) {
+            return logRecordFieldMetadata.getStorageFieldType(field) == StringField.class;
+        }
+
+        private boolean isPointField(final String field) {
+            return logRecordFieldMetadata.getStorageFieldType(field) == LongPoint.class;
+        }
+
+        private long toLongValue(final String field, final String value) throws ParseException {
+            try {
+                return logRecordFieldMetadata.toLongValue(field, value);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new ParseException("Illegal value of field '" + field + "': " + value);
+            }
+        }
+    }
 }
@@ -11,17 +11,23 @@ import javax.annotation.Nonnegative;
 import javax.annotation.Nullable;
 import java.util.Map;
 
+/**
+ * Selects the records of the indexing by the prefix of their identifiers, the identifier of the record starts
+ * with the user indexing key followed by the {@code $} separator.
+ */
 public final class AnalyzeQueryOnIndexWrapper implements AnalyzeQuery {
 
     private final String key;
+    private final String userIndexingKey;
     private final int pageNumber;
 
-    public AnalyzeQueryOnIndexWrapper(final String key) {
-        this(key, 0);
+    public AnalyzeQueryOnIndexWrapper(@NonNull final String key, @NonNull final String userIndexingKey) {
+        this(key, userIndexingKey, 0);
     }
 
-    private AnalyzeQueryOnIndexWrapper(final String key, final int pageNumber) {
+    private AnalyzeQueryOnIndexWrapper(final String key, final String userIndexingKey, final int pageNumber) {
         this.key = key;
+        this.userIndexingKey = userIndexingKey;
         this.pageNumber = pageNumber;
     }
 
@@ -45,7 +51,7 @@ public final class AnalyzeQueryOnIndexWrapper implements AnalyzeQuery {
     @NonNull
     @Override
     public SearchQuery toSearchQuery(@Nonnegative int pageNumber) {
-        return new AnalyzeQueryOnIndexWrapper(key, pageNumber);
+        return new AnalyzeQueryOnIndexWrapper(key, userIndexingKey, pageNumber);
     }
 
     @NonNull
@@ -57,7 +63,7 @@ public final class AnalyzeQueryOnIndexWrapper implements AnalyzeQuery {
     @NonNull
     @Override
     public String query() {
-        return "id.keyword:#" + key + "$";
+        return "id.keyword:" + this.userIndexingKey + "$*";
     }
 
     @Override
@@ -84,7 +90,7 @@ public final class AnalyzeQueryOnIndexWrapper implements AnalyzeQuery {
     @NonNull
     @Override
     public SearchQuery toNextPageQuery() {
-        return new AnalyzeQueryOnIndexWrapper(key, this.pageNumber + 1);
+        return new AnalyzeQueryOnIndexWrapper(key, userIndexingKey, this.pageNumber + 1);
     }
 
     @NonNull
@@ -0,0 +1,168 @@
+package org.analyzer.service.logs.std;
+
+import lombok.NonNull;
+import org.analyzer.service.logs.LogRecordFormat;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Detects the charset of logs by the byte order mark or, when there is no mark, by zero bytes of UTF-16
+ * and then by checking whether the beginning of the logs is valid UTF-8.
+ */
+final class CharsetDetector {
+
+    private static final byte[] LINE_SEPARATORS = { '\n', '\r' };
+
+    private static final byte[] UTF_32BE_BOM = { 0, 0, (byte) 0xFE, (byte) 0xFF };
+    private static final byte[] UTF_32LE_BOM = { (byte) 0xFF, (byte) 0xFE, 0, 0 };
+    private static final byte[] UTF_8_BOM = { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF };
+    private static final byte[] UTF_16BE_BOM = { (byte) 0xFE, (byte) 0xFF };
+    private static final byte[] UTF_16LE_BOM = { (byte) 0xFF, (byte) 0xFE };
+
+    private static final int UTF_16_CHECK_MAX_UNITS = 4 * 1024;
+    private static final int UTF_16_CHECK_MIN_UNITS = 4;
+
+    private CharsetDetector() {
+    }
+
+    /**
+     * Detects the charset by the head of logs, the position of the buffer isn't changed.
+     *
+     * @param head            beginning of the logs
+     * @param explicitCharset charset which is set for logs explicitly, the byte order mark is skipped only if it's mark of this charset
+     * @param fallbackCharset charset to use if there is no byte order mark and the head isn't valid UTF-8
+     */
+    @Nonnull
+    static DetectedCharset detect(
+            @NonNull final ByteBuffer head,
+            @Nullable final Charset explicitCharset,
+            @NonNull final Charset fallbackCharset) {
+        final var bomCharset = detectByBom(head);
+        if (explicitCharset != null) {
+            return bomCharset != null && bomCharset.charset().equals(explicitCharset)
+                    ? bomCharset
+                    : new DetectedCharset(explicitCharset, 0);
+        } else if (bomCharset != null) {
+            return bomCharset;
+        }
+
+        // ASCII text in UTF-16 is valid UTF-8 too, so zero bytes are checked first
+        final var utf16Charset = detectUtf16ByZeros(head);
+        if (utf16Charset != null) {
+            return new DetectedCharset(utf16Charset, 0);
+        }
+
+        return new DetectedCharset(isValidUtf8(head) ? StandardCharsets.UTF_8 : fallbackCharset, 0);
+    }
+
+    @Nullable
+    static Charset explicitCharset(@Nullable final LogRecordFormat recordFormat) {
+        return recordFormat == null || !StringUtils.hasLength(recordFormat.charset())
+                ? null
+                : Charset.forName(recordFormat.charset());
+    }
+
+    /**
+     * Checks whether line separators of the charset are single bytes and so lines can be found in raw bytes.
+     */
+    static boolean isAsciiCompatible(@NonNull final Charset charset) {
+        try {
+            return charset.canEncode() && Arrays.equals(new String(LINE_SEPARATORS, StandardCharsets.US_ASCII).getBytes(charset), LINE_SEPARATORS);
+        } catch (UnsupportedOperationException ex) {
+            return false;
+        }
+    }
+
+    private static DetectedCharset detectByBom(final ByteBuffer head) {
+        if (startsWith(head, UTF_32BE_BOM)) {
+            return new DetectedCharset(Charset.forName("UTF-32BE"), UTF_32BE_BOM.length);
+        } else if (startsWith(head, UTF_32LE_BOM)) {
+            return new DetectedCharset(Charset.forName("UTF-32LE"), UTF_32LE_BOM.length);
+        } else if (startsWith(head, UTF_8_BOM)) {
+            return new DetectedCharset(StandardCharsets.UTF_8, UTF_8_BOM.length);
+        } else if (startsWith(head, UTF_16BE_BOM)) {
+            return new DetectedCharset(StandardCharsets.UTF_16BE, UTF_16BE_BOM.length);
+        } else if (startsWith(head, UTF_16LE_BOM)) {
+            return new DetectedCharset(StandardCharsets.UTF_16LE, UTF_16LE_BOM.length);
+        }
+
+        return null;
+    }
+
+    /**
+     * Text of logs is mostly ASCII, so in UTF-16 the high byte of most of the code units is zero,
+     * while the zero bytes hardly ever occur in text in the other charsets.
+     */
+    private static Charset detectUtf16ByZeros(final ByteBuffer head) {
+        final var units = Math.min(head.remaining() / 2, UTF_16_CHECK_MAX_UNITS);
+        if (units < UTF_16_CHECK_MIN_UNITS) {
+            return null;
+        }
+
+        int evenZeros = 0;
+        int oddZeros = 0;
+        for (int i = 0; i < units; i++) {
+            final var unitPosition = head.position() + i * 2;
+            if (head.get(unitPosition) == 0) {
+                evenZeros++;
+            }
+            if (head.get(unitPosition + 1) == 0) {
+                oddZeros++;
+            }
+        }
+
+        // the share of zeros of the other byte is bounded, because code units like U+0100 have zero low byte
+        if (evenZeros * 10 >= units * 4 && oddZeros * 20 < units) {
+            return StandardCharsets.UTF_16BE;
+        } else if (oddZeros * 10 >= units * 4 && evenZeros * 20 < units) {
+            return StandardCharsets.UTF_16LE;
+        }
+
+        return null;
+    }
+
+    private static boolean startsWith(final ByteBuffer head, final byte[] bom) {
+        if (head.remaining() < bom.length) {
+            return false;
+        }
+
+        for (int i = 0; i < bom.length; i++) {
+            if (head.get(head.position() + i) != bom[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isValidUtf8(final ByteBuffer head) {
+        final var decoder = StandardCharsets.UTF_8
+                                .newDecoder()
+                                .onMalformedInput(CodingErrorAction.REPORT)
+                                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        final var bytes = head.duplicate();
+        final var chars = CharBuffer.allocate(8 * 1024);
+        while (true) {
+            // the head may end in the middle of the character, so the input is never treated as completed
+            final var result = decoder.decode(bytes, chars, false);
+            if (result.isError()) {
+                return false;
+            } else if (result.isUnderflow()) {
+                return true;
+            }
+
+            chars.clear();
+        }
+    }
+
+    record DetectedCharset(@Nonnull Charset charset, int bomLength) {
+    }
+}
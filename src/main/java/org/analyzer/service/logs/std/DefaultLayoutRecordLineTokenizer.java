@@ -0,0 +1,156 @@
+package org.analyzer.service.logs.std;
+
+import lombok.NonNull;
+
+/**
+ * Single-pass tokenizer for the default layout '2023-01-01 10:00:02,213 INFO  [org.example.SomeClass1] (thread-1) Any text'.
+ * Produces the same tokens as the default record pattern; lines that don't fit the layout are passed to the pattern.
+ */
+final class DefaultLayoutRecordLineTokenizer implements RecordLineTokenizer {
+
+    private static final String EMPTY = "";
+
+    private final RecordLineTokenizer fallbackTokenizer;
+
+    DefaultLayoutRecordLineTokenizer(@NonNull final RecordLineTokenizer fallbackTokenizer) {
+        this.fallbackTokenizer = fallbackTokenizer;
+    }
+
+    @Override
+    public boolean tokenize(@NonNull final String line, @NonNull final RecordTokens tokens) {
+        return scan(line, tokens) || this.fallbackTokenizer.tokenize(line, tokens);
+    }
+
+    private boolean scan(final String line, final RecordTokens tokens) {
+        final var length = line.length();
+
+        var i = 0;
+        if (isDatePrefix(line, length)) {
+            tokens.date = line.substring(0, 10);
+            i = 11;
+        } else {
+            tokens.date = null;
+        }
+
+        if (!isTimePrefix(line, i, length)) {
+            return false;
+        }
+
+        final var timeStart = i;
+        i += 8;
+        while (i < length && isTimeFractionChar(line.charAt(i))) {
+            i++;
+        }
+        final var timeEnd = i;
+
+        i = skipSpaces(line, i, length);
+
+        final var levelStart = i;
+        while (i < length && isLetter(line.charAt(i))) {
+            i++;
+        }
+        final var levelEnd = i;
+
+        i = skipSpaces(line, i, length);
+        if (i == length || line.charAt(i) != '[') {
+            return false;
+        }
+
+        final var categoryStart = ++i;
+        while (i < length && isCategoryChar(line.charAt(i))) {
+            i++;
+        }
+        final var categoryEnd = i;
+        if (i == length || line.charAt(i) != ']') {
+            return false;
+        }
+
+        i = skipSpaces(line, i + 1, length);
+        if (i == length || line.charAt(i) != '(') {
+            return false;
+        }
+
+        final var threadStart = ++i;
+        while (i < length && isThreadChar(line.charAt(i))) {
+            i++;
+        }
+        final var threadEnd = i;
+        if (i == length || line.charAt(i) != ')') {
+            return false;
+        }
+
+        i = skipSpaces(line, i + 1, length);
+
+        tokens.time = line.substring(timeStart, timeEnd);
+        tokens.level = line.substring(levelStart, levelEnd);
+        tokens.category = line.substring(categoryStart, categoryEnd);
+        tokens.thread = line.substring(threadStart, threadEnd);
+        tokens.traceId = EMPTY;
+        tokens.spanId = EMPTY;
+        tokens.text = line.substring(i);
+
+        return true;
+    }
+
+    private static boolean isDatePrefix(final String line, final int length) {
+        return length > 10
+                && isDigits(line, 0, 4)
+                && line.charAt(4) == '-'
+                && isDigits(line, 5, 2)
+                && line.charAt(7) == '-'
+                && isDigits(line, 8, 2)
+                && isSpace(line.charAt(10));
+    }
+
+    private static boolean isTimePrefix(final String line, final int from, final int length) {
+        return length - from >= 8
+                && isDigits(line, from, 2)
+                && line.charAt(from + 2) == ':'
+                && isDigits(line, from + 3, 2)
+                && line.charAt(from + 5) == ':'
+                && isDigits(line, from + 6, 2);
+    }
+
+    private static boolean isDigits(final String line, final int from, final int count) {
+        for (int i = from; i < from + count; i++) {
+            if (!isDigit(line.charAt(i))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static int skipSpaces(final String line, final int from, final int length) {
+        var i = from;
+        while (i < length && isSpace(line.charAt(i))) {
+            i++;
+        }
+
+        return i;
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLetter(final char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z';
+    }
+
+    private static boolean isSpace(final char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static boolean isTimeFractionChar(final char c) {
+        return isDigit(c) || c == ',' || c == '.';
+    }
+
+    private static boolean isCategoryChar(final char c) {
+        return isLetter(c) || isDigit(c) || c == '.' || c == '_';
+    }
+
+    private static boolean isThreadChar(final char c) {
+        return isLetter(c) || isDigit(c) || c == '.' || c == ',' || c == '-' || c == '_' || isSpace(c);
+    }
+}
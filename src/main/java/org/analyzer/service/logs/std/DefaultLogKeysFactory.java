@@ -24,4 +24,9 @@ public class DefaultLogKeysFactory implements LogKeysFactory {
     public String createLogRecordKey(@NonNull final String indexedFileKey, final long recordId) {
         return indexedFileKey + "@" + recordId;
     }
+
+    @Override
+    public long getLogRecordPosition(@NonNull final String recordKey) {
+        return Long.parseLong(recordKey.substring(recordKey.lastIndexOf('@') + 1));
+    }
 }
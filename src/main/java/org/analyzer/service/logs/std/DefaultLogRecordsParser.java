@@ -1,32 +1,45 @@
 package org.analyzer.service.logs.std;
 
+import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tag;
 import lombok.NonNull;
+import org.analyzer.config.parsing.LogRecordsParsingProperties;
+import org.analyzer.config.parsing.ParsingTasksPool;
 import org.analyzer.entities.LogRecordEntity;
+import org.analyzer.service.exceptions.UnsupportedApplicationOperationException;
 import org.analyzer.service.exceptions.UnsupportedLogRecordFormatException;
 import org.analyzer.service.logs.LogKeysFactory;
 import org.analyzer.service.logs.LogRecordFormat;
 import org.analyzer.service.logs.LogRecordsParser;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 import java.time.Instant;
+import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.regex.Matcher;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Pattern;
 
 import static java.time.temporal.ChronoField.*;
@@ -37,9 +50,15 @@ public class DefaultLogRecordsParser implements LogRecordsParser {
     /**
      * Pattern for format like '2023-01-01 10:00:02,213 INFO  [org.example.SomeClass1] (thread-1) Any text'
      */
-    private static final Pattern defaultRecordPattern =
+    static final Pattern defaultRecordPattern =
             Pattern.compile("^(((?<date>\\d{4}-\\d{2}-\\d{2})\\s)?(?<time>\\d{2}:\\d{2}:\\d{2}[0-9,.]*?))\\s*(?<traceId>(^$)?)(?<spanId>(^$)?)(?<level>[A-Za-z]*)\\s*\\[(?<category>[A-Za-z0-9._]*)]\\s*\\((?<thread>[A-Za-z0-9.,\\-_\\s]*)\\)\\s*(?<text>[\\S\\s]*)(\\n?)$");
 
+    private static final RecordLineTokenizer defaultRecordTokenizer =
+            new DefaultLayoutRecordLineTokenizer(new PatternRecordLineTokenizer(defaultRecordPattern));
+
+    private static final int CHARSET_DETECTION_HEAD_SIZE = 64 * 1024;
+    private static final int INITIAL_PACKAGE_CAPACITY = 1_024;
+
     private static final LocalDate emptyDate = LocalDate.ofInstant(Instant.EPOCH, ZoneOffset.UTC);
 
     private static final DateTimeFormatter defaultDateFormatter = DateTimeFormatter.ISO_DATE;
@@ -56,18 +75,34 @@ public class DefaultLogRecordsParser implements LogRecordsParser {
                     .appendValue(MILLI_OF_SECOND, 3)
                     .toFormatter();
 
+    private static final TimestampFormat defaultDateFormat =
+            TimestampFormat.compile(defaultDateFormatter, true, "uuuu-MM-dd");
+    private static final TimestampFormat defaultTimeFormat =
+            TimestampFormat.compile(defaultTimeFormatter, false, "HH:mm:ss,SSS", "HH:mm:ss", "HH:mm");
+
     private final Map<String, Pattern> patternsCache;
     private final Map<String, DateTimeFormatter> dateTimeFormattersCache;
 
     private final LogKeysFactory logKeysFactory;
+    private final ThreadPoolTaskExecutor parsingPool;
+    private final RecordsPackageSizing packageSizing;
+    private final LogRecordsParsingProperties parsingProperties;
+    private final Counter truncatedRecordsCounter;
 
     @Autowired
     public DefaultLogRecordsParser(
             @NonNull MeterRegistry meterRegistry,
-            @NonNull LogKeysFactory logKeysFactory) {
+            @NonNull LogKeysFactory logKeysFactory,
+            @NonNull @ParsingTasksPool ThreadPoolTaskExecutor parsingPool,
+            @NonNull LogRecordsParsingProperties parsingProperties,
+            @NonNull RecordsPackageSizing packageSizing) {
         this.logKeysFactory = logKeysFactory;
+        this.parsingPool = parsingPool;
+        this.packageSizing = packageSizing;
+        this.parsingProperties = parsingProperties;
         this.patternsCache = new ConcurrentHashMap<>();
         this.dateTimeFormattersCache = new ConcurrentHashMap<>();
+        this.truncatedRecordsCounter = meterRegistry.counter("logs.parser.records.truncated", "description", "Records truncated due to max record size");
 
         meterRegistry.gaugeMapSize(
                 "logs.parser.records.patterns",
@@ -86,17 +121,172 @@ public class DefaultLogRecordsParser implements LogRecordsParser {
             @Nonnull String logKey,
             @Nonnull File logFile,
             @Nullable LogRecordFormat recordFormat) throws IOException {
-        final var pattern = recordFormat == null || !StringUtils.hasLength(recordFormat.pattern())
-                                    ? defaultRecordPattern
-                                    : this.patternsCache.computeIfAbsent(recordFormat.pattern(), Pattern::compile);
-        final var dateFormatter = recordFormat == null || !StringUtils.hasLength(recordFormat.dateFormat())
-                                                    ? defaultDateFormatter
-                                                    : computeFormatter(recordFormat.dateFormat());
-        final var timeFormatter = recordFormat == null || !StringUtils.hasLength(recordFormat.timeFormat())
-                                                    ? defaultTimeFormatter
-                                                    : computeFormatter(recordFormat.timeFormat());
+        final var formatSettings = createFormatSettings(recordFormat);
+
+        final var channel = FileChannel.open(logFile.toPath(), StandardOpenOption.READ);
+        try {
+            final var head = readHead(channel);
+            final var detectedCharset = detectCharset(head, recordFormat);
+
+            final var fileSize = logFile.length();
+            final var chunkSize = (long) this.parsingProperties.getChunkSizeMb() * 1024 * 1024;
+            if (this.parsingProperties.getThreads() > 1
+                    && chunkSize > 0
+                    && fileSize >= (long) this.parsingProperties.getParallelThresholdMb() * 1024 * 1024
+                    && fileSize > chunkSize
+                    && CharsetDetector.isAsciiCompatible(detectedCharset.charset())) {
+                channel.close();
+                return new ParallelLogRecordsPackageIterator(logFile, fileSize, chunkSize, detectedCharset, logKey, formatSettings);
+            }
+
+            final var reader = createLinesReader(channel, head, detectedCharset, 0);
+            return new LazyLogRecordsPackageIterator(reader, Long.MAX_VALUE, false, CharsetDetector.isAsciiCompatible(detectedCharset.charset()), logKey, formatSettings);
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    @Nonnull
+    @Override
+    public LogRecordsPackageIterator parse(
+            @Nonnull String logKey,
+            @Nonnull ReadableByteChannel logChannel,
+            @Nullable LogRecordFormat recordFormat) {
+        return parse(logKey, logChannel, 0, recordFormat);
+    }
+
+    @Nonnull
+    @Override
+    public LogRecordsPackageIterator parse(
+            @Nonnull String logKey,
+            @Nonnull InputStream logStream,
+            @Nonnegative long logPosition,
+            @Nullable LogRecordFormat recordFormat) {
+        return parse(logKey, Channels.newChannel(logStream), logPosition, recordFormat);
+    }
+
+    @Nonnull
+    @Override
+    public LogRecordsPackageIterator parseFrom(
+            @Nonnull String logKey,
+            @Nonnull InputStream logStream,
+            @Nonnegative long recordPosition,
+            @Nullable LogRecordFormat recordFormat) {
+        final var formatSettings = createFormatSettings(recordFormat);
+        final var logChannel = Channels.newChannel(logStream);
+        try {
+            final var head = readHead(logChannel);
+            final var detectedCharset = detectCharset(head, recordFormat);
+            final var bytePositions = CharsetDetector.isAsciiCompatible(detectedCharset.charset());
+            if (bytePositions && recordPosition > head.limit()) {
+                logStream.skipNBytes(recordPosition - head.limit());
+                return new LazyLogRecordsPackageIterator(new LogLinesReader(logChannel, detectedCharset.charset(), recordPosition), Long.MAX_VALUE, false, true, logKey, formatSettings);
+            }
+
+            // positions of the transcoded logs aren't byte offsets of the log, so the lines before the record are skipped instead
+            final var reader = createLinesReader(logChannel, head, detectedCharset, 0);
+            while (reader.position() < recordPosition && reader.skipLine());
+            return new LazyLogRecordsPackageIterator(reader, Long.MAX_VALUE, false, bytePositions, logKey, formatSettings);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private LogRecordsPackageIterator parse(
+            final String logKey,
+            final ReadableByteChannel logChannel,
+            final long logPosition,
+            final LogRecordFormat recordFormat) {
+        final var formatSettings = createFormatSettings(recordFormat);
+        try {
+            final var head = readHead(logChannel);
+            final var detectedCharset = detectCharset(head, recordFormat);
+            final var bytePositions = CharsetDetector.isAsciiCompatible(detectedCharset.charset());
+            if (logPosition > 0 && !bytePositions) {
+                throw new UnsupportedApplicationOperationException("parsing of the log in " + detectedCharset.charset() + " from the position " + logPosition);
+            }
 
-        return new LazyLogRecordsPackageIterator(logFile, logKey, pattern, dateFormatter, timeFormatter);
+            final var reader = createLinesReader(logChannel, head, detectedCharset, logPosition);
+            return new LazyLogRecordsPackageIterator(reader, Long.MAX_VALUE, logPosition > 0, bytePositions, logKey, formatSettings);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private ByteBuffer readHead(final ReadableByteChannel channel) throws IOException {
+        final var head = ByteBuffer.allocate(CHARSET_DETECTION_HEAD_SIZE);
+        while (head.hasRemaining() && channel.read(head) >= 0);
+        return head.flip();
+    }
+
+    private CharsetDetector.DetectedCharset detectCharset(final ByteBuffer head, final LogRecordFormat recordFormat) {
+        return CharsetDetector.detect(head, CharsetDetector.explicitCharset(recordFormat), this.parsingProperties.getFallbackCharset());
+    }
+
+    private LogLinesReader createLinesReader(
+            final ReadableByteChannel channel,
+            final ByteBuffer head,
+            final CharsetDetector.DetectedCharset detectedCharset,
+            final long logPosition) {
+        head.position(detectedCharset.bomLength());
+        final var prefetchedChannel = new PrefetchedByteChannel(head, channel);
+
+        return CharsetDetector.isAsciiCompatible(detectedCharset.charset())
+                ? new LogLinesReader(prefetchedChannel, detectedCharset.charset(), logPosition + detectedCharset.bomLength())
+                : new LogLinesReader(new Utf8TranscodingByteChannel(prefetchedChannel, detectedCharset.charset()), StandardCharsets.UTF_8, logPosition);
+    }
+
+    /**
+     * Counts the sample lines which are the starts of records in the format.
+     *
+     * @return count of records or {@code -1} if the first line isn't a record start or a timestamp of a record can't be parsed
+     */
+    int countSampleRecords(@Nullable LogRecordFormat recordFormat, @Nonnull List<String> sampleLines) {
+        final var formatSettings = createFormatSettings(recordFormat);
+        final var timestampDecoder = new TimestampDecoder(formatSettings.dateFormat(), formatSettings.timeFormat());
+        final var tokens = new RecordTokens();
+
+        int records = 0;
+        for (int i = 0; i < sampleLines.size(); i++) {
+            if (!formatSettings.tokenizer().tokenize(sampleLines.get(i), tokens)) {
+                if (i == 0) {
+                    return -1;
+                }
+
+                continue;
+            }
+
+            try {
+                parseTime(timestampDecoder, tokens.time);
+                parseDate(timestampDecoder, tokens.date);
+            } catch (DateTimeException ex) {
+                return -1;
+            }
+
+            records++;
+        }
+
+        return records;
+    }
+
+    @Nonnull
+    Set<String> recentPatterns() {
+        return Collections.unmodifiableSet(this.patternsCache.keySet());
+    }
+
+    private RecordFormatSettings createFormatSettings(final LogRecordFormat recordFormat) {
+        final var tokenizer = recordFormat == null || !StringUtils.hasLength(recordFormat.pattern())
+                                    ? defaultRecordTokenizer
+                                    : new PatternRecordLineTokenizer(this.patternsCache.computeIfAbsent(recordFormat.pattern(), Pattern::compile));
+        final var dateFormat = recordFormat == null || !StringUtils.hasLength(recordFormat.dateFormat())
+                                                    ? defaultDateFormat
+                                                    : TimestampFormat.compile(computeFormatter(recordFormat.dateFormat()), true, recordFormat.dateFormat());
+        final var timeFormat = recordFormat == null || !StringUtils.hasLength(recordFormat.timeFormat())
+                                                    ? defaultTimeFormat
+                                                    : TimestampFormat.compile(computeFormatter(recordFormat.timeFormat()), false, recordFormat.timeFormat());
+
+        return new RecordFormatSettings(tokenizer, dateFormat, timeFormat);
     }
 
     private DateTimeFormatter computeFormatter(final String format) {
@@ -109,49 +299,61 @@ public class DefaultLogRecordsParser implements LogRecordsParser {
                         );
     }
 
-    private LocalTime parseTime(final DateTimeFormatter timeFormatter, final Matcher matcher) {
-        final var time = matcher.group("time");
+    private LocalTime parseTime(final TimestampDecoder timestampDecoder, final String time) {
         if (!StringUtils.hasLength(time)) {
             return null;
         }
 
-        return LocalTime.from(timeFormatter.parse(time));
+        return timestampDecoder.decodeTime(time);
     }
 
-    private LocalDate parseDate(final DateTimeFormatter dateFormatter, final Matcher matcher) {
-        final var date = matcher.group("date");
+    private LocalDate parseDate(final TimestampDecoder timestampDecoder, final String date) {
         if (!StringUtils.hasLength(date)) {
             return emptyDate;
         }
 
-        return LocalDate.from(dateFormatter.parse(date));
+        return timestampDecoder.decodeDate(date);
     }
 
     private class LazyLogRecordsPackageIterator implements LogRecordsPackageIterator {
 
-        private static final int PACKAGE_SIZE = 2_000;
-
         private final String logKey;
-        private final Pattern pattern;
-        private final DateTimeFormatter dateFormatter;
-        private final DateTimeFormatter timeFormatter;
-        private final BufferedReader reader;
+        private final RecordFormatSettings formatSettings;
+        private final RecordTokens tokens;
+        private final LogLinesReader reader;
+        private final long rangeEnd;
+        private final boolean bytePositions;
+        private final MultilineRecordBuilder recordBuilder;
+        private final TimestampDecoder timestampDecoder;
 
         private String lastLine;
-        private long offset = 0;
 
         private LazyLogRecordsPackageIterator(
-                final File file,
+                final LogLinesReader reader,
+                final long rangeEnd,
+                final boolean snapToRecord,
+                final boolean bytePositions,
                 final String logKey,
-                final Pattern pattern,
-                final DateTimeFormatter dateFormatter,
-                final DateTimeFormatter timeFormatter) throws IOException {
+                final RecordFormatSettings formatSettings) {
             this.logKey = logKey;
-            this.reader = new BufferedReader(new FileReader(file));
+            this.reader = reader;
+            this.rangeEnd = rangeEnd;
+            this.bytePositions = bytePositions;
+            this.formatSettings = formatSettings;
+            this.tokens = new RecordTokens();
+            this.recordBuilder = new MultilineRecordBuilder(parsingProperties.getMaxRecordSizeKb() * 1024, truncatedRecordsCounter::increment);
+            this.timestampDecoder = new TimestampDecoder(formatSettings.dateFormat(), formatSettings.timeFormat());
             this.lastLine = readNextLine();
-            this.pattern = pattern;
-            this.dateFormatter = dateFormatter;
-            this.timeFormatter = timeFormatter;
+
+            if (snapToRecord) {
+                while (this.lastLine != null && !this.formatSettings.tokenizer().tokenize(this.lastLine, this.tokens)) {
+                    this.lastLine = readNextLine();
+                }
+            }
+
+            if (this.lastLine != null && this.reader.lastLinePosition() >= this.rangeEnd) {
+                this.lastLine = null;
+            }
         }
 
         @Override
@@ -159,47 +361,63 @@ public class DefaultLogRecordsParser implements LogRecordsParser {
             return this.lastLine != null;
         }
 
+        @Override
+        public boolean bytePositions() {
+            return this.bytePositions;
+        }
+
         @Override
         public Collection<LogRecordEntity> next() {
             if (this.lastLine == null) {
                 throw new NoSuchElementException();
             }
 
-            final List<LogRecordEntity> result = new ArrayList<>(PACKAGE_SIZE);
+            final var maxRecords = packageSizing.maxRecords();
+            final var bytesBudget = packageSizing.bytesBudget();
+            final var packageStart = this.reader.lastLinePosition();
+            final List<LogRecordEntity> result = new ArrayList<>(Math.min(maxRecords, INITIAL_PACKAGE_CAPACITY));
 
-            LogRecordEntity lastRecord = null;
+            boolean recordStarted = false;
             do {
-                final var matcher = this.pattern.matcher(this.lastLine);
-                if (matcher.matches()) {
+                if (this.formatSettings.tokenizer().tokenize(this.lastLine, this.tokens)) {
 
-                    if (result.size() == PACKAGE_SIZE) {
+                    final var recordPosition = this.reader.lastLinePosition();
+                    if (recordPosition >= this.rangeEnd) {
+                        this.lastLine = null;
                         break;
                     }
 
-                    lastRecord = new LogRecordEntity()
-                                            .setId(logKeysFactory.createLogRecordKey(this.logKey, ++this.offset))
-                                            .setTime(parseTime(this.timeFormatter, matcher))
-                                            .setDate(parseDate(this.dateFormatter, matcher))
-                                            .setLevel(matcher.group("level"))
-                                            .setThread(matcher.group("thread"))
-                                            .setTraceId(matcher.group("traceId"))
-                                            .setSpanId(matcher.group("spanId"))
-                                            .setCategory(matcher.group("category"))
-                                            .setSource(this.lastLine)
-                                            .setRecord(matcher.group("text"));
+                    if (result.size() >= maxRecords || !result.isEmpty() && recordPosition - packageStart >= bytesBudget) {
+                        break;
+                    }
 
-                    result.add(lastRecord);
-                } else if (lastRecord != null) {
+                    final var time = parseTime(this.timestampDecoder, this.tokens.time);
+                    final var date = parseDate(this.timestampDecoder, this.tokens.date);
+                    final var record = new LogRecordEntity()
+                                            .setId(logKeysFactory.createLogRecordKey(this.logKey, recordPosition))
+                                            .setTime(time)
+                                            .setDate(date)
+                                            .setTimestamp(LogRecordEntity.toTimestamp(date, time))
+                                            .setLevel(this.tokens.level)
+                                            .setThread(this.tokens.thread)
+                                            .setTraceId(this.tokens.traceId)
+                                            .setSpanId(this.tokens.spanId)
+                                            .setCategory(this.tokens.category)
+                                            .setSource(this.lastLine)
+                                            .setRecord(this.tokens.text);
 
-                    final var separatedLine = System.lineSeparator() + this.lastLine;
-                    lastRecord.setSource(lastRecord.getSource() + separatedLine);
-                    lastRecord.setRecord(lastRecord.getRecord() + separatedLine);
+                    this.recordBuilder.start(record);
+                    result.add(record);
+                    recordStarted = true;
+                } else if (recordStarted) {
+                    this.recordBuilder.append(this.lastLine);
                 } else {
                     throw new UnsupportedLogRecordFormatException(this.lastLine);
                 }
 
             } while ((this.lastLine = readNextLine()) != null);
 
+            this.recordBuilder.complete();
             return result;
         }
 
@@ -220,4 +438,125 @@ public class DefaultLogRecordsParser implements LogRecordsParser {
             }
         }
     }
+
+    private class ParallelLogRecordsPackageIterator implements LogRecordsPackageIterator {
+
+        private static final long POLL_TIMEOUT_MS = 100;
+
+        private final BlockingQueue<Collection<LogRecordEntity>> packages;
+        private final List<Future<?>> chunkTasks;
+        private final AtomicInteger activeChunks;
+        private final AtomicReference<RuntimeException> failure;
+
+        private Collection<LogRecordEntity> nextPackage;
+
+        private ParallelLogRecordsPackageIterator(
+                final File file,
+                final long fileSize,
+                final long chunkSize,
+                final CharsetDetector.DetectedCharset detectedCharset,
+                final String logKey,
+                final RecordFormatSettings formatSettings) {
+            final var chunksCount = (int) ((fileSize + chunkSize - 1) / chunkSize);
+            this.packages = new ArrayBlockingQueue<>(parsingProperties.getThreads() * 2);
+            this.chunkTasks = new ArrayList<>(chunksCount);
+            this.activeChunks = new AtomicInteger(chunksCount);
+            this.failure = new AtomicReference<>();
+
+            for (int i = 0; i < chunksCount; i++) {
+                final var rangeStart = i * chunkSize;
+                final var rangeEnd = Math.min(fileSize, rangeStart + chunkSize);
+                this.chunkTasks.add(
+                        parsingPool.submit(() -> parseChunk(file, rangeStart, rangeEnd, detectedCharset, logKey, formatSettings))
+                );
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (this.nextPackage != null) {
+                return true;
+            }
+
+            try {
+                while (true) {
+                    rethrowFailureIfAny();
+
+                    final var completed = this.activeChunks.get() == 0;
+                    this.nextPackage = this.packages.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                    if (this.nextPackage != null) {
+                        return true;
+                    } else if (completed) {
+                        rethrowFailureIfAny();
+                        return false;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+
+        @Override
+        public Collection<LogRecordEntity> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            final var result = this.nextPackage;
+            this.nextPackage = null;
+            return result;
+        }
+
+        @Override
+        public void close() {
+            this.chunkTasks.forEach(task -> task.cancel(true));
+            this.packages.clear();
+        }
+
+        private void parseChunk(
+                final File file,
+                final long rangeStart,
+                final long rangeEnd,
+                final CharsetDetector.DetectedCharset detectedCharset,
+                final String logKey,
+                final RecordFormatSettings formatSettings) {
+            // Start from the previous byte to not lose the line which begins exactly at the range start
+            final var readStart = rangeStart == 0 ? detectedCharset.bomLength() : rangeStart - 1;
+            try (final var channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                channel.position(readStart);
+
+                final var reader = new LogLinesReader(channel, detectedCharset.charset(), readStart);
+                if (rangeStart > 0) {
+                    reader.skipLine();
+                }
+
+                final var iterator = new LazyLogRecordsPackageIterator(reader, rangeEnd, rangeStart > 0, true, logKey, formatSettings);
+                while (iterator.hasNext() && this.failure.get() == null) {
+                    this.packages.put(iterator.next());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                this.failure.compareAndSet(null, e);
+            } catch (IOException e) {
+                this.failure.compareAndSet(null, new RuntimeException(e));
+            } finally {
+                this.activeChunks.decrementAndGet();
+            }
+        }
+
+        private void rethrowFailureIfAny() {
+            final var ex = this.failure.get();
+            if (ex != null) {
+                throw ex;
+            }
+        }
+    }
+
+    private record RecordFormatSettings(
+            @Nonnull RecordLineTokenizer tokenizer,
+            @Nonnull TimestampFormat dateFormat,
+            @Nonnull TimestampFormat timeFormat) {
+    }
 }
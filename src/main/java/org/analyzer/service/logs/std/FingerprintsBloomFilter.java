@@ -0,0 +1,69 @@
+package org.analyzer.service.logs.std;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter of record fingerprints, the positions of bits are computed by double hashing of the fingerprint.
+ */
+@ThreadSafe
+final class FingerprintsBloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final long capacity;
+    private final long bitsCount;
+    private final int hashFunctions;
+    private final AtomicLongArray bits;
+    private final AtomicLong insertions;
+
+    FingerprintsBloomFilter(final long capacity, final double falsePositiveProbability) {
+        this.capacity = Math.max(1, capacity);
+        final var optimalBits = (long) (-this.capacity * Math.log(falsePositiveProbability) / (LN2 * LN2));
+        this.bitsCount = Math.min(Math.max(Long.SIZE, optimalBits), (long) Integer.MAX_VALUE * Long.SIZE);
+        this.hashFunctions = Math.max(1, (int) Math.round((double) this.bitsCount / this.capacity * LN2));
+        this.bits = new AtomicLongArray((int) ((this.bitsCount + Long.SIZE - 1) / Long.SIZE));
+        this.insertions = new AtomicLong();
+    }
+
+    long capacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Returns {@code true} if more fingerprints were added than the filter was sized for,
+     * so the probability of false positives is higher than the expected one.
+     */
+    boolean isSaturated() {
+        return this.insertions.get() > this.capacity;
+    }
+
+    boolean mightContain(final long fingerprint) {
+        final var secondHash = secondHash(fingerprint);
+        for (int i = 0; i < this.hashFunctions; i++) {
+            final var bit = Math.floorMod(fingerprint + i * secondHash, this.bitsCount);
+            if ((this.bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    void put(final long fingerprint) {
+        final var secondHash = secondHash(fingerprint);
+        for (int i = 0; i < this.hashFunctions; i++) {
+            final var bit = Math.floorMod(fingerprint + i * secondHash, this.bitsCount);
+            final var mask = 1L << bit;
+            this.bits.getAndAccumulate((int) (bit >>> 6), mask, (word, m) -> word | m);
+        }
+
+        this.insertions.incrementAndGet();
+    }
+
+    private static long secondHash(final long fingerprint) {
+        // the second hash must be odd, otherwise the positions may cycle over a part of the bits only
+        return RecordFingerprints.mix(fingerprint + 0x9e3779b97f4a7c15L) | 1;
+    }
+}
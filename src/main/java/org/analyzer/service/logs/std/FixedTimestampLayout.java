@@ -0,0 +1,229 @@
+package org.analyzer.service.logs.std;
+
+import lombok.NonNull;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Date or time layout with fixed width digit fields, compiled from the {@link java.time.format.DateTimeFormatter}
+ * pattern. Values are decoded by reading digits at fixed offsets, so the formatter is required only for
+ * the values which do not fit the layout.
+ */
+@Immutable
+final class FixedTimestampLayout {
+
+    private static final int YEAR = 0;
+    private static final int MONTH = 1;
+    private static final int DAY = 2;
+    private static final int HOUR = 3;
+    private static final int MINUTE = 4;
+    private static final int SECOND = 5;
+    private static final int FRACTION = 6;
+
+    private static final char DIGIT = '\0';
+    private static final int REDUCED_YEAR_BASE = 2000;
+    private static final int[] FRACTION_SCALES = {
+            0, 100_000_000, 10_000_000, 1_000_000, 100_000, 10_000, 1_000, 100, 10, 1
+    };
+
+    private final char[] template;
+
+    private final int yearOffset;
+    private final int yearWidth;
+    private final int monthOffset;
+    private final int dayOffset;
+    private final int hourOffset;
+    private final int minuteOffset;
+    private final int secondOffset;
+    private final int fractionOffset;
+    private final int fractionWidth;
+
+    private FixedTimestampLayout(
+            final char[] template,
+            final int[] offsets,
+            final int yearWidth,
+            final int fractionWidth) {
+        this.template = template;
+        this.yearOffset = offsets[YEAR];
+        this.yearWidth = yearWidth;
+        this.monthOffset = offsets[MONTH];
+        this.dayOffset = offsets[DAY];
+        this.hourOffset = offsets[HOUR];
+        this.minuteOffset = offsets[MINUTE];
+        this.secondOffset = offsets[SECOND];
+        this.fractionOffset = offsets[FRACTION];
+        this.fractionWidth = fractionWidth;
+    }
+
+    int length() {
+        return this.template.length;
+    }
+
+    /**
+     * Returns the length of the value prefix which contains all fields except the fraction of second
+     * or {@code -1} if the fraction is not the last field of the layout.
+     */
+    int secondPrefixLength() {
+        if (this.fractionOffset < 0) {
+            return this.template.length;
+        }
+
+        return this.fractionOffset > Math.max(this.hourOffset, Math.max(this.minuteOffset, this.secondOffset))
+                ? this.fractionOffset
+                : -1;
+    }
+
+    @Nullable
+    LocalDate decodeDate(@NonNull final String value) {
+        if (!matches(value, 0)) {
+            return null;
+        }
+
+        final var year = this.yearWidth == 2
+                            ? REDUCED_YEAR_BASE + readNumber(value, this.yearOffset, 2)
+                            : readNumber(value, this.yearOffset, this.yearWidth);
+        try {
+            return LocalDate.of(year, readNumber(value, this.monthOffset, 2), readNumber(value, this.dayOffset, 2));
+        } catch (DateTimeException ex) {
+            return null;
+        }
+    }
+
+    @Nullable
+    LocalTime decodeTime(@NonNull final String value) {
+        if (!matches(value, 0)) {
+            return null;
+        }
+
+        final var second = this.secondOffset < 0 ? 0 : readNumber(value, this.secondOffset, 2);
+        try {
+            return LocalTime.of(
+                    readNumber(value, this.hourOffset, 2),
+                    readNumber(value, this.minuteOffset, 2),
+                    second,
+                    decodeNanos(value)
+            );
+        } catch (DateTimeException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Decodes the fraction of second of the value, which prefix is already known to match the layout.
+     *
+     * @return nanos of second or {@code -1} if the rest of value doesn't match the layout
+     */
+    int decodeNanosOfKnownSecond(@NonNull final String value, final int prefixLength) {
+        return matches(value, prefixLength) ? decodeNanos(value) : -1;
+    }
+
+    private int decodeNanos(final String value) {
+        return this.fractionOffset < 0
+                ? 0
+                : readNumber(value, this.fractionOffset, this.fractionWidth) * FRACTION_SCALES[this.fractionWidth];
+    }
+
+    private boolean matches(final String value, final int from) {
+        if (value.length() != this.template.length) {
+            return false;
+        }
+
+        for (int i = from; i < this.template.length; i++) {
+            final var c = value.charAt(i);
+            final var expected = this.template[i];
+            if (expected == DIGIT ? c < '0' || c > '9' : c != expected) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static int readNumber(final String value, final int offset, final int width) {
+        int result = 0;
+        for (int i = offset; i < offset + width; i++) {
+            result = result * 10 + (value.charAt(i) - '0');
+        }
+
+        return result;
+    }
+
+    /**
+     * Compiles the formatter pattern into the fixed layout.
+     *
+     * @param pattern formatter pattern, like {@code yyyy-MM-dd} or {@code HH:mm:ss,SSS}
+     * @param forDate whether the layout is intended to decode date or time
+     * @return compiled layout or {@code null} if the pattern contains variable width, textual or optional parts
+     */
+    @Nullable
+    static FixedTimestampLayout compile(@NonNull final String pattern, final boolean forDate) {
+        final var template = new StringBuilder(pattern.length());
+        final var offsets = new int[] { -1, -1, -1, -1, -1, -1, -1 };
+        int yearWidth = 0;
+        int fractionWidth = 0;
+
+        int i = 0;
+        while (i < pattern.length()) {
+            final var c = pattern.charAt(i);
+            if (!Character.isLetter(c)) {
+                if (c == '\'' || c == '[' || c == ']' || c == '{' || c == '}' || c == '#') {
+                    return null;
+                }
+
+                template.append(c);
+                i++;
+                continue;
+            }
+
+            int count = 1;
+            while (i + count < pattern.length() && pattern.charAt(i + count) == c) {
+                count++;
+            }
+
+            final int field;
+            switch (c) {
+                case 'y', 'u' -> {
+                    field = YEAR;
+                    yearWidth = count;
+                    if (count != 2 && count != 4) {
+                        return null;
+                    }
+                }
+                case 'M' -> field = count == 2 ? MONTH : -1;
+                case 'd' -> field = count == 2 ? DAY : -1;
+                case 'H' -> field = count == 2 ? HOUR : -1;
+                case 'm' -> field = count == 2 ? MINUTE : -1;
+                case 's' -> field = count == 2 ? SECOND : -1;
+                case 'S' -> {
+                    field = FRACTION;
+                    fractionWidth = count;
+                    if (count > 9) {
+                        return null;
+                    }
+                }
+                default -> field = -1;
+            }
+
+            if (field < 0 || offsets[field] >= 0) {
+                return null;
+            }
+
+            offsets[field] = template.length();
+            template.append(String.valueOf(DIGIT).repeat(count));
+            i += count;
+        }
+
+        final var hasDateFields = offsets[YEAR] >= 0 || offsets[MONTH] >= 0 || offsets[DAY] >= 0;
+        final var hasTimeFields = offsets[HOUR] >= 0 || offsets[MINUTE] >= 0 || offsets[SECOND] >= 0 || offsets[FRACTION] >= 0;
+        final var valid = forDate
+                ? offsets[YEAR] >= 0 && offsets[MONTH] >= 0 && offsets[DAY] >= 0 && !hasTimeFields
+                : offsets[HOUR] >= 0 && offsets[MINUTE] >= 0 && !hasDateFields
+                        && (offsets[FRACTION] < 0 || offsets[SECOND] >= 0);
+
+        return valid ? new FixedTimestampLayout(template.toString().toCharArray(), offsets, yearWidth, fractionWidth) : null;
+    }
+}
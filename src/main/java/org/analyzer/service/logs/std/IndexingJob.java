@@ -0,0 +1,237 @@
+package org.analyzer.service.logs.std;
+
+import lombok.NonNull;
+import org.analyzer.entities.IndexingJobEntity;
+import org.analyzer.entities.LogRecordEntity;
+import org.analyzer.service.logs.LogRecordFormat;
+import org.apache.commons.io.input.TeeInputStream;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+
+/**
+ * Persisted indexing job. The checkpoint of the file is the position of the first record which may be not stored yet:
+ * packages are indexed concurrently, so it is moved only to the first package which isn't indexed and only
+ * after the storage is flushed. Records after the checkpoint may be stored too, up to the watermark of the file,
+ * so on resuming they are deleted before indexing them again.
+ */
+@ThreadSafe
+final class IndexingJob {
+
+    private final IndexingJobEntity entity;
+    private final IndexingJobs jobs;
+    private final List<IndexingJobEntity.FileCheckpoint> notFlushedCompletedFiles;
+    private volatile boolean leaseLost;
+
+    IndexingJob(@NonNull final IndexingJobEntity entity, @NonNull final IndexingJobs jobs) {
+        this.entity = entity;
+        this.jobs = jobs;
+        this.notFlushedCompletedFiles = new ArrayList<>();
+    }
+
+    @NonNull
+    String indexingKey() {
+        return this.entity.getId();
+    }
+
+    @NonNull
+    String userKey() {
+        return this.entity.getUserKey();
+    }
+
+    @NonNull
+    String logName() {
+        return this.entity.getLogName();
+    }
+
+    @NonNull
+    Path source() {
+        return Path.of(this.entity.getSourcePath());
+    }
+
+    @Nullable
+    LogRecordFormat recordFormat() {
+        return this.entity.getLogRecordPattern() == null && this.entity.getCharset() == null
+                && this.entity.getIncludeFiles() == null && this.entity.getExcludeFiles() == null
+                ? null
+                : new JobLogRecordFormat(this.entity);
+    }
+
+    /**
+     * Writes the source stream to the job directory while it is read, the job can be resumed only when the source is read to the end.
+     */
+    @NonNull
+    InputStream spoolSource(@NonNull final InputStream sourceStream) {
+        try {
+            return new TeeInputStream(sourceStream, new BufferedOutputStream(Files.newOutputStream(source())), true);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    synchronized void onSourceCompleted() {
+        this.entity.setSourceCompleted(true);
+        this.jobs.save(this);
+    }
+
+    synchronized void onAttemptStarted() {
+        this.entity.setAttempts(this.entity.getAttempts() + 1);
+        this.jobs.save(this);
+    }
+
+    @NonNull
+    synchronized FileProgress progress(@NonNull final String fileName) {
+        final var checkpoint =
+                this.entity.getCheckpoints()
+                            .stream()
+                            .filter(fileCheckpoint -> fileCheckpoint.getFileName().equals(fileName))
+                            .findAny()
+                            .orElseGet(() -> {
+                                final var result = new IndexingJobEntity.FileCheckpoint().setFileName(fileName);
+                                this.entity.getCheckpoints().add(result);
+                                return result;
+                            });
+        return new FileProgress(checkpoint);
+    }
+
+    /**
+     * Returns whether the job was claimed by another instance, the records and the state of the job belong to it then.
+     */
+    boolean leaseLost() {
+        return this.leaseLost;
+    }
+
+    void onLeaseLost() {
+        this.leaseLost = true;
+    }
+
+    @NonNull
+    IndexingJobEntity entity() {
+        return this.entity;
+    }
+
+    private synchronized void flushStorage() {
+        // files completed before the flush are stored completely after it
+        final var completedFiles = List.copyOf(this.notFlushedCompletedFiles);
+        this.jobs.flushStorage();
+        completedFiles.forEach(checkpoint -> checkpoint.setCompleted(true));
+        this.notFlushedCompletedFiles.removeAll(completedFiles);
+    }
+
+    final class FileProgress {
+
+        private final IndexingJobEntity.FileCheckpoint checkpoint;
+        private final long resumedWatermark;
+        private final NavigableSet<Long> notIndexedPackages;
+        private volatile long lastPackage;
+
+        private FileProgress(final IndexingJobEntity.FileCheckpoint checkpoint) {
+            this.checkpoint = checkpoint;
+            this.resumedWatermark = checkpoint.getWatermark();
+            this.notIndexedPackages = new ConcurrentSkipListSet<>();
+            this.lastPackage = checkpoint.getOffset();
+        }
+
+        boolean completed() {
+            synchronized (IndexingJob.this) {
+                return this.checkpoint.isCompleted();
+            }
+        }
+
+        long offset() {
+            synchronized (IndexingJob.this) {
+                return this.checkpoint.getOffset();
+            }
+        }
+
+        @NonNull
+        CompletableFuture<Void> index(
+                @NonNull final Collection<LogRecordEntity> records,
+                @NonNull final Function<Collection<LogRecordEntity>, CompletableFuture<Void>> indexer) {
+            final var packageOffset = records.stream()
+                                                .mapToLong(jobs::getRecordPosition)
+                                                .min()
+                                                .orElseThrow();
+            if (packageOffset < this.resumedWatermark) {
+                jobs.deleteStored(records.stream().map(LogRecordEntity::getId).toList());
+            }
+
+            synchronized (IndexingJob.this) {
+                if (packageOffset >= this.checkpoint.getWatermark()) {
+                    saveCheckpoint(packageOffset);
+                }
+            }
+
+            this.notIndexedPackages.add(packageOffset);
+            this.lastPackage = packageOffset;
+            return indexer.apply(records)
+                            .whenComplete((v, ex) -> {
+                                if (ex == null) {
+                                    this.notIndexedPackages.remove(packageOffset);
+                                }
+                            });
+        }
+
+        void complete() {
+            synchronized (IndexingJob.this) {
+                this.checkpoint.setWatermark(Long.MAX_VALUE);
+                notFlushedCompletedFiles.add(this.checkpoint);
+                jobs.save(IndexingJob.this);
+            }
+        }
+
+        private void saveCheckpoint(final long packageOffset) {
+            // the position is taken before the flush, so all the records before it are flushed
+            final var firstNotIndexedPackage = this.notIndexedPackages.isEmpty() ? this.lastPackage : this.notIndexedPackages.first();
+            if (firstNotIndexedPackage > this.checkpoint.getOffset()) {
+                flushStorage();
+                this.checkpoint.setOffset(firstNotIndexedPackage);
+            }
+
+            this.checkpoint.setWatermark(packageOffset + jobs.checkpointInterval());
+            jobs.save(IndexingJob.this);
+        }
+    }
+
+    private record JobLogRecordFormat(@NonNull IndexingJobEntity entity) implements LogRecordFormat {
+
+        @Override
+        public String pattern() {
+            return this.entity.getLogRecordPattern();
+        }
+
+        @Override
+        public String timeFormat() {
+            return this.entity.getTimeFormat();
+        }
+
+        @Override
+        public String dateFormat() {
+            return this.entity.getDateFormat();
+        }
+
+        @Override
+        public String charset() {
+            return this.entity.getCharset();
+        }
+
+        @Override
+        public List<String> includeFiles() {
+            return this.entity.getIncludeFiles();
+        }
+
+        @Override
+        public List<String> excludeFiles() {
+            return this.entity.getExcludeFiles();
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package org.analyzer.service.logs.std;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.analyzer.dao.IndexingJobRepository;
+import org.analyzer.dao.LogsStorage;
+import org.analyzer.entities.IndexingJobEntity;
+import org.analyzer.entities.UserEntity;
+import org.analyzer.entities.LogRecordEntity;
+import org.analyzer.service.logs.LogKeysFactory;
+import org.analyzer.service.logs.LogRecordFormat;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persists the indexing jobs, so the jobs interrupted by the restart of the node are resumed from the checkpoints
+ * of their files instead of indexing the whole logs again. The source of the job is kept in the jobs directory
+ * of the node until the job is completed, jobs are disabled if the directory isn't configured.
+ * The job is run by the instance which holds its lease, the lease is renewed while the job is run, so the job
+ * is claimed by another instance (the restarted node or the node with the same id) only when the lease expires.
+ */
+@Component
+@Slf4j
+class IndexingJobs {
+
+    private final IndexingJobRepository repository;
+    private final LogsStorage logsStorage;
+    private final LogKeysFactory logKeysFactory;
+    private final Path jobsDirectory;
+    private final String node;
+    private final String instance;
+    private final long checkpointInterval;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Duration lease;
+    private final Set<IndexingJob> leasedJobs;
+
+    @Autowired
+    IndexingJobs(
+            @NonNull final IndexingJobRepository repository,
+            @NonNull final LogsStorage logsStorage,
+            @NonNull final LogKeysFactory logKeysFactory,
+            @Value("${logs.analyzer.indexing.jobs.storage-path:}") final String storagePath,
+            @Value("${logs.analyzer.indexing.jobs.node:}") final String node,
+            @Value("${logs.analyzer.indexing.jobs.checkpoint-interval-mb:64}") final long checkpointIntervalMb,
+            @Value("${logs.analyzer.indexing.jobs.max-attempts:3}") final int maxAttempts,
+            @Value("${logs.analyzer.indexing.jobs.retry-backoff-seconds:10}") final long retryBackoffSeconds,
+            @Value("${logs.analyzer.indexing.jobs.lease-seconds:60}") final long leaseSeconds) {
+        this.repository = repository;
+        this.logsStorage = logsStorage;
+        this.logKeysFactory = logKeysFactory;
+        this.jobsDirectory = StringUtils.hasLength(storagePath) ? Path.of(storagePath) : null;
+        this.node = StringUtils.hasLength(node) || this.jobsDirectory == null ? node : loadNodeId(this.jobsDirectory);
+        this.instance = UUID.randomUUID().toString();
+        this.checkpointInterval = Math.max(1, checkpointIntervalMb) * 1024 * 1024;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoff = Duration.ofSeconds(Math.max(0, retryBackoffSeconds));
+        this.lease = Duration.ofSeconds(Math.max(3, leaseSeconds));
+        this.leasedJobs = ConcurrentHashMap.newKeySet();
+    }
+
+    boolean enabled() {
+        return this.jobsDirectory != null;
+    }
+
+    @NonNull
+    IndexingJob create(
+            @NonNull final String indexingKey,
+            @NonNull final UserEntity user,
+            @NonNull final String logName,
+            @Nullable final LogRecordFormat recordFormat) {
+        try {
+            Files.createDirectories(this.jobsDirectory);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        final var entity = new IndexingJobEntity()
+                                    .setId(indexingKey)
+                                    .setUserKey(user.getHash())
+                                    .setNode(this.node)
+                                    .setLogName(logName)
+                                    .setSourcePath(this.jobsDirectory.resolve(indexingKey).toString())
+                                    .setLeaseOwner(this.instance)
+                                    .setLeaseExpires(LocalDateTime.now().plus(this.lease))
+                                    .setCreated(LocalDateTime.now());
+        if (recordFormat != null) {
+            entity.setLogRecordPattern(recordFormat.pattern())
+                    .setDateFormat(recordFormat.dateFormat())
+                    .setTimeFormat(recordFormat.timeFormat())
+                    .setCharset(recordFormat.charset())
+                    .setIncludeFiles(recordFormat.includeFiles())
+                    .setExcludeFiles(recordFormat.excludeFiles());
+        }
+
+        final var job = new IndexingJob(entity, this);
+        save(job);
+        this.leasedJobs.add(job);
+        return job;
+    }
+
+    /**
+     * Returns the jobs of the node which weren't completed and were claimed by this instance. The jobs run by another
+     * instance and the jobs whose lease of the previous run of the node isn't expired yet are skipped.
+     */
+    @NonNull
+    List<IndexingJob> findAllInterrupted() {
+        if (!enabled()) {
+            return List.of();
+        }
+
+        return this.repository.findAllByNode(this.node)
+                                .stream()
+                                .map(entity -> new IndexingJob(entity, this))
+                                .filter(this::claim)
+                                .toList();
+    }
+
+    /**
+     * Job can be resumed only if the whole source was received and it didn't use all its attempts,
+     * the first attempt of the job is counted too.
+     */
+    boolean isResumable(@NonNull final IndexingJob job) {
+        return job.entity().isSourceCompleted()
+                && job.entity().getAttempts() < this.maxAttempts
+                && Files.exists(job.source());
+    }
+
+    /**
+     * Returns the delay before the next attempt of the failed job, it is doubled after each failed attempt.
+     */
+    @NonNull
+    Duration retryDelay(@NonNull final IndexingJob job) {
+        return this.retryBackoff.multipliedBy(1L << Math.min(Math.max(0, job.entity().getAttempts() - 1), 16));
+    }
+
+    void delete(@NonNull final IndexingJob job) {
+        release(job);
+        this.repository.deleteById(job.indexingKey());
+        try {
+            Files.deleteIfExists(job.source());
+        } catch (IOException e) {
+            log.warn("Source of the indexing job " + job.indexingKey() + " can't be deleted", e);
+        }
+    }
+
+    void linkSource(@NonNull final IndexingJob job, @NonNull final File logFile) {
+        // the file may be deleted by the caller when the first attempt is completed, so it is linked to the job
+        try {
+            try {
+                Files.createLink(job.source(), logFile.toPath());
+            } catch (UnsupportedOperationException | IOException e) {
+                Files.copy(logFile.toPath(), job.source());
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    void save(@NonNull final IndexingJob job) {
+        synchronized (job) {
+            if (job.leaseLost()) {
+                throw new IllegalStateException("Lease of the indexing job " + job.indexingKey() + " is lost");
+            }
+
+            this.repository.save(job.entity().setUpdated(LocalDateTime.now()));
+        }
+    }
+
+    /**
+     * Stops renewing the lease of the job, the job isn't run by this instance anymore.
+     */
+    void release(@NonNull final IndexingJob job) {
+        this.leasedJobs.remove(job);
+    }
+
+    @Scheduled(fixedDelayString = "#{${logs.analyzer.indexing.jobs.lease-seconds:60} * 1000 / 3}")
+    void renewLeases() {
+        this.leasedJobs.forEach(job -> {
+            synchronized (job) {
+                final var leaseExpires = LocalDateTime.now().plus(this.lease);
+                if (this.repository.renewLeaseById(job.indexingKey(), this.instance, leaseExpires) > 0) {
+                    job.entity().setLeaseExpires(leaseExpires);
+                    return;
+                }
+
+                log.error("Lease of the indexing job {} is lost, the job is claimed by another instance", job.indexingKey());
+                job.onLeaseLost();
+                release(job);
+            }
+        });
+    }
+
+    void flushStorage() {
+        this.logsStorage.flush();
+    }
+
+    void deleteStored(@NonNull final List<String> ids) {
+        this.logsStorage.deleteAllByIds(ids);
+    }
+
+    long getRecordPosition(@NonNull final LogRecordEntity record) {
+        return this.logKeysFactory.getLogRecordPosition(record.getId());
+    }
+
+    long checkpointInterval() {
+        return this.checkpointInterval;
+    }
+
+    private boolean claim(final IndexingJob job) {
+        synchronized (job) {
+            final var now = LocalDateTime.now();
+            final var leaseExpires = now.plus(this.lease);
+            if (this.repository.claimById(job.indexingKey(), this.instance, now, leaseExpires) == 0) {
+                return false;
+            }
+
+            job.entity()
+                .setLeaseOwner(this.instance)
+                .setLeaseExpires(leaseExpires);
+            this.leasedJobs.add(job);
+            return true;
+        }
+    }
+
+    /**
+     * The id of the node is generated once and kept in the jobs directory, so it differs for every node
+     * and stays the same after the restart of the node.
+     */
+    private static String loadNodeId(final Path jobsDirectory) {
+        final var nodeIdFile = jobsDirectory.resolve("node.id");
+        try {
+            if (Files.exists(nodeIdFile)) {
+                return Files.readString(nodeIdFile, StandardCharsets.UTF_8).trim();
+            }
+
+            final var nodeId = UUID.randomUUID().toString();
+            Files.createDirectories(jobsDirectory);
+            Files.writeString(nodeIdFile, nodeId, StandardCharsets.UTF_8);
+            return nodeId;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package org.analyzer.service.logs.std;
+
+import lombok.NonNull;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Reads lines from byte channel and tracks the byte position of every returned line in the source,
+ * so the records can be addressed by their offset independently of the way the source is read.
+ */
+@NotThreadSafe
+final class LogLinesReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ReadableByteChannel channel;
+    private final Charset charset;
+    private final ByteBuffer buffer;
+
+    private byte[] lineBuffer;
+    private int lineLength;
+    private long position;
+    private long lastLinePosition;
+    private boolean eof;
+
+    LogLinesReader(
+            @NonNull final ReadableByteChannel channel,
+            @NonNull final Charset charset,
+            final long startPosition) {
+        this.channel = channel;
+        this.charset = charset;
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE).flip();
+        this.lineBuffer = new byte[256];
+        this.position = startPosition;
+        this.lastLinePosition = startPosition;
+    }
+
+    @Nullable
+    String readLine() throws IOException {
+        return readLine(true);
+    }
+
+    boolean skipLine() throws IOException {
+        return readLine(false) != null;
+    }
+
+    long lastLinePosition() {
+        return this.lastLinePosition;
+    }
+
+    long position() {
+        return this.position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    private String readLine(final boolean decode) throws IOException {
+        final var lineStart = this.position;
+        this.lineLength = 0;
+
+        while (this.buffer.hasRemaining() || fill()) {
+            final var bytes = this.buffer.array();
+            final var from = this.buffer.position();
+            final var limit = this.buffer.limit();
+
+            var i = from;
+            while (i < limit && bytes[i] != '\n') {
+                i++;
+            }
+
+            this.position += i - from;
+            if (i == limit) {
+                appendToLine(bytes, from, i - from, decode);
+                this.buffer.position(limit);
+                continue;
+            }
+
+            this.buffer.position(i + 1);
+            this.position++;
+            this.lastLinePosition = lineStart;
+
+            if (!decode) {
+                return "";
+            } else if (this.lineLength == 0) {
+                return decode(bytes, from, i - from);
+            }
+
+            appendToLine(bytes, from, i - from, true);
+            return decode(this.lineBuffer, 0, this.lineLength);
+        }
+
+        if (this.position == lineStart) {
+            return null;
+        }
+
+        this.lastLinePosition = lineStart;
+        return decode ? decode(this.lineBuffer, 0, this.lineLength) : "";
+    }
+
+    private String decode(final byte[] bytes, final int offset, final int length) {
+        final var lineLength = length > 0 && bytes[offset + length - 1] == '\r' ? length - 1 : length;
+        return new String(bytes, offset, lineLength, this.charset);
+    }
+
+    private void appendToLine(final byte[] bytes, final int offset, final int length, final boolean decode) {
+        if (!decode || length == 0) {
+            return;
+        }
+
+        if (this.lineLength + length > this.lineBuffer.length) {
+            this.lineBuffer = Arrays.copyOf(this.lineBuffer, Math.max(this.lineBuffer.length * 2, this.lineLength + length));
+        }
+
+        System.arraycopy(bytes, offset, this.lineBuffer, this.lineLength, length);
+        this.lineLength += length;
+    }
+
+    private boolean fill() throws IOException {
+        if (this.eof) {
+            return false;
+        }
+
+        this.buffer.clear();
+        int read;
+        while ((read = this.channel.read(this.buffer)) == 0);
+
+        this.buffer.flip();
+        if (read < 0) {
+            this.eof = true;
+            return false;
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,250 @@
+package org.analyzer.service.logs.std;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.analyzer.config.parsing.LogRecordsParsingProperties;
+import org.analyzer.dao.LearnedLogRecordFormatRepository;
+import org.analyzer.entities.LearnedLogRecordFormatEntity;
+import org.analyzer.entities.ScheduledIndexingSettings;
+import org.analyzer.entities.UserEntity;
+import org.analyzer.service.logs.LogRecordFormat;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Detects the format of records when the requested (or the default) one doesn't fit the beginning of the log.
+ * Candidates are scored on the sample from the beginning of the log: formats learned earlier for the user,
+ * formats of the user's scheduled indexing, recently used patterns and built-in layouts. The best candidate
+ * is remembered for the user, so it's tried first next time.
+ */
+@Slf4j
+@Component
+class LogRecordFormatDetector {
+
+    private static final List<LogRecordFormat> builtInFormats = List.of(
+            // 10:00:02.213 [main] INFO  org.example.SomeClass - Any text
+            new DetectedRecordFormat(
+                    "^(?<date>)(?<time>\\d{2}:\\d{2}:\\d{2}\\.\\d{3})\\s+(?<traceId>)(?<spanId>)\\[(?<thread>[^\\]]*)]\\s+(?<level>[A-Za-z]+)\\s+(?<category>\\S+)\\s+-\\s(?<text>[\\S\\s]*)$",
+                    null,
+                    "HH:mm:ss.SSS",
+                    null),
+            // 2023-01-01 10:00:02,213 [main] INFO  org.example.SomeClass - Any text
+            new DetectedRecordFormat(
+                    "^(?<date>\\d{4}-\\d{2}-\\d{2})\\s(?<time>\\d{2}:\\d{2}:\\d{2},\\d{3})\\s+(?<traceId>)(?<spanId>)\\[(?<thread>[^\\]]*)]\\s+(?<level>[A-Za-z]+)\\s+(?<category>\\S+)\\s+-\\s(?<text>[\\S\\s]*)$",
+                    null,
+                    "HH:mm:ss,SSS",
+                    null),
+            // 2023-01-01T10:00:02.213+03:00  INFO 12345 --- [main] o.e.SomeClass : Any text
+            new DetectedRecordFormat(
+                    "^(?<date>\\d{4}-\\d{2}-\\d{2})T(?<time>\\d{2}:\\d{2}:\\d{2}\\.\\d{3})\\S*\\s+(?<level>[A-Za-z]+)\\s+\\d+\\s+---\\s+(?<traceId>)(?<spanId>)\\[\\s*(?<thread>[^\\]]*)]\\s+(?<category>\\S+)\\s*:\\s(?<text>[\\S\\s]*)$",
+                    null,
+                    "HH:mm:ss.SSS",
+                    null)
+    );
+
+    private final DefaultLogRecordsParser parser;
+    private final LearnedLogRecordFormatRepository learnedFormatRepository;
+    private final LogRecordsParsingProperties parsingProperties;
+    private final Counter detectedFormatsCounter;
+
+    LogRecordFormatDetector(
+            @NonNull DefaultLogRecordsParser parser,
+            @NonNull LearnedLogRecordFormatRepository learnedFormatRepository,
+            @NonNull LogRecordsParsingProperties parsingProperties,
+            @NonNull MeterRegistry meterRegistry) {
+        this.parser = parser;
+        this.learnedFormatRepository = learnedFormatRepository;
+        this.parsingProperties = parsingProperties;
+        this.detectedFormatsCounter = meterRegistry.counter("logs.parser.formats.detected", "description", "Record formats detected by sample of logs");
+    }
+
+    @Nullable
+    LogRecordFormat detect(
+            @NonNull final UserEntity user,
+            @Nullable final LogRecordFormat recordFormat,
+            @NonNull final File logFile) {
+        if (hasPattern(recordFormat)) {
+            return recordFormat;
+        }
+
+        try (final var stream = Files.newInputStream(logFile.toPath())) {
+            return detect(user, recordFormat, stream.readNBytes(sampleSize()));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Detects format by the beginning of the stream without consuming it, the stream must support {@link InputStream#mark(int)}.
+     */
+    @Nullable
+    LogRecordFormat detect(
+            @NonNull final UserEntity user,
+            @Nullable final LogRecordFormat recordFormat,
+            @NonNull final InputStream logStream) {
+        if (hasPattern(recordFormat)) {
+            return recordFormat;
+        }
+
+        final var sampleSize = sampleSize();
+        try {
+            logStream.mark(sampleSize);
+            try {
+                return detect(user, recordFormat, logStream.readNBytes(sampleSize));
+            } finally {
+                logStream.reset();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private LogRecordFormat detect(
+            final UserEntity user,
+            final LogRecordFormat recordFormat,
+            final byte[] sample) {
+        final var sampleLines = toSampleLines(recordFormat, sample, sample.length == sampleSize());
+        if (sampleLines.isEmpty() || this.parser.countSampleRecords(recordFormat, sampleLines) > 0) {
+            return recordFormat;
+        }
+
+        LogRecordFormat bestFormat = null;
+        int bestScore = 0;
+        for (final var candidate : collectCandidates(user, recordFormat)) {
+            final var score = score(candidate, sampleLines);
+            if (score > bestScore) {
+                bestScore = score;
+                bestFormat = candidate;
+            }
+        }
+
+        if (bestFormat == null) {
+            return recordFormat;
+        }
+
+        log.debug("Record format detected for user {}: {}", user.getUsername(), bestFormat);
+        this.detectedFormatsCounter.increment();
+        learn(user, bestFormat);
+
+        return bestFormat;
+    }
+
+    private int score(final LogRecordFormat candidate, final List<String> sampleLines) {
+        try {
+            return this.parser.countSampleRecords(candidate, sampleLines);
+        } catch (IllegalArgumentException ex) {
+            // the pattern is broken or has no required named groups
+            return -1;
+        }
+    }
+
+    private Collection<LogRecordFormat> collectCandidates(final UserEntity user, final LogRecordFormat recordFormat) {
+        final var dateFormat = recordFormat == null ? null : recordFormat.dateFormat();
+        final var timeFormat = recordFormat == null ? null : recordFormat.timeFormat();
+        final var charset = recordFormat == null ? null : recordFormat.charset();
+
+        final Set<LogRecordFormat> candidates = new LinkedHashSet<>();
+
+        final var learnedFormatsPage = PageRequest.of(0, this.parsingProperties.getLearnedFormatsMaxCount(), Sort.by(Sort.Direction.DESC, "lastDetected"));
+        this.learnedFormatRepository.findAllByUserKey(user.getHash(), learnedFormatsPage)
+                                    .stream()
+                                    .map(entity -> new DetectedRecordFormat(entity.getPattern(), entity.getDateFormat(), entity.getTimeFormat(), charset))
+                                    .forEach(candidates::add);
+
+        final var settings = user.getSettings();
+        if (settings != null && settings.getScheduledIndexingSettings() != null) {
+            settings.getScheduledIndexingSettings()
+                    .stream()
+                    .filter(indexingSettings -> StringUtils.hasLength(indexingSettings.getLogRecordPattern()))
+                    .map(indexingSettings -> toRecordFormat(indexingSettings, charset))
+                    .forEach(candidates::add);
+        }
+
+        this.parser.recentPatterns()
+                    .stream()
+                    .map(pattern -> new DetectedRecordFormat(pattern, dateFormat, timeFormat, charset))
+                    .forEach(candidates::add);
+
+        builtInFormats
+                .stream()
+                .map(format -> new DetectedRecordFormat(format.pattern(), format.dateFormat(), format.timeFormat(), charset))
+                .forEach(candidates::add);
+
+        return candidates;
+    }
+
+    private void learn(final UserEntity user, final LogRecordFormat format) {
+        final var id = createLearnedFormatId(user, format);
+        final var entity = this.learnedFormatRepository
+                                    .findById(id)
+                                    .orElseGet(() -> new LearnedLogRecordFormatEntity()
+                                                            .setId(id)
+                                                            .setUserKey(user.getHash())
+                                                            .setPattern(Objects.requireNonNull(format.pattern()))
+                                                            .setDateFormat(format.dateFormat())
+                                                            .setTimeFormat(format.timeFormat()));
+        entity.setLastDetected(LocalDateTime.now());
+        entity.setDetectionsCount(entity.getDetectionsCount() + 1);
+        this.learnedFormatRepository.save(entity);
+
+        final var outdatedFormatsPage = PageRequest.of(1, this.parsingProperties.getLearnedFormatsMaxCount(), Sort.by(Sort.Direction.DESC, "lastDetected"));
+        this.learnedFormatRepository.deleteAll(
+                this.learnedFormatRepository.findAllByUserKey(user.getHash(), outdatedFormatsPage)
+        );
+    }
+
+    private String createLearnedFormatId(final UserEntity user, final LogRecordFormat format) {
+        final var signature = format.pattern() + '\0' + format.dateFormat() + '\0' + format.timeFormat();
+        return user.getHash() + "#" + UUID.nameUUIDFromBytes(signature.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private LogRecordFormat toRecordFormat(final ScheduledIndexingSettings indexingSettings, final String charset) {
+        return new DetectedRecordFormat(
+                indexingSettings.getLogRecordPattern(),
+                indexingSettings.getDateFormat(),
+                indexingSettings.getTimeFormat(),
+                charset
+        );
+    }
+
+    private List<String> toSampleLines(final LogRecordFormat recordFormat, final byte[] sample, final boolean truncated) {
+        final var detectedCharset = CharsetDetector.detect(
+                ByteBuffer.wrap(sample),
+                CharsetDetector.explicitCharset(recordFormat),
+                this.parsingProperties.getFallbackCharset()
+        );
+        final var text = new String(sample, detectedCharset.bomLength(), sample.length - detectedCharset.bomLength(), detectedCharset.charset());
+        final var lines = new ArrayList<>(text.lines().toList());
+        if (truncated && !lines.isEmpty()) {
+            // the last line of the truncated sample may be incomplete
+            lines.remove(lines.size() - 1);
+        }
+
+        return lines;
+    }
+
+    private int sampleSize() {
+        return Math.max(1, this.parsingProperties.getDetectionSampleSizeKb()) * 1024;
+    }
+
+    private static boolean hasPattern(final LogRecordFormat recordFormat) {
+        return recordFormat != null && StringUtils.hasLength(recordFormat.pattern());
+    }
+
+    private record DetectedRecordFormat(String pattern, String dateFormat, String timeFormat, String charset) implements LogRecordFormat {
+    }
+}
@@ -1,18 +1,26 @@
 package org.analyzer.service.logs.std;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import lombok.NonNull;
 import org.analyzer.config.scheduled.IndexingTasksPool;
 import org.analyzer.dao.LogsStorage;
 import org.analyzer.entities.LogRecordEntity;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.Nonnull;
 import java.util.Collection;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
 
+/**
+ * Indexes packages of records asynchronously. The number of packages and the bytes of records in flight
+ * are bounded for all indexing jobs together: the producer is blocked until the previously
+ * submitted packages are indexed, so the memory used by the queued records doesn't depend on the size of logs.
+ */
 @Component
 class LogRecordsIndexer {
 
@@ -20,24 +28,92 @@ class LogRecordsIndexer {
     private final LogsStorage logsStorage;
     private final Counter indexedRecordsCounter;
     private final Counter indexRequestsCounter;
+    private final RecordsPackageSizing packageSizing;
+    private final int maxPackagesInFlight;
+    private final int maxBytesInFlight;
+    private final Semaphore packagesInFlight;
+    private final Semaphore bytesInFlight;
 
     protected LogRecordsIndexer(
             @NonNull @IndexingTasksPool Executor indexingPool,
             @NonNull LogsStorage logsStorage,
-            @NonNull MeterRegistry meterRegistry) {
+            @NonNull MeterRegistry meterRegistry,
+            @NonNull RecordsPackageSizing packageSizing,
+            @Value("${logs.analyzer.indexing.max-packages-in-flight:16}") int maxPackagesInFlight,
+            @Value("${logs.analyzer.indexing.max-bytes-in-flight-mb:256}") int maxBytesInFlightMb) {
         this.indexingPool = indexingPool;
         this.logsStorage = logsStorage;
+        this.packageSizing = packageSizing;
+        this.maxPackagesInFlight = Math.max(1, maxPackagesInFlight);
+        this.maxBytesInFlight = (int) Math.min(Integer.MAX_VALUE, Math.max(1L, maxBytesInFlightMb) * 1024 * 1024);
+        this.packagesInFlight = new Semaphore(this.maxPackagesInFlight);
+        this.bytesInFlight = new Semaphore(this.maxBytesInFlight);
         this.indexedRecordsCounter = meterRegistry.counter("logs.indexed.records", "description", "All logs indexed records count");
         this.indexRequestsCounter = meterRegistry.counter("logs.index.requests", "description", "All logs index requests to search engine count");
+
+        Gauge.builder("logs.indexing.packages.in-flight", this, indexer -> indexer.maxPackagesInFlight - indexer.packagesInFlight.availablePermits())
+                .description("Records packages submitted for indexing and not indexed yet")
+                .register(meterRegistry);
+        Gauge.builder("logs.indexing.bytes.in-flight", this, indexer -> indexer.maxBytesInFlight - indexer.bytesInFlight.availablePermits())
+                .description("Size of records submitted for indexing and not indexed yet")
+                .register(meterRegistry);
+        Gauge.builder("logs.indexing.producers.waiting", this, indexer -> indexer.packagesInFlight.getQueueLength() + indexer.bytesInFlight.getQueueLength())
+                .description("Producers of records packages waiting for the indexing capacity")
+                .register(meterRegistry);
     }
 
+    /**
+     * Submits the package for indexing, blocks while the limit of packages or bytes in flight is reached.
+     */
     @Nonnull
     public final CompletableFuture<Void> index(@NonNull Collection<LogRecordEntity> records) {
-        return this.execute(() -> {
-            this.logsStorage.saveAll(records);
-            this.indexedRecordsCounter.increment(records.size());
-            this.indexRequestsCounter.increment();
-        });
+        final var size = computeSize(records);
+        // the package larger than the whole limit takes all the permits to not wait forever
+        final var bytesPermits = (int) Math.max(1, Math.min(size, this.maxBytesInFlight));
+        acquire(bytesPermits);
+
+        try {
+            return this.execute(() -> {
+                final var start = System.nanoTime();
+                this.logsStorage.saveAll(records);
+                this.packageSizing.onPackageIndexed(size, System.nanoTime() - start);
+
+                this.indexedRecordsCounter.increment(records.size());
+                this.indexRequestsCounter.increment();
+            }).whenComplete((v, ex) -> release(bytesPermits));
+        } catch (RuntimeException ex) {
+            release(bytesPermits);
+            throw ex;
+        }
+    }
+
+    private void acquire(final int bytesPermits) {
+        try {
+            this.packagesInFlight.acquire();
+            try {
+                this.bytesInFlight.acquire(bytesPermits);
+            } catch (InterruptedException ex) {
+                this.packagesInFlight.release();
+                throw ex;
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private void release(final int bytesPermits) {
+        this.bytesInFlight.release(bytesPermits);
+        this.packagesInFlight.release();
+    }
+
+    private long computeSize(final Collection<LogRecordEntity> records) {
+        long size = 0;
+        for (final var record : records) {
+            size += record.getSource().length();
+        }
+
+        return size;
     }
 
     private CompletableFuture<Void> execute(@NonNull Runnable task) {
@@ -0,0 +1,88 @@
+package org.analyzer.service.logs.std;
+
+import lombok.NonNull;
+import org.analyzer.entities.LogRecordEntity;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Collects continuation lines of the record in the reusable buffer and sets
+ * the source, the text and the fingerprint of the record only once, when the record is completed.
+ */
+@NotThreadSafe
+final class MultilineRecordBuilder {
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final int MAX_RETAINED_CAPACITY = 1024 * 1024;
+
+    private final int maxRecordSize;
+    private final Runnable truncationListener;
+
+    private StringBuilder buffer;
+    private LogRecordEntity record;
+    private boolean truncated;
+
+    MultilineRecordBuilder(final int maxRecordSize, @NonNull final Runnable truncationListener) {
+        this.maxRecordSize = maxRecordSize <= 0 ? Integer.MAX_VALUE : maxRecordSize;
+        this.truncationListener = truncationListener;
+        this.buffer = new StringBuilder();
+    }
+
+    void start(@NonNull final LogRecordEntity record) {
+        complete();
+        this.record = record;
+    }
+
+    void append(@NonNull final String line) {
+        if (this.truncated) {
+            return;
+        }
+
+        if (this.buffer.isEmpty()) {
+            this.buffer.append(this.record.getSource());
+        }
+
+        final var available = this.maxRecordSize - this.buffer.length() - LINE_SEPARATOR.length();
+        if (available >= line.length()) {
+            this.buffer.append(LINE_SEPARATOR).append(line);
+            return;
+        }
+
+        if (available > 0) {
+            this.buffer.append(LINE_SEPARATOR).append(line, 0, available);
+        }
+
+        this.truncated = true;
+        this.truncationListener.run();
+    }
+
+    void complete() {
+        if (this.record == null) {
+            return;
+        }
+
+        if (!this.buffer.isEmpty()) {
+            final var firstLine = this.record.getSource();
+            final var text = this.record.getRecord();
+            final var source = this.buffer.toString();
+
+            this.record.setSource(source);
+            if (text == null) {
+                this.record.setRecord(source.substring(firstLine.length()));
+            } else if (firstLine.endsWith(text)) {
+                this.record.setRecord(source.substring(firstLine.length() - text.length()));
+            } else {
+                this.record.setRecord(text + source.substring(firstLine.length()));
+            }
+
+            this.buffer.setLength(0);
+            if (this.buffer.capacity() > MAX_RETAINED_CAPACITY) {
+                this.buffer = new StringBuilder();
+            }
+        }
+
+        this.record.setFingerprint(RecordFingerprints.of(this.record.getSource()));
+        this.record = null;
+        this.truncated = false;
+    }
+}
@@ -0,0 +1,33 @@
+package org.analyzer.service.logs.std;
+
+import lombok.NonNull;
+
+import java.util.regex.Pattern;
+
+final class PatternRecordLineTokenizer implements RecordLineTokenizer {
+
+    private final Pattern pattern;
+
+    PatternRecordLineTokenizer(@NonNull final Pattern pattern) {
+        this.pattern = pattern;
+    }
+
+    @Override
+    public boolean tokenize(@NonNull final String line, @NonNull final RecordTokens tokens) {
+        final var matcher = this.pattern.matcher(line);
+        if (!matcher.matches()) {
+            return false;
+        }
+
+        tokens.date = matcher.group("date");
+        tokens.time = matcher.group("time");
+        tokens.level = matcher.group("level");
+        tokens.thread = matcher.group("thread");
+        tokens.traceId = matcher.group("traceId");
+        tokens.spanId = matcher.group("spanId");
+        tokens.category = matcher.group("category");
+        tokens.text = matcher.group("text");
+
+        return true;
+    }
+}
@@ -0,0 +1,45 @@
+package org.analyzer.service.logs.std;
+
+import lombok.NonNull;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Channel which returns the already read head of the source channel before the rest of its data.
+ */
+@NotThreadSafe
+final class PrefetchedByteChannel implements ReadableByteChannel {
+
+    private final ByteBuffer head;
+    private final ReadableByteChannel source;
+
+    PrefetchedByteChannel(@NonNull final ByteBuffer head, @NonNull final ReadableByteChannel source) {
+        this.head = head;
+        this.source = source;
+    }
+
+    @Override
+    public int read(final ByteBuffer dst) throws IOException {
+        if (!this.head.hasRemaining()) {
+            return this.source.read(dst);
+        }
+
+        final var count = Math.min(dst.remaining(), this.head.remaining());
+        dst.put(this.head.slice(this.head.position(), count));
+        this.head.position(this.head.position() + count);
+        return count;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return this.source.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.source.close();
+    }
+}
@@ -0,0 +1,34 @@
+package org.analyzer.service.logs.std;
+
+import lombok.NonNull;
+
+/**
+ * Compact 64-bit fingerprints of the content of records (FNV-1a with the final mixing of SplitMix64,
+ * so the bits of the fingerprint are well distributed for the bloom filter).
+ */
+final class RecordFingerprints {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    static long of(@NonNull final CharSequence source) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < source.length(); i++) {
+            final var c = source.charAt(i);
+            hash = (hash ^ (c & 0xFF)) * FNV_PRIME;
+            hash = (hash ^ (c >>> 8)) * FNV_PRIME;
+        }
+
+        return mix(hash);
+    }
+
+    static long mix(final long value) {
+        long result = value;
+        result = (result ^ (result >>> 30)) * 0xbf58476d1ce4e5b9L;
+        result = (result ^ (result >>> 27)) * 0x94d049bb133111ebL;
+        return result ^ (result >>> 31);
+    }
+
+    private RecordFingerprints() {
+    }
+}
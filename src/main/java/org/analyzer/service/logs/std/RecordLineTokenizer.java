@@ -0,0 +1,13 @@
+package org.analyzer.service.logs.std;
+
+import javax.annotation.Nonnull;
+
+interface RecordLineTokenizer {
+
+    /**
+     * Splits the line to the record fields.
+     *
+     * @return {@code true} if line is a start of the record, {@code false} otherwise (tokens state is undefined in this case)
+     */
+    boolean tokenize(@Nonnull String line, @Nonnull RecordTokens tokens);
+}
@@ -0,0 +1,16 @@
+package org.analyzer.service.logs.std;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+@NotThreadSafe
+final class RecordTokens {
+
+    String date;
+    String time;
+    String level;
+    String category;
+    String thread;
+    String traceId;
+    String spanId;
+    String text;
+}
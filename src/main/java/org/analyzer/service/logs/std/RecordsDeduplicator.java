@@ -0,0 +1,110 @@
+package org.analyzer.service.logs.std;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.analyzer.dao.LogsStorage;
+import org.analyzer.entities.LogRecordEntity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Skips the records already stored for the user by other indexings. Fingerprints of the stored records of the user
+ * are kept in the bloom filter, so only the records it reports as probably stored are checked in the storage.
+ * Records repeated within the same indexing are never skipped, they are the real content of the log.
+ * The storage isn't awaited for every package, so records of the concurrent indexings are found once they become searchable.
+ */
+@Component
+@ThreadSafe
+@Slf4j
+class RecordsDeduplicator {
+
+    private final LogsStorage logsStorage;
+    private final double falsePositiveProbability;
+    private final long minCapacity;
+    private final Map<String, UserFingerprints> usersFingerprints;
+    private final Counter duplicatesCounter;
+
+    @Autowired
+    RecordsDeduplicator(
+            @NonNull final LogsStorage logsStorage,
+            @NonNull final MeterRegistry meterRegistry,
+            @Value("${logs.analyzer.indexing.deduplication.false-positive-probability:0.01}") final double falsePositiveProbability,
+            @Value("${logs.analyzer.indexing.deduplication.min-capacity:1000000}") final long minCapacity) {
+        this.logsStorage = logsStorage;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.minCapacity = minCapacity;
+        this.usersFingerprints = new ConcurrentHashMap<>();
+        this.duplicatesCounter = meterRegistry.counter("logs.indexing.records.duplicates", "description", "Records skipped as already indexed");
+    }
+
+    @NonNull
+    Collection<LogRecordEntity> removeStored(
+            @NonNull final String userKey,
+            @NonNull final String userIndexingKey,
+            @NonNull final Collection<LogRecordEntity> records) {
+        final var filter = this.usersFingerprints.computeIfAbsent(userKey, UserFingerprints::new).filter();
+
+        final var candidates = records.stream()
+                                        .map(LogRecordEntity::getFingerprint)
+                                        .filter(fingerprint -> fingerprint != null && filter.mightContain(fingerprint))
+                                        .collect(Collectors.toSet());
+        final Set<Long> storedFingerprints =
+                candidates.isEmpty()
+                        ? Set.of()
+                        : this.logsStorage.findAllByFingerprints(userKey, candidates)
+                                            .stream()
+                                            .filter(record -> !record.getId().startsWith(userIndexingKey))
+                                            .map(LogRecordEntity::getFingerprint)
+                                            .collect(Collectors.toSet());
+
+        final List<LogRecordEntity> result = new ArrayList<>(records.size());
+        for (final var record : records) {
+            if (record.getFingerprint() == null) {
+                result.add(record);
+            } else if (!storedFingerprints.contains(record.getFingerprint())) {
+                filter.put(record.getFingerprint());
+                result.add(record);
+            }
+        }
+
+        this.duplicatesCounter.increment(records.size() - result.size());
+        return result;
+    }
+
+    private class UserFingerprints {
+
+        private final String userKey;
+        private FingerprintsBloomFilter filter;
+
+        private UserFingerprints(final String userKey) {
+            this.userKey = userKey;
+        }
+
+        synchronized FingerprintsBloomFilter filter() {
+            if (this.filter == null || this.filter.isSaturated()) {
+                var capacity = this.filter == null ? minCapacity : this.filter.capacity() * 2;
+                while ((this.filter = load(capacity)).isSaturated()) {
+                    capacity *= 2;
+                }
+
+                log.debug("Fingerprints filter of user {} loaded with capacity {}", this.userKey, capacity);
+            }
+
+            return this.filter;
+        }
+
+        private FingerprintsBloomFilter load(final long capacity) {
+            final var result = new FingerprintsBloomFilter(capacity, falsePositiveProbability);
+            logsStorage.forEachFingerprint(this.userKey, result::put);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package org.analyzer.service.logs.std;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import lombok.NonNull;
+import org.analyzer.config.parsing.LogRecordsParsingProperties;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Size limits of the records packages passed from the parser to the indexer. The bytes budget of a package
+ * follows the observed indexing throughput, so indexing of a package takes about the target latency:
+ * packages of short records are made larger and packages of huge records (like stack traces) smaller.
+ */
+@ThreadSafe
+@Component
+class RecordsPackageSizing {
+
+    private static final double THROUGHPUT_SMOOTHING = 0.3;
+
+    private final int maxRecords;
+    private final long minBytes;
+    private final long maxBytes;
+    private final long targetLatencyMs;
+    private final AtomicLong bytesBudget;
+
+    private volatile double bytesPerMs;
+
+    RecordsPackageSizing(
+            @NonNull LogRecordsParsingProperties parsingProperties,
+            @NonNull MeterRegistry meterRegistry) {
+        this.maxRecords = parsingProperties.getPackageMaxRecords();
+        this.maxBytes = (long) parsingProperties.getPackageMaxSizeKb() * 1024;
+        this.minBytes = Math.min(this.maxBytes, (long) parsingProperties.getPackageMinSizeKb() * 1024);
+        this.targetLatencyMs = parsingProperties.getPackageTargetLatencyMs();
+        this.bytesBudget = new AtomicLong(this.maxBytes);
+
+        meterRegistry.gauge(
+                "logs.parser.package.bytes.budget",
+                Collections.singleton(Tag.of("description", "Current bytes budget of the records package")),
+                this.bytesBudget);
+    }
+
+    int maxRecords() {
+        return this.maxRecords;
+    }
+
+    long bytesBudget() {
+        return this.bytesBudget.get();
+    }
+
+    /**
+     * Adjusts the budget by the indexing time of the package.
+     *
+     * @param bytes         size of the indexed records
+     * @param indexingNanos time spent to index the records
+     */
+    void onPackageIndexed(final long bytes, final long indexingNanos) {
+        if (this.targetLatencyMs <= 0 || bytes == 0) {
+            return;
+        }
+
+        final var latencyMs = Math.max(1.0, (double) TimeUnit.NANOSECONDS.toMicros(indexingNanos) / 1_000);
+        final var observedBytesPerMs = bytes / latencyMs;
+        final var previousBytesPerMs = this.bytesPerMs;
+        final var smoothedBytesPerMs = previousBytesPerMs == 0
+                ? observedBytesPerMs
+                : previousBytesPerMs + THROUGHPUT_SMOOTHING * (observedBytesPerMs - previousBytesPerMs);
+        this.bytesPerMs = smoothedBytesPerMs;
+
+        final var budget = (long) (smoothedBytesPerMs * this.targetLatencyMs);
+        this.bytesBudget.set(Math.max(this.minBytes, Math.min(this.maxBytes, budget)));
+    }
+}
@@ -0,0 +1,409 @@
+package org.analyzer.service.logs.std;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.analyzer.service.exceptions.IllegalUploadChunkException;
+import org.analyzer.service.exceptions.LogUploadNotFoundException;
+import org.analyzer.service.logs.LogRecordFormat;
+import org.analyzer.service.logs.LogUpload;
+import org.analyzer.service.logs.LogUploadsService;
+import org.analyzer.service.logs.LogsService;
+import org.analyzer.service.users.CurrentUserAccessor;
+import org.analyzer.service.util.UnzipperUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Chunks of the upload are written to their positions in the file of the upload, the indexing reads the file
+ * up to the end of the received chunks prefix and waits for the next chunks. Zip archives are indexed from the file
+ * only when the upload is completed, because their entries are located by the central directory at the end of the archive
+ * and are read in parallel then. The upload which doesn't receive chunks for the idle timeout is cancelled.
+ */
+@Service
+@Slf4j
+public class StandardLogUploadsService implements LogUploadsService {
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private LogsService logsService;
+    @Autowired
+    private CurrentUserAccessor userAccessor;
+    @Autowired
+    private UnzipperUtil zipUtil;
+    @Value("${logs.analyzer.uploads.storage-path:${java.io.tmpdir}/logs-analyzer/uploads}")
+    private Path uploadsDirectory;
+    @Value("${logs.analyzer.uploads.max-chunk-size-mb:64}")
+    private long maxChunkSizeMb;
+    @Value("${logs.analyzer.uploads.idle-timeout-minutes:30}")
+    private long idleTimeoutMinutes;
+
+    private final Map<String, Upload> uploads = new ConcurrentHashMap<>();
+
+    @NonNull
+    @Override
+    public LogUpload create(
+            @NonNull String logName,
+            long chunkSize,
+            @Nullable LogRecordFormat recordFormat) {
+        if (chunkSize <= 0 || chunkSize > this.maxChunkSizeMb * 1024 * 1024) {
+            throw new IllegalArgumentException("Chunk size must be positive and not greater than " + this.maxChunkSizeMb + " MB: " + chunkSize);
+        }
+
+        final var uploadId = UUID.randomUUID().toString();
+        final var upload = new Upload(uploadId, this.userAccessor.get().getHash(), logName, chunkSize);
+        this.uploads.put(uploadId, upload);
+
+        // the upload waits for its first chunk on its own virtual thread, so it doesn't hold the threads of the pools
+        upload.indexing = CompletableFuture.supplyAsync(
+                                                () -> upload.startIndexing(recordFormat),
+                                                command -> Thread.ofVirtual().name("log-upload-" + uploadId).start(command)
+                                            )
+                                            .thenCompose(Function.identity());
+        upload.indexing.whenComplete((indexingKey, ex) -> {
+            this.uploads.remove(uploadId);
+            upload.close();
+        });
+
+        log.debug("Upload {} of log {} created", uploadId, logName);
+        return upload.toLogUpload();
+    }
+
+    @NonNull
+    @Override
+    public LogUpload findById(@NonNull String uploadId) {
+        return findUpload(uploadId).toLogUpload();
+    }
+
+    @NonNull
+    @Override
+    public LogUpload writeChunk(
+            @NonNull String uploadId,
+            int chunkNumber,
+            @NonNull InputStream chunkStream) {
+        final var upload = findUpload(uploadId);
+        upload.write(chunkNumber, chunkStream);
+        return upload.toLogUpload();
+    }
+
+    @NonNull
+    @Override
+    public CompletableFuture<String> complete(@NonNull String uploadId, int chunksCount) {
+        final var upload = findUpload(uploadId);
+        upload.complete(chunksCount);
+        return upload.indexing;
+    }
+
+    @Override
+    public void cancel(@NonNull String uploadId) {
+        findUpload(uploadId).cancel();
+    }
+
+    private Upload findUpload(final String uploadId) {
+        final var upload = this.uploads.get(uploadId);
+        if (upload == null || !upload.userKey.equals(this.userAccessor.get().getHash())) {
+            throw new LogUploadNotFoundException(uploadId);
+        }
+
+        return upload;
+    }
+
+    private class Upload {
+
+        private final String id;
+        private final String userKey;
+        private final String logName;
+        private final long chunkSize;
+        private final Path file;
+        private final FileChannel channel;
+        private final ReentrantLock lock;
+        private final Condition chunkReceived;
+        private final BitSet receivedChunks;
+        private final BitSet writingChunks;
+        private int lastChunk = -1;
+        private long lastChunkSize;
+        private long size = -1;
+        private boolean cancelled;
+        private volatile CompletableFuture<String> indexing;
+
+        private Upload(final String id, final String userKey, final String logName, final long chunkSize) {
+            this.id = id;
+            this.userKey = userKey;
+            this.logName = logName;
+            this.chunkSize = chunkSize;
+            this.lock = new ReentrantLock();
+            this.chunkReceived = this.lock.newCondition();
+            this.receivedChunks = new BitSet();
+            this.writingChunks = new BitSet();
+
+            try {
+                Files.createDirectories(uploadsDirectory);
+                this.file = uploadsDirectory.resolve(id);
+                this.channel = FileChannel.open(
+                        this.file,
+                        StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE
+                );
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        void write(final int chunkNumber, final InputStream chunkStream) {
+            this.lock.lock();
+            try {
+                checkNotFinished(chunkNumber);
+                if (chunkNumber < 0 || this.lastChunk >= 0 && chunkNumber > this.lastChunk) {
+                    throw new IllegalUploadChunkException(this.id, chunkNumber, "the chunk is out of the upload");
+                } else if (this.receivedChunks.get(chunkNumber)) {
+                    return;
+                } else if (this.writingChunks.get(chunkNumber)) {
+                    throw new IllegalUploadChunkException(this.id, chunkNumber, "the chunk is being written");
+                }
+
+                this.writingChunks.set(chunkNumber);
+            } finally {
+                this.lock.unlock();
+            }
+
+            try {
+                // the chunk is never written out of its place, because the next chunk may be already received
+                final var written = writeChunkData(chunkNumber, chunkStream);
+                onChunkWritten(chunkNumber, written);
+            } finally {
+                this.lock.lock();
+                try {
+                    this.writingChunks.clear(chunkNumber);
+                } finally {
+                    this.lock.unlock();
+                }
+            }
+        }
+
+        void complete(final int chunksCount) {
+            this.lock.lock();
+            try {
+                checkNotFinished(chunksCount - 1);
+                final var lastChunk = chunksCount - 1;
+                if (chunksCount <= 0
+                        || this.receivedChunks.nextClearBit(0) != chunksCount
+                        || this.receivedChunks.length() != chunksCount
+                        || this.lastChunk >= 0 && this.lastChunk != lastChunk) {
+                    throw new IllegalUploadChunkException(this.id, this.receivedChunks.nextClearBit(0), "not all chunks of the upload are received");
+                }
+
+                this.size = this.lastChunk >= 0 ? this.lastChunk * this.chunkSize + this.lastChunkSize : chunksCount * this.chunkSize;
+                this.chunkReceived.signalAll();
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        void cancel() {
+            this.lock.lock();
+            try {
+                this.cancelled = true;
+                this.chunkReceived.signalAll();
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        /**
+         * Waits for the first chunk of the upload and starts the indexing of the upload by its data.
+         */
+        CompletableFuture<String> startIndexing(final LogRecordFormat recordFormat) {
+            try (final var userContext = userAccessor.as(this.userKey)) {
+                awaitReceivedData(0);
+                if (!zipUtil.isRandomAccessArchive(this.file.toFile())) {
+                    return logsService.index(new UploadInputStream(), this.logName, recordFormat);
+                }
+
+                awaitCompleted();
+                return logsService.index(this.file.toFile(), this.logName, recordFormat);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        void close() {
+            // the file isn't deleted on close by the channel, because the completed archive is read by its path
+            try {
+                this.channel.close();
+                Files.deleteIfExists(this.file);
+            } catch (IOException e) {
+                log.warn("File of upload " + this.id + " can't be closed", e);
+            }
+        }
+
+        LogUpload toLogUpload() {
+            this.lock.lock();
+            try {
+                return new LogUpload(
+                        this.id,
+                        this.logName,
+                        this.chunkSize,
+                        this.receivedChunks.stream().boxed().toList(),
+                        this.size >= 0
+                );
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        private long writeChunkData(final int chunkNumber, final InputStream chunkStream) {
+            final var buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+            final var chunkPosition = chunkNumber * this.chunkSize;
+            long written = 0;
+            try {
+                int read;
+                while ((read = chunkStream.read(buffer.array(), 0, (int) Math.min(buffer.capacity(), this.chunkSize - written))) > 0) {
+                    buffer.position(0).limit(read);
+                    while (buffer.hasRemaining()) {
+                        written += this.channel.write(buffer, chunkPosition + written);
+                    }
+                }
+
+                if (written == this.chunkSize && chunkStream.read() >= 0) {
+                    throw new IllegalUploadChunkException(this.id, chunkNumber, "the chunk is greater than the chunk size of the upload");
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+
+            return written;
+        }
+
+        private void onChunkWritten(final int chunkNumber, final long written) {
+            this.lock.lock();
+            try {
+                checkNotFinished(chunkNumber);
+                if (written < this.chunkSize) {
+                    // only the last chunk may be less than the chunk size
+                    if (this.lastChunk >= 0 && this.lastChunk != chunkNumber || this.receivedChunks.length() > chunkNumber + 1) {
+                        throw new IllegalUploadChunkException(this.id, chunkNumber, "only the last chunk may be less than the chunk size");
+                    }
+
+                    this.lastChunk = chunkNumber;
+                    this.lastChunkSize = written;
+                }
+
+                this.receivedChunks.set(chunkNumber);
+                this.chunkReceived.signalAll();
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        private void checkNotFinished(final int chunkNumber) {
+            if (this.cancelled || this.size >= 0) {
+                throw new IllegalUploadChunkException(this.id, chunkNumber, "the upload is already " + (this.cancelled ? "cancelled" : "completed"));
+            }
+        }
+
+        /**
+         * Returns the position up to which the data is received, waits while the position isn't greater than the given one.
+         */
+        private long awaitReceivedData(final long position) throws IOException {
+            this.lock.lock();
+            try {
+                while (true) {
+                    if (this.cancelled) {
+                        throw new IOException("Upload " + this.id + " cancelled");
+                    }
+
+                    final var receivedPrefix = this.receivedChunks.nextClearBit(0);
+                    final var receivedData = this.lastChunk >= 0 && receivedPrefix > this.lastChunk
+                            ? this.lastChunk * this.chunkSize + this.lastChunkSize
+                            : receivedPrefix * this.chunkSize;
+                    if (receivedData > position || this.size >= 0 && position >= this.size) {
+                        return receivedData;
+                    }
+
+                    awaitChunk();
+                }
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        private void awaitCompleted() throws IOException {
+            this.lock.lock();
+            try {
+                while (true) {
+                    if (this.cancelled) {
+                        throw new IOException("Upload " + this.id + " cancelled");
+                    } else if (this.size >= 0) {
+                        return;
+                    }
+
+                    awaitChunk();
+                }
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        private void awaitChunk() throws IOException {
+            try {
+                if (!this.chunkReceived.await(idleTimeoutMinutes, TimeUnit.MINUTES)) {
+                    this.cancelled = true;
+                    throw new IOException("Upload " + this.id + " cancelled, no chunks received for " + idleTimeoutMinutes + " minutes");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+        }
+
+        private class UploadInputStream extends InputStream {
+
+            private long position;
+
+            @Override
+            public int read() throws IOException {
+                final var b = new byte[1];
+                return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (len == 0) {
+                    return 0;
+                }
+
+                final var receivedData = awaitReceivedData(this.position);
+                if (receivedData <= this.position) {
+                    return -1;
+                }
+
+                final var buffer = ByteBuffer.wrap(b, off, (int) Math.min(len, receivedData - this.position));
+                final var read = channel.read(buffer, this.position);
+                if (read > 0) {
+                    this.position += read;
+                }
+
+                return read;
+            }
+        }
+    }
+}
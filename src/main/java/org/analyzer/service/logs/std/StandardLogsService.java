@@ -4,35 +4,56 @@ import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
 import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
 import org.analyzer.dao.LogsStatisticsRepository;
 import org.analyzer.dao.LogsStorage;
 import org.analyzer.entities.LogRecordEntity;
 import org.analyzer.entities.LogsStatisticsEntity;
 import org.analyzer.entities.UserEntity;
 import org.analyzer.service.logs.*;
+import org.analyzer.service.exceptions.ArchiveLimitExceededException;
+import org.analyzer.service.exceptions.UnsupportedApplicationOperationException;
 import org.analyzer.service.logs.std.postfilters.PostFiltersSequenceBuilder;
 import org.analyzer.service.queries.UserQueriesService;
 import org.analyzer.service.users.CurrentUserAccessor;
+import org.analyzer.service.util.ArchiveEntriesFilter;
 import org.analyzer.service.util.JsonConverter;
 import org.analyzer.service.util.LongRunningTaskExecutor;
 import org.analyzer.service.util.UnzipperUtil;
 import org.apache.commons.io.FileUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.CharacterCodingException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.zip.ZipException;
 
 @Service
+@Slf4j
 public class StandardLogsService implements LogsService {
 
     private static final String STATISTICS_CACHE = "statistics";
@@ -63,6 +84,20 @@ public class StandardLogsService implements LogsService {
     private UserQueriesService currentUserQueryService;
     @Autowired
     private LogRecordsIndexer logRecordsIndexer;
+    @Autowired
+    private LogRecordFormatDetector recordFormatDetector;
+    @Value("${logs.analyzer.indexing.archive-files-parallelism:4}")
+    private int archiveFilesParallelism;
+    @Value("${logs.analyzer.search.default.max_results}")
+    private int maxResultsDefault;
+    @Value("${logs.analyzer.indexing.archive-default-excludes:}")
+    private List<String> archiveDefaultExcludes;
+    @Autowired
+    private RecordsDeduplicator recordsDeduplicator;
+    @Value("${logs.analyzer.indexing.deduplication.enabled:false}")
+    private boolean deduplicationEnabled;
+    @Autowired
+    private IndexingJobs indexingJobs;
 
     private Counter indexedFilesCounter;
     private Counter simpleSearchRequestsCounter;
@@ -81,54 +116,186 @@ public class StandardLogsService implements LogsService {
     @NonNull
     public CompletableFuture<String> index(
             @NonNull File logFile,
+            @NonNull String logName,
             @Nullable LogRecordFormat recordFormat) {
 
         final var uuidKey = UUID.randomUUID().toString();
         final var userEntity = this.userAccessor.get();
-        return this.taskExecutor.execute(
-                () -> this.zipUtil.flat(logFile)
-                                    .forEach(file -> processLogFile(userEntity, uuidKey, recordFormat, file))
-                )
-                .thenApply(v -> uuidKey)
-                .whenComplete((result, ex) -> {
-            if (ex != null) {
-                final var userIndexingKey = this.logKeysFactory.createUserIndexingKey(userEntity.getHash(), uuidKey);
-                this.logsStorage.deleteAllByIdRegex(userIndexingKey);
-            }
-        });
+        final var job = this.indexingJobs.enabled() ? this.indexingJobs.create(uuidKey, userEntity, logName, recordFormat) : null;
+        return executeIndexing(
+                userEntity,
+                uuidKey,
+                job,
+                this.taskExecutor::execute,
+                () -> {
+                    if (job != null) {
+                        this.indexingJobs.linkSource(job, logFile);
+                        job.onSourceCompleted();
+                    }
+
+                    processLogFile(userEntity, uuidKey, recordFormat, logName, logFile, job);
+                    completeIndexing(userEntity, uuidKey);
+                }
+        );
     }
 
-    @Nonnull
     @Override
-    public List<String> searchByQuery(@Nonnull SearchQuery searchQuery) {
-        final var user = this.userAccessor.get();
-        this.taskExecutor.execute(
+    @NonNull
+    public CompletableFuture<String> index(
+            @NonNull InputStream logStream,
+            @NonNull String logName,
+            @Nullable LogRecordFormat recordFormat) {
+
+        final var uuidKey = UUID.randomUUID().toString();
+        final var userEntity = this.userAccessor.get();
+        final var job = this.indexingJobs.enabled() ? this.indexingJobs.create(uuidKey, userEntity, logName, recordFormat) : null;
+        // the stream may wait for its data for a long time (uploads, downloads), so it doesn't hold the thread of the pool
+        return executeIndexing(
+                userEntity,
+                uuidKey,
+                job,
+                this.taskExecutor::executeDetached,
                 () -> {
-                    try (final var userContext = this.userAccessor.as(user)) {
-                        this.currentUserQueryService.create(searchQuery);
+                    try (final var stream = new BufferedInputStream(job == null ? logStream : job.spoolSource(logStream))) {
+                        if (this.zipUtil.isArchive(stream)) {
+                            this.zipUtil.forEachEntry(stream, logName, createArchiveEntriesFilter(recordFormat), (entryPath, entryStream) -> processArchiveEntry(userEntity, uuidKey, recordFormat, entryPath, entryStream, job));
+                        } else {
+                            processLogStream(userEntity, uuidKey, recordFormat, logName, stream, job);
+                        }
+
+                        if (job != null) {
+                            // the whole source is needed to resume the job
+                            stream.transferTo(OutputStream.nullOutputStream());
+                        }
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+
+                    if (job != null) {
+                        job.onSourceCompleted();
                     }
+
+                    completeIndexing(userEntity, uuidKey);
                 }
         );
+    }
+
+    /**
+     * Resumes the jobs of the node interrupted by its restart, the jobs which can't be resumed are rolled back.
+     * Jobs are claimed only when their leases expire, so the jobs of the previous run of the node are resumed by the later calls.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(
+            initialDelayString = "${logs.analyzer.indexing.jobs.lease-seconds:60}",
+            fixedDelayString = "${logs.analyzer.indexing.jobs.lease-seconds:60}",
+            timeUnit = TimeUnit.SECONDS
+    )
+    void resumeInterruptedIndexing() {
+        this.indexingJobs.findAllInterrupted()
+                            .forEach(job -> {
+                                try (final var userContext = this.userAccessor.as(job.userKey())) {
+                                    final var user = this.userAccessor.get();
+                                    if (!this.indexingJobs.isResumable(job)) {
+                                        log.info("Indexing job {} of user {} can't be resumed, it is rolled back", job.indexingKey(), user.getUsername());
+                                        cleanupIndexing(user, job.indexingKey(), job, true);
+                                        return;
+                                    }
+
+                                    log.info("Indexing job {} of user {} is resumed", job.indexingKey(), user.getUsername());
+                                    executeIndexing(user, job.indexingKey(), job, this.taskExecutor::execute, () -> resumeIndexing(user, job));
+                                } catch (RuntimeException e) {
+                                    log.error("Indexing job " + job.indexingKey() + " can't be resumed", e);
+                                }
+                            });
+    }
+
+    @Override
+    @NonNull
+    public CompletableFuture<IndexedLogTail> indexAppendable(
+            @NonNull InputStream logStream,
+            @NonNull String logName,
+            @Nullable LogRecordFormat recordFormat) {
+
+        final var uuidKey = UUID.randomUUID().toString();
+        final var userEntity = this.userAccessor.get();
+        final var logTail = new AtomicReference<IndexedLogTail>();
+        // appendable logs are followed by the scheduled indexers, which keep their own positions, so no jobs are created
+        return executeIndexing(
+                userEntity,
+                uuidKey,
+                null,
+                this.taskExecutor::executeDetached,
+                () -> logTail.set(processAppendableLog(userEntity, uuidKey, logStream, logName, 0, recordFormat))
+        ).thenApply(indexingKey -> logTail.get());
+    }
+
+    @Override
+    @NonNull
+    @CacheEvict(value = STATISTICS_CACHE, key = "#root.args[0].indexingKey()")
+    public CompletableFuture<IndexedLogTail> append(
+            @NonNull IndexedLogTail tail,
+            @NonNull InputStream logStream,
+            @NonNull String logName,
+            @Nullable LogRecordFormat recordFormat) {
+
+        if (!tail.appendable()) {
+            throw new UnsupportedApplicationOperationException("append to the log " + tail.indexingKey());
+        }
+
+        final var userEntity = this.userAccessor.get();
+        final var logTail = new AtomicReference<IndexedLogTail>();
+        // records keys are derived from their positions in the log, so the appended records don't clash with the indexed ones
+        return this.taskExecutor.execute(
+                () -> {
+                    awaitStoredRecords();
+                    // the last record is parsed again from its start with the lines appended to it, so the stored one is replaced
+                    final var logFileKey = this.logKeysFactory.createIndexedLogFileKey(userEntity.getHash(), tail.indexingKey(), logName);
+                    this.logsStorage.deleteAllByIds(List.of(this.logKeysFactory.createLogRecordKey(logFileKey, tail.lastRecordPosition())));
+
+                    logTail.set(processAppendableLog(userEntity, tail.indexingKey(), logStream, logName, tail.lastRecordPosition(), recordFormat));
+                })
+                .thenApply(v -> logTail.get());
+    }
+
+    @Nonnull
+    @Override
+    public List<String> searchByQuery(@Nonnull SearchQuery searchQuery) {
+        saveUserQuery(searchQuery);
 
         return searchByFilterQuery(searchQuery)
+                .records()
                 .stream()
                 .map(LogRecordEntity::getSource)
                 .toList();
     }
 
+    @Override
+    public void searchAllByQuery(@Nonnull SearchQuery searchQuery, @Nonnull Consumer<String> consumer) {
+        saveUserQuery(searchQuery);
+
+        searchAllByFilterQuery(searchQuery, records -> records.forEach(record -> consumer.accept(record.getSource())));
+    }
+
     @NonNull
     @Override
     public File searchAndExportByQuery(@NonNull SearchQuery query) {
         try {
-            SearchQuery pageQuery = query;
-            List<String> records;
+            saveUserQuery(query);
+
             final File logsFile = File.createTempFile(UUID.randomUUID().toString(), null);
             logsFile.deleteOnExit();
 
-            while (!(records = this.searchByQuery(pageQuery)).isEmpty()) {
-                FileUtils.writeLines(logsFile, StandardCharsets.UTF_8.displayName(), records, true);
-                pageQuery = pageQuery.toNextPageQuery();
-            }
+            searchAllByFilterQuery(query, records -> {
+                final var sources = records
+                                        .stream()
+                                        .map(LogRecordEntity::getSource)
+                                        .toList();
+                try {
+                    FileUtils.writeLines(logsFile, StandardCharsets.UTF_8.displayName(), sources, true);
+                } catch (IOException ex) {
+                    throw new RuntimeException(ex);
+                }
+            });
 
             return logsFile;
         } catch (IOException ex) {
@@ -140,25 +307,19 @@ public class StandardLogsService implements LogsService {
     @Override
     public MapLogsStatistics analyze(@NonNull AnalyzeQuery analyzeQuery) {
 
-        MapLogsStatistics stats = null;
-        var pageNumber = 0;
-        SearchQuery searchQuery = analyzeQuery;
-        do {
-            final var recordsToAnalyzePart = searchByFilterQuery(searchQuery);
-
-            final var partStats = this.logsAnalyzer.analyze(recordsToAnalyzePart, analyzeQuery);
-            stats = stats == null ? partStats : stats.joinWith(partStats);
-
-            searchQuery = searchQuery.toNextPageQuery();
-            pageNumber = recordsToAnalyzePart.isEmpty() ? -1 : pageNumber + 1;
-        } while (pageNumber != -1);
+        final var stats = new AtomicReference<MapLogsStatistics>();
+        searchAllByFilterQuery(analyzeQuery, records -> {
+            final var partStats = this.logsAnalyzer.analyze(records, analyzeQuery);
+            stats.set(stats.get() == null ? partStats : stats.get().joinWith(partStats));
+        });
 
-        this.logsAnalyzer.applyFinalQueryLimitations(stats, analyzeQuery);
+        final var result = stats.get() == null ? this.logsAnalyzer.analyze(List.of(), analyzeQuery) : stats.get();
+        this.logsAnalyzer.applyFinalQueryLimitations(result, analyzeQuery);
 
         this.logsAnalyzeCounter.increment();
 
-        processStatsSaving(analyzeQuery, stats, this.userAccessor.get().getHash());
-        return stats;
+        processStatsSaving(analyzeQuery, result, this.userAccessor.get().getHash());
+        return result;
     }
 
     @NonNull
@@ -224,20 +385,58 @@ public class StandardLogsService implements LogsService {
         this.statisticsRepository.save(entity);
     }
 
-    private List<LogRecordEntity> searchByFilterQuery(@Nonnull SearchQuery searchQuery) {
+    private void saveUserQuery(final SearchQuery searchQuery) {
+        final var user = this.userAccessor.get();
+        this.taskExecutor.execute(
+                () -> {
+                    try (final var userContext = this.userAccessor.as(user)) {
+                        this.currentUserQueryService.create(searchQuery);
+                    }
+                }
+        );
+    }
+
+    private LogsStorage.StoragePage searchByFilterQuery(@Nonnull SearchQuery searchQuery) {
 
         final var user = this.userAccessor.get();
         (searchQuery.extendedFormat() ? extendedSearchRequestsCounter : simpleSearchRequestsCounter).increment();
 
-        final var postFilters = this.postFiltersSequenceBuilder.build(searchQuery.postFilters());
-
         final var storageQuery = new LogsStorage.StorageQuery(searchQuery, user.getHash());
-        final var logRecords = this.logsStorage.searchByQuery(storageQuery);
+        final var page = this.logsStorage.searchPageByQuery(storageQuery);
 
-        return postFilters
-                .stream()
-                .reduce(Function.<List<LogRecordEntity>> identity(), Function::andThen, (pf1, pf2) -> pf2)
-                .apply(logRecords);
+        // post filters are applied to the page, the position of the next page is the position of the storage
+        final var logRecords = buildPostFilter(searchQuery).apply(page.records());
+        return new LogsStorage.StoragePage(logRecords, page.searchAfter());
+    }
+
+    private void searchAllByFilterQuery(
+            final SearchQuery searchQuery,
+            final Consumer<List<LogRecordEntity>> pageConsumer) {
+
+        final var user = this.userAccessor.get();
+        (searchQuery.extendedFormat() ? extendedSearchRequestsCounter : simpleSearchRequestsCounter).increment();
+
+        final var postFilter = buildPostFilter(searchQuery);
+        final var pageSize = searchQuery.pageSize() == 0 || searchQuery.pageSize() > this.maxResultsDefault ? this.maxResultsDefault : searchQuery.pageSize();
+
+        // all the records are read by the single walk over the storage, post filters are applied to the pages of the walk
+        try (final var records = this.logsStorage.streamByQuery(new LogsStorage.StorageQuery(searchQuery, user.getHash()))) {
+            final var iterator = records.iterator();
+            final List<LogRecordEntity> page = new ArrayList<>(pageSize);
+            while (iterator.hasNext()) {
+                page.add(iterator.next());
+                if (page.size() == pageSize || !iterator.hasNext()) {
+                    pageConsumer.accept(postFilter.apply(new ArrayList<>(page)));
+                    page.clear();
+                }
+            }
+        }
+    }
+
+    private Function<List<LogRecordEntity>, List<LogRecordEntity>> buildPostFilter(final SearchQuery searchQuery) {
+        return this.postFiltersSequenceBuilder.build(searchQuery.postFilters())
+                                                .stream()
+                                                .reduce(Function.<List<LogRecordEntity>> identity(), Function::andThen, (pf1, pf2) -> pf2);
     }
 
     private Counter createMeterCounter(
@@ -253,30 +452,319 @@ public class StandardLogsService implements LogsService {
         return builder.register(this.meterRegistry);
     }
 
-    private void processLogFile(final UserEntity user, final String indexingKey, final LogRecordFormat recordFormat, final File file) {
+    private CompletableFuture<String> executeIndexing(
+            final UserEntity user,
+            final String indexingKey,
+            final IndexingJob job,
+            final Function<Runnable, CompletableFuture<Void>> executor,
+            final Runnable indexing) {
+        final Runnable run = job == null ? indexing : () -> runAttempts(user, job, indexing);
+        return executor.apply(() -> {
+                                    awaitStoredRecords();
+                                    run.run();
+                                })
+                                .thenApply(v -> indexingKey)
+                                .whenComplete((result, ex) -> cleanupIndexing(user, indexingKey, job, ex != null));
+    }
+
+    /**
+     * The deduplication checks the records stored by other indexings in the storage, so they have to be searchable.
+     * The storage is awaited once per indexing instead of every package, records of the concurrent indexings become
+     * searchable by the background reopening of the storage.
+     */
+    private void awaitStoredRecords() {
+        if (this.deduplicationEnabled) {
+            this.logsStorage.awaitSearchable();
+        }
+    }
+
+    /**
+     * Runs the attempts of the job until one of them is completed or the job can't be resumed anymore,
+     * each attempt after the failed one resumes the job from the checkpoints after the backoff delay.
+     * Only transient failures are retried, the rest fail the same way on every attempt.
+     */
+    private void runAttempts(final UserEntity user, final IndexingJob job, final Runnable firstAttempt) {
+        var attempt = firstAttempt;
+        while (true) {
+            job.onAttemptStarted();
+            try {
+                attempt.run();
+                return;
+            } catch (RuntimeException ex) {
+                if (!isTransientFailure(ex) || !this.indexingJobs.isResumable(job)) {
+                    throw ex;
+                }
+
+                final var delay = this.indexingJobs.retryDelay(job);
+                log.warn("Indexing job " + job.indexingKey() + " failed, it will be resumed in " + delay.toSeconds() + " seconds", ex);
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    ex.addSuppressed(e);
+                    throw ex;
+                }
+            }
+
+            // the job is continued from the checkpoints instead of indexing the whole log again
+            attempt = () -> resumeIndexing(user, job);
+        }
+    }
+
+    /**
+     * Failures of I/O and of the storage may pass by the next attempt, unlike the limits of archives, unsupported charsets
+     * or operations and the corrupted source, which is read from the same file by every attempt.
+     */
+    private static boolean isTransientFailure(final Throwable failure) {
+        for (var cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ArchiveLimitExceededException
+                    || cause instanceof UnsupportedOperationException
+                    || cause instanceof IllegalArgumentException
+                    || cause instanceof CharacterCodingException
+                    || cause instanceof ZipException
+                    || cause instanceof EOFException) {
+                return false;
+            } else if (cause instanceof IOException
+                    || cause instanceof TransientDataAccessException
+                    || cause instanceof DataAccessResourceFailureException) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void resumeIndexing(final UserEntity user, final IndexingJob job) {
+        processLogFile(user, job.indexingKey(), job.recordFormat(), job.logName(), job.source().toFile(), job);
+        completeIndexing(user, job.indexingKey());
+    }
+
+    private void cleanupIndexing(final UserEntity user, final String indexingKey, final IndexingJob job, final boolean failed) {
+        if (job != null && job.leaseLost()) {
+            // the job is run by another instance now, so its records and its state are left to it
+            log.warn("Indexing job {} is stopped, it was claimed by another instance", indexingKey);
+            return;
+        }
+
+        if (failed) {
+            final var userIndexingKey = this.logKeysFactory.createUserIndexingKey(user.getHash(), indexingKey);
+            this.logsStorage.deleteAllByIdRegex(userIndexingKey);
+        }
+
+        if (job != null) {
+            this.indexingJobs.delete(job);
+        }
+    }
+
+    private void processLogFile(
+            final UserEntity user,
+            final String indexingKey,
+            final LogRecordFormat recordFormat,
+            final String logName,
+            final File logFile,
+            final IndexingJob job) {
+        if (this.zipUtil.isArchive(logFile)) {
+            this.zipUtil.forEachEntry(
+                    logFile,
+                    this.archiveFilesParallelism,
+                    createArchiveEntriesFilter(recordFormat),
+                    (entryPath, entryStream) -> processArchiveEntry(user, indexingKey, recordFormat, entryPath, entryStream, job)
+            );
+        } else if (job == null) {
+            processLogFile(user, indexingKey, recordFormat, logName, logFile);
+        } else {
+            try (final var stream = new BufferedInputStream(Files.newInputStream(logFile.toPath()))) {
+                processLogStream(user, indexingKey, recordFormat, logName, stream, job);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private void processArchiveEntry(
+            final UserEntity user,
+            final String indexingKey,
+            final LogRecordFormat recordFormat,
+            final String entryPath,
+            final InputStream entryStream,
+            final IndexingJob job) {
+        // the entry is parsed directly from the archive data without extracting it to disk,
+        // its progress and the keys of its records use the whole path, so files with the same name in different directories don't clash
+        processLogStream(user, indexingKey, recordFormat, entryPath, new BufferedInputStream(entryStream), job);
+    }
+
+    private ArchiveEntriesFilter createArchiveEntriesFilter(final LogRecordFormat recordFormat) {
+        return recordFormat == null
+                ? ArchiveEntriesFilter.of(null, null, this.archiveDefaultExcludes)
+                : ArchiveEntriesFilter.of(recordFormat.includeFiles(), recordFormat.excludeFiles(), this.archiveDefaultExcludes);
+    }
+
+    private void completeIndexing(final UserEntity user, final String indexingKey) {
+        try (final var userContext = this.userAccessor.as(user)) {
+            this.logsStorage.flush();
+            // records of the indexing are analyzed and may be searched by the user right after its completion
+            this.logsStorage.awaitSearchable();
+
+            final var analyzeQuery = new AnalyzeQueryOnIndexWrapper(
+                    indexingKey,
+                    this.logKeysFactory.createUserIndexingKey(user.getHash(), indexingKey)
+            );
+            analyze(analyzeQuery);
+        }
+    }
+
+    private void processLogFile(final UserEntity user, final String indexingKey, final LogRecordFormat recordFormat, final String logName, final File file) {
+        final var detectedFormat = this.recordFormatDetector.detect(user, recordFormat, file);
+        processLogRecords(user, indexingKey, logName, null, fileKey -> this.parser.parse(fileKey, file, detectedFormat));
+    }
+
+    private void processLogStream(
+            final UserEntity user,
+            final String indexingKey,
+            final LogRecordFormat recordFormat,
+            final String logName,
+            final InputStream stream,
+            final IndexingJob job) {
+        final var progress = job == null ? null : job.progress(logName);
+        if (progress != null && progress.completed()) {
+            return;
+        }
+
+        final var detectedFormat = this.recordFormatDetector.detect(user, recordFormat, stream);
+        final var position = progress == null ? 0 : progress.offset();
+        if (position == 0) {
+            processLogRecords(user, indexingKey, logName, progress, fileKey -> this.parser.parse(fileKey, stream, detectedFormat));
+        } else {
+            // the checkpoint is the position of the record, which isn't a byte offset of the log transcoded to UTF-8 (like UTF-16)
+            processLogRecords(user, indexingKey, logName, progress, fileKey -> this.parser.parseFrom(fileKey, stream, position, detectedFormat));
+        }
+    }
+
+    private IndexedLogTail processAppendableLog(
+            final UserEntity user,
+            final String indexingKey,
+            final InputStream logStream,
+            final String logName,
+            final long logPosition,
+            final LogRecordFormat recordFormat) {
+        final var lastRecordTracking = new AtomicReference<LastRecordTrackingIterator>();
+        try (final var stream = new BufferedInputStream(logStream)) {
+            final var detectedFormat = this.recordFormatDetector.detect(user, recordFormat, stream);
+            processLogRecords(
+                    user,
+                    indexingKey,
+                    logName,
+                    null,
+                    fileKey -> {
+                        lastRecordTracking.set(new LastRecordTrackingIterator(this.parser.parse(fileKey, stream, logPosition, detectedFormat), logPosition));
+                        return lastRecordTracking.get();
+                    }
+            );
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        completeIndexing(user, indexingKey);
+        return lastRecordTracking.get().toLogTail(indexingKey);
+    }
+
+    private void processLogRecords(
+            final UserEntity user,
+            final String indexingKey,
+            final String logName,
+            final IndexingJob.FileProgress progress,
+            final PackageIteratorFactory packageIteratorFactory) {
 
         final var userIndexingKey = this.logKeysFactory.createUserIndexingKey(user.getHash(), indexingKey);
         this.indexedFilesCounter.increment();
 
+        final List<CompletableFuture<Void>> indexingFuture = new ArrayList<>();
         try (final var userContext = this.userAccessor.as(user);
-             final var packageIterator = this.parser.parse(this.logKeysFactory.createIndexedLogFileKey(userIndexingKey, file.getName()), file, recordFormat)) {
+             final var packageIterator = packageIteratorFactory.create(this.logKeysFactory.createIndexedLogFileKey(userIndexingKey, logName))) {
+
+            final var indexingFailure = new AtomicReference<Throwable>();
+            // the indexer blocks while too many packages are in flight, so the records are never accumulated in memory
+            while (indexingFailure.get() == null && packageIterator.hasNext()) {
+                final var recordsPackage = this.deduplicationEnabled
+                        ? this.recordsDeduplicator.removeStored(user.getHash(), userIndexingKey, packageIterator.next())
+                        : packageIterator.next();
+                if (recordsPackage.isEmpty()) {
+                    continue;
+                }
 
-            final List<CompletableFuture<Void>> indexingFuture = new ArrayList<>();
-            while (packageIterator.hasNext()) {
-                final var recordsPackage = packageIterator.next();
-                indexingFuture.add(this.logRecordsIndexer.index(recordsPackage));
+                final var packageIndexing = progress == null
+                        ? this.logRecordsIndexer.index(recordsPackage)
+                        : progress.index(recordsPackage, this.logRecordsIndexer::index);
+                indexingFuture.add(
+                        packageIndexing.whenComplete((v, ex) -> {
+                            if (ex != null) {
+                                indexingFailure.compareAndSet(null, ex);
+                            }
+                        })
+                );
             }
 
             CompletableFuture
                     .allOf(indexingFuture.toArray(new CompletableFuture[0]))
                     .join();
 
-            this.logsStorage.flush();
-
-            final var analyzeQuery = new AnalyzeQueryOnIndexWrapper(indexingKey);
-            analyze(analyzeQuery);
+            if (progress != null) {
+                progress.complete();
+            }
         } catch (IOException e) {
             throw new RuntimeException(e);
+        } finally {
+            // the failed indexing is retried or rolled back only when none of its packages is written anymore
+            CompletableFuture
+                    .allOf(indexingFuture.toArray(new CompletableFuture[0]))
+                    .exceptionally(ex -> null)
+                    .join();
+        }
+    }
+
+    @FunctionalInterface
+    private interface PackageIteratorFactory {
+
+        LogRecordsParser.LogRecordsPackageIterator create(String logFileKey) throws IOException;
+    }
+
+    private class LastRecordTrackingIterator implements LogRecordsParser.LogRecordsPackageIterator {
+
+        private final LogRecordsParser.LogRecordsPackageIterator iterator;
+        private long lastRecordPosition;
+
+        private LastRecordTrackingIterator(final LogRecordsParser.LogRecordsPackageIterator iterator, final long logPosition) {
+            this.iterator = iterator;
+            this.lastRecordPosition = logPosition;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.iterator.hasNext();
+        }
+
+        @Override
+        public Collection<LogRecordEntity> next() {
+            final var records = this.iterator.next();
+            for (final var record : records) {
+                this.lastRecordPosition = Math.max(this.lastRecordPosition, logKeysFactory.getLogRecordPosition(record.getId()));
+            }
+
+            return records;
+        }
+
+        @Override
+        public boolean bytePositions() {
+            return this.iterator.bytePositions();
+        }
+
+        @Override
+        public void close() {
+            this.iterator.close();
+        }
+
+        private IndexedLogTail toLogTail(final String indexingKey) {
+            return new IndexedLogTail(indexingKey, this.lastRecordPosition, bytePositions());
         }
     }
 }
@@ -0,0 +1,73 @@
+package org.analyzer.service.logs.std;
+
+import lombok.NonNull;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Decodes date and time of records with the fixed layouts of the format when possible and remembers
+ * the last decoded date and second, so consecutive records of the same second are decoded
+ * by reading only the fraction digits.
+ */
+@NotThreadSafe
+final class TimestampDecoder {
+
+    private final TimestampFormat dateFormat;
+    private final TimestampFormat timeFormat;
+
+    private String lastDateValue;
+    private LocalDate lastDate;
+
+    private String lastTimeValue;
+    private FixedTimestampLayout lastTimeLayout;
+    private LocalTime lastTime;
+
+    TimestampDecoder(@NonNull final TimestampFormat dateFormat, @NonNull final TimestampFormat timeFormat) {
+        this.dateFormat = dateFormat;
+        this.timeFormat = timeFormat;
+    }
+
+    @Nonnull
+    LocalDate decodeDate(@NonNull final String value) {
+        if (value.equals(this.lastDateValue)) {
+            return this.lastDate;
+        }
+
+        final var layout = this.dateFormat.layoutFor(value.length());
+        final var decoded = layout == null ? null : layout.decodeDate(value);
+        final var result = decoded == null ? LocalDate.from(this.dateFormat.formatter().parse(value)) : decoded;
+
+        this.lastDateValue = value;
+        this.lastDate = result;
+        return result;
+    }
+
+    @Nonnull
+    LocalTime decodeTime(@NonNull final String value) {
+        final var layout = this.timeFormat.layoutFor(value.length());
+        if (layout == null) {
+            return LocalTime.from(this.timeFormat.formatter().parse(value));
+        }
+
+        final var prefixLength = layout.secondPrefixLength();
+        if (layout == this.lastTimeLayout && prefixLength >= 0 && value.regionMatches(0, this.lastTimeValue, 0, prefixLength)) {
+            final var nanos = layout.decodeNanosOfKnownSecond(value, prefixLength);
+            if (nanos >= 0) {
+                return this.lastTime.withNano(nanos);
+            }
+        }
+
+        final var decoded = layout.decodeTime(value);
+        if (decoded == null) {
+            return LocalTime.from(this.timeFormat.formatter().parse(value));
+        }
+
+        this.lastTimeValue = value;
+        this.lastTimeLayout = layout;
+        this.lastTime = decoded;
+        return decoded;
+    }
+}
@@ -0,0 +1,40 @@
+package org.analyzer.service.logs.std;
+
+import lombok.NonNull;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Compiled format of the date or time part of records: fixed layouts for the fast path
+ * and the formatter for the values which do not fit any of them.
+ */
+record TimestampFormat(@Nonnull DateTimeFormatter formatter, @Nonnull List<FixedTimestampLayout> layouts) {
+
+    @Nonnull
+    static TimestampFormat compile(
+            @NonNull final DateTimeFormatter formatter,
+            final boolean forDate,
+            @NonNull final String... patterns) {
+        final var layouts = Arrays.stream(patterns)
+                                .map(pattern -> FixedTimestampLayout.compile(pattern, forDate))
+                                .filter(Objects::nonNull)
+                                .toList();
+        return new TimestampFormat(formatter, layouts);
+    }
+
+    @Nullable
+    FixedTimestampLayout layoutFor(final int valueLength) {
+        for (final var layout : this.layouts) {
+            if (layout.length() == valueLength) {
+                return layout;
+            }
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,86 @@
+package org.analyzer.service.logs.std;
+
+import lombok.NonNull;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Re-encodes data of the source channel into UTF-8, so the logs in charsets with multibyte line separators
+ * (like UTF-16) can be split into lines on raw bytes as well.
+ */
+@NotThreadSafe
+final class Utf8TranscodingByteChannel implements ReadableByteChannel {
+
+    private static final int CHARS_BUFFER_SIZE = 8 * 1024;
+
+    private final ReadableByteChannel source;
+    private final Reader reader;
+    private final CharsetEncoder encoder;
+    private final CharBuffer chars;
+    private final ByteBuffer encoded;
+
+    private boolean eof;
+
+    Utf8TranscodingByteChannel(@NonNull final ReadableByteChannel source, @NonNull final Charset sourceCharset) {
+        this.source = source;
+        this.reader = Channels.newReader(
+                source,
+                sourceCharset
+                        .newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPLACE)
+                        .onUnmappableCharacter(CodingErrorAction.REPLACE),
+                -1
+        );
+        this.encoder = StandardCharsets.UTF_8
+                            .newEncoder()
+                            .onMalformedInput(CodingErrorAction.REPLACE)
+                            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.chars = CharBuffer.allocate(CHARS_BUFFER_SIZE).flip();
+        this.encoded = ByteBuffer.allocate((int) (CHARS_BUFFER_SIZE * this.encoder.maxBytesPerChar())).flip();
+    }
+
+    @Override
+    public int read(final ByteBuffer dst) throws IOException {
+        while (!this.encoded.hasRemaining()) {
+            if (this.eof) {
+                return -1;
+            }
+
+            this.chars.compact();
+            this.eof = this.reader.read(this.chars) < 0;
+            this.chars.flip();
+
+            this.encoded.clear();
+            this.encoder.encode(this.chars, this.encoded, this.eof);
+            if (this.eof) {
+                this.encoder.flush(this.encoded);
+            }
+            this.encoded.flip();
+        }
+
+        final var count = Math.min(dst.remaining(), this.encoded.remaining());
+        dst.put(this.encoded.slice(this.encoded.position(), count));
+        this.encoded.position(this.encoded.position() + count);
+        return count;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return this.source.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.reader.close();
+    }
+}
@@ -9,11 +9,8 @@ import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.concurrent.NotThreadSafe;
-import java.time.LocalDate;
-import java.time.LocalTime;
 import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 @Component(ErrorsAverageIntervalLogsAggregator.NAME)
 @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
@@ -81,20 +78,9 @@ public class ErrorsAverageIntervalLogsAggregator implements LogsAggregator<Doubl
         final var record1 = records.get(0);
         final var record2 = records.get(1);
 
-        final var millis1 = getMillisFromDate(record1.getDate()) + getMillisFromTime(record1.getTime());
-        final var millis2 = getMillisFromDate(record2.getDate()) + getMillisFromTime(record2.getTime());
+        final var millis1 = record1.getTimestamp() == null ? 0 : record1.getTimestamp();
+        final var millis2 = record2.getTimestamp() == null ? 0 : record2.getTimestamp();
 
         return millis2 - millis1;
     }
-
-    private long getMillisFromDate(final LocalDate date) {
-        return date == null ? 0 : TimeUnit.MILLISECONDS.convert(date.toEpochDay(), TimeUnit.DAYS);
-    }
-
-    private long getMillisFromTime(final LocalTime time) {
-        return time == null
-                ? 0
-                : TimeUnit.MILLISECONDS.convert(time.toSecondOfDay(), TimeUnit.SECONDS)
-                + TimeUnit.MILLISECONDS.convert(time.getNano(), TimeUnit.NANOSECONDS);
-    }
 }
@@ -8,8 +8,6 @@ import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.concurrent.NotThreadSafe;
-import java.time.LocalDate;
-import java.time.LocalTime;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
@@ -78,23 +76,12 @@ public class TimestampGapPostFilter implements PostFilter {
         final var record1 = elements.get(0);
         final var record2 = elements.get(1);
 
-        final var millis1 = getMillisFromDate(record1.getDate()) + getMillisFromTime(record1.getTime());
-        final var millis2 = getMillisFromDate(record2.getDate()) + getMillisFromTime(record2.getTime());
+        final var millis1 = record1.getTimestamp() == null ? 0 : record1.getTimestamp();
+        final var millis2 = record2.getTimestamp() == null ? 0 : record2.getTimestamp();
 
         final var diffMillis = millis2 - millis1;
 
         final var skip = this.predicateOperation.compute(diffMillis, this.gapInMillis);
         return skip ? List.of() : elements;
     }
-
-    private long getMillisFromDate(final LocalDate date) {
-        return date == null ? 0 : TimeUnit.MILLISECONDS.convert(date.toEpochDay(), TimeUnit.DAYS);
-    }
-
-    private long getMillisFromTime(final LocalTime time) {
-        return time == null
-                ? 0
-                : TimeUnit.MILLISECONDS.convert(time.toSecondOfDay(), TimeUnit.SECONDS)
-                  + TimeUnit.MILLISECONDS.convert(time.getNano(), TimeUnit.NANOSECONDS);
-    }
 }
@@ -0,0 +1,331 @@
+package org.analyzer.service.scheduled;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.analyzer.dao.FileLogCheckpointRepository;
+import org.analyzer.entities.FileLogCheckpointEntity;
+import org.analyzer.entities.ScheduledIndexingSettings;
+import org.analyzer.entities.UserEntity;
+import org.analyzer.service.logs.LogsService;
+import org.analyzer.service.users.CurrentUserAccessor;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.context.annotation.Scope;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32C;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Follows the log files of the directory and indexes the records appended to them. The position up to which each file
+ * is indexed is saved with the file key (inode), so after a rotation by renaming the rest of the previous file is indexed
+ * too and the new file is indexed from the beginning with a new indexing key, as well as a truncated file.
+ * Truncation is detected by the size of the file and by the checksum of its first bytes.
+ * The appended data is indexed from the start of the last indexed record, because the record may be continued by it.
+ */
+@Component
+@Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
+@Setter
+@Slf4j
+public class FileSystemDataIndexer implements Runnable {
+
+    private static final String DEFAULT_FILE_PATTERN = "*.log";
+    private static final int LINE_END_SEARCH_BLOCK_SIZE = 8 * 1024;
+    private static final int HEAD_SIZE = 1024;
+
+    @Autowired
+    private LogsService logsService;
+    @Autowired
+    private CurrentUserAccessor userAccessor;
+    @Autowired
+    private FileLogCheckpointRepository checkpointRepository;
+    @Value("${logs.analyzer.file-system-indexing.poll-interval-ms:5000}")
+    private long pollInterval;
+    @Value("${logs.analyzer.file-system-indexing.allowed-directories:}")
+    private List<String> allowedDirectories;
+
+    private UserEntity user;
+    private ScheduledIndexingSettings indexingSettings;
+
+    private Path directory;
+    private PathMatcher fileMatcher;
+    private Map<Path, FileLogCheckpointEntity> checkpoints;
+
+    @Override
+    @Timed(
+            value = "file-system-data-indexing",
+            longTask = true,
+            extraTags = { "description", "File system data following task"}
+    )
+    public void run() {
+        final var fileSystemSettings = this.indexingSettings.getFileSystemSettings();
+        try {
+            this.directory = Path.of(fileSystemSettings.getDirectory()).toRealPath();
+        } catch (IOException e) {
+            log.error("Directory of settings " + this.indexingSettings.getSettingsId() + " isn't available", e);
+            return;
+        }
+
+        if (!isAllowedDirectory(this.directory)) {
+            log.warn("Directory {} of settings {} isn't allowed to be followed", this.directory, this.indexingSettings.getSettingsId());
+            return;
+        }
+
+        final var filePattern = StringUtils.hasLength(fileSystemSettings.getFilePattern()) ? fileSystemSettings.getFilePattern() : DEFAULT_FILE_PATTERN;
+        this.fileMatcher = this.directory.getFileSystem().getPathMatcher("glob:" + filePattern);
+        this.checkpoints = this.checkpointRepository.findAllBySettingsId(this.indexingSettings.getSettingsId())
+                                                    .stream()
+                                                    .collect(Collectors.toMap(checkpoint -> Path.of(checkpoint.getPath()), checkpoint -> checkpoint));
+
+        try (final var watchService = this.directory.getFileSystem().newWatchService()) {
+            this.directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+            checkAllFiles();
+
+            // files are checked periodically too, because events may be lost or not supported by the file system
+            while (!Thread.currentThread().isInterrupted()) {
+                final var watchKey = watchService.poll(this.pollInterval, TimeUnit.MILLISECONDS);
+                if (watchKey == null) {
+                    checkAllFiles();
+                    continue;
+                }
+
+                final Set<Path> changedFiles = new LinkedHashSet<>();
+                var overflow = false;
+                for (final var event : watchKey.pollEvents()) {
+                    if (event.kind() == OVERFLOW) {
+                        overflow = true;
+                    } else if (event.context() instanceof Path fileName && isFollowedFile(fileName)) {
+                        changedFiles.add(this.directory.resolve(fileName));
+                    }
+                }
+
+                if (!watchKey.reset()) {
+                    log.warn("Directory {} of settings {} isn't available anymore", this.directory, this.indexingSettings.getSettingsId());
+                    return;
+                }
+
+                if (overflow) {
+                    checkAllFiles();
+                } else {
+                    for (final var file : changedFiles) {
+                        checkFile(file);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException ignored) {
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        log.debug("Following of directory {} by settings {} stopped", this.directory, this.indexingSettings.getSettingsId());
+    }
+
+    private void checkAllFiles() throws IOException {
+        final List<Path> files;
+        try (final var filesStream = Files.list(this.directory)) {
+            files = filesStream.filter(file -> isFollowedFile(file.getFileName())).toList();
+        }
+
+        for (final var file : files) {
+            checkFile(file);
+        }
+
+        for (final var checkpointPath : List.copyOf(this.checkpoints.keySet())) {
+            if (!files.contains(checkpointPath)) {
+                checkFile(checkpointPath);
+            }
+        }
+    }
+
+    private void checkFile(final Path file) {
+        try {
+            var checkpoint = this.checkpoints.get(file);
+            if (!Files.isRegularFile(file)) {
+                if (checkpoint != null) {
+                    indexRotatedFile(checkpoint);
+                    this.checkpoints.remove(file);
+                    this.checkpointRepository.delete(checkpoint);
+                }
+
+                return;
+            }
+
+            final var fileKey = getFileKey(file);
+            if (checkpoint != null && !checkpoint.getFileKey().equals(fileKey)) {
+                indexRotatedFile(checkpoint);
+                checkpoint = null;
+            }
+
+            if (checkpoint == null) {
+                checkpoint = new FileLogCheckpointEntity()
+                                    .setId(this.indexingSettings.getSettingsId() + "#" + file)
+                                    .setSettingsId(this.indexingSettings.getSettingsId())
+                                    .setUserKey(this.user.getHash())
+                                    .setPath(file.toString())
+                                    .setFileKey(fileKey);
+                this.checkpoints.put(file, checkpoint);
+            } else if (Files.size(file) < checkpoint.getOffset() || !hasSameHead(file, checkpoint)) {
+                log.info("File {} was truncated, so it is indexed from the beginning", file);
+                checkpoint.setOffset(0)
+                            .setLastRecordOffset(0)
+                            .setAppendUnsupported(false)
+                            .setHeadChecksum(0)
+                            .setHeadLength(0)
+                            .setIndexingKey(null);
+            }
+
+            indexAppendedData(file, checkpoint, false);
+        } catch (IOException | RuntimeException e) {
+            // the position isn't moved, so the data is indexed again on the next check of the file
+            log.error("Failed to index file " + file, e);
+        }
+    }
+
+    private void indexRotatedFile(final FileLogCheckpointEntity checkpoint) throws IOException {
+        // the renamed file isn't written anymore, so all the rest of it is indexed
+        final Optional<Path> rotatedFile;
+        try (final var filesStream = Files.list(this.directory)) {
+            rotatedFile = filesStream.filter(file -> checkpoint.getFileKey().equals(getFileKey(file))).findAny();
+        }
+
+        if (rotatedFile.isPresent()) {
+            log.debug("File {} was rotated to {}", checkpoint.getPath(), rotatedFile.get());
+            indexAppendedData(rotatedFile.get(), checkpoint, true);
+        }
+    }
+
+    private void indexAppendedData(
+            final Path file,
+            final FileLogCheckpointEntity checkpoint,
+            final boolean completed) throws IOException {
+        try (final var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final var offset = checkpoint.getOffset();
+            final var end = completed ? channel.size() : findLastLineEnd(channel, offset, channel.size());
+            if (end <= offset || checkpoint.isAppendUnsupported()) {
+                return;
+            }
+
+            // the name of the followed file is kept for the rotated one, so keys of the records don't depend on rotations
+            final var logName = Path.of(checkpoint.getPath()).getFileName().toString();
+            final var headLength = Math.min(end, HEAD_SIZE);
+            // the stream of the indexed data closes the channel
+            final var headChecksum = headLength == checkpoint.getHeadLength() ? checkpoint.getHeadChecksum() : computeChecksum(channel, headLength);
+            final var lastRecordOffset = checkpoint.getLastRecordOffset();
+            final var logStream = new BoundedInputStream(Channels.newInputStream(channel.position(lastRecordOffset)), end - lastRecordOffset);
+            final var recordFormat = new ScheduledLogRecordFormat(this.indexingSettings);
+            try (final var userContext = this.userAccessor.as(this.user)) {
+                final var indexing = checkpoint.getIndexingKey() == null
+                        ? this.logsService.indexAppendable(logStream, logName, recordFormat)
+                        : this.logsService.append(new LogsService.IndexedLogTail(checkpoint.getIndexingKey(), lastRecordOffset, true), logStream, logName, recordFormat);
+                // the indexing is awaited even if the following is stopped, otherwise its range would be indexed again
+                final var logTail = indexing.join();
+
+                if (!logTail.appendable()) {
+                    log.warn("Charset of file {} isn't compatible with ASCII, so the data appended to it isn't indexed", file);
+                }
+
+                checkpoint.setHeadChecksum(headChecksum)
+                            .setHeadLength(headLength)
+                            .setIndexingKey(logTail.indexingKey())
+                            .setOffset(end)
+                            .setLastRecordOffset(logTail.lastRecordPosition())
+                            .setAppendUnsupported(!logTail.appendable())
+                            .setLastIndexed(LocalDateTime.now());
+                this.checkpointRepository.save(checkpoint);
+            }
+        }
+    }
+
+    private long findLastLineEnd(final FileChannel channel, final long from, final long to) throws IOException {
+        // the last line may be still being written, so only the complete lines are indexed
+        final var buffer = ByteBuffer.allocate(LINE_END_SEARCH_BLOCK_SIZE);
+        var blockEnd = to;
+        while (blockEnd > from) {
+            final var blockStart = Math.max(from, blockEnd - LINE_END_SEARCH_BLOCK_SIZE);
+            buffer.clear().limit((int) (blockEnd - blockStart));
+            while (buffer.hasRemaining() && channel.read(buffer, blockStart + buffer.position()) >= 0);
+
+            for (int i = buffer.position() - 1; i >= 0; i--) {
+                if (buffer.get(i) == '\n') {
+                    return blockStart + i + 1;
+                }
+            }
+
+            blockEnd = blockStart;
+        }
+
+        return from;
+    }
+
+    private boolean hasSameHead(final Path file, final FileLogCheckpointEntity checkpoint) throws IOException {
+        if (checkpoint.getHeadLength() == 0) {
+            return true;
+        }
+
+        try (final var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.size() >= checkpoint.getHeadLength()
+                    && computeChecksum(channel, checkpoint.getHeadLength()) == checkpoint.getHeadChecksum();
+        }
+    }
+
+    private long computeChecksum(final FileChannel channel, final long length) throws IOException {
+        final var buffer = ByteBuffer.allocate((int) length);
+        while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) >= 0);
+
+        final var checksum = new CRC32C();
+        checksum.update(buffer.flip());
+        return checksum.getValue();
+    }
+
+    private boolean isFollowedFile(final Path fileName) {
+        return this.fileMatcher.matches(fileName);
+    }
+
+    private boolean isAllowedDirectory(final Path directory) {
+        // the followed directory is resolved to its real path, so the allowed ones are resolved too
+        return this.allowedDirectories
+                    .stream()
+                    .filter(StringUtils::hasLength)
+                    .map(FileSystemDataIndexer::toRealPath)
+                    .flatMap(Optional::stream)
+                    .anyMatch(directory::startsWith);
+    }
+
+    private static Optional<Path> toRealPath(final String directory) {
+        try {
+            return Optional.of(Path.of(directory).toRealPath());
+        } catch (IOException | InvalidPathException e) {
+            log.debug("Allowed directory {} isn't available", directory);
+            return Optional.empty();
+        }
+    }
+
+    private static String getFileKey(final Path file) {
+        try {
+            final var attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            // file systems without inodes don't have file keys, the creation time is the best identity of the file there
+            return attributes.fileKey() == null
+                    ? attributes.creationTime().toString()
+                    : attributes.fileKey().toString();
+        } catch (IOException e) {
+            return "";
+        }
+    }
+}
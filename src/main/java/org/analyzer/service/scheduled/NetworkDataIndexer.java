@@ -1,34 +1,33 @@
 package org.analyzer.service.scheduled;
 
 import io.micrometer.core.annotation.Timed;
-import lombok.NonNull;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
-import org.analyzer.entities.LogsStatisticsEntity;
-import org.analyzer.entities.NotificationSettings;
-import org.analyzer.entities.ScheduledIndexingSettings;
-import org.analyzer.entities.UserEntity;
+import org.analyzer.dao.RemoteLogStateRepository;
+import org.analyzer.entities.*;
+import org.analyzer.service.scheduled.StreamingResponseBodyHandler.StreamedResponse;
 import org.analyzer.service.users.CurrentUserAccessor;
 import org.analyzer.service.logs.LogRecordFormat;
 import org.analyzer.service.logs.LogsService;
 import org.analyzer.service.util.JsonConverter;
-import org.apache.commons.io.FileUtils;
-import org.asynchttpclient.AsyncCompletionHandlerBase;
+import org.analyzer.service.util.UnzipperUtil;
+import org.apache.commons.io.IOUtils;
 import org.asynchttpclient.AsyncHttpClient;
-import org.asynchttpclient.Response;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
-import java.io.File;
-import java.io.IOException;
-import java.io.InputStream;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.util.UUID;
+import java.io.*;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 @Component
 @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
@@ -36,7 +35,7 @@ import java.util.concurrent.TimeUnit;
 @Slf4j
 public class NetworkDataIndexer implements Runnable {
 
-    private static final int REQUEST_TIMEOUT = 2 * 60_000;
+    private static final int LOG_TAIL_SIZE = 256;
 
     @Autowired
     private LogsService logsService;
@@ -50,8 +49,18 @@ public class NetworkDataIndexer implements Runnable {
     private DataIndexingTelegramNotifier telegramNotifier;
     @Autowired
     private DataIndexingMailNotifier mailNotifier;
-    @Value("${logs.analyzer.indexing-timeout.seconds:60}")
-    private long indexingTimeout;
+    @Autowired
+    private RemoteLogStateRepository logStateRepository;
+    @Autowired
+    private UnzipperUtil zipUtil;
+    @Value("${logs.analyzer.network-indexing.download-timeout-seconds:3600}")
+    private long downloadTimeout;
+    @Value("${logs.analyzer.network-indexing.read-timeout-seconds:120}")
+    private long readTimeout;
+    @Value("${logs.analyzer.network-indexing.max-buffered-parts:64}")
+    private int maxBufferedParts;
+    @Value("${logs.analyzer.parsing.max-record-size-kb:1024}")
+    private int maxRecordSizeKb;
 
     private UserEntity user;
     private ScheduledIndexingSettings indexingSettings;
@@ -64,48 +73,213 @@ public class NetworkDataIndexer implements Runnable {
             extraTags = { "description", "Network data indexing task"}
     )
     public void run() {
+        final var logState = findLogState();
+        processResponse(logState, download(logState));
+    }
+
+    private StreamedResponse download(final RemoteLogStateEntity logState) {
 
         final var url = indexingSettings.getNetworkSettings().getLogsUrl();
         final var authToken = indexingSettings.getNetworkSettings().getAuthToken();
 
-        this.asyncHttpClient
-                .prepareGet(url)
-                .addHeader("Authorization", authToken)
-                .setRequestTimeout(REQUEST_TIMEOUT)
-                .execute(new AsyncCompletionHandlerBase() {
-                    @Override
-                    public void onThrowable(Throwable t) {
-                        log.error("", t);
-                    }
-
-                    @Override
-                    public Response onCompleted(Response response) throws Exception {
-                        log.debug("Request completed with response status {}", response.getStatusCode());
-                        return super.onCompleted(response);
-                    }
-                })
-                .toCompletableFuture()
-                .thenApply(Response::getResponseBodyAsStream)
-                .thenAccept(this::processDownloadedData)
-                .join();
+        // the body is indexed while it is downloaded, so the download of a large log may take long,
+        // while the stalled one is failed by the read timeout
+        final var request = this.asyncHttpClient
+                                    .prepareGet(url)
+                                    .addHeader("Authorization", authToken)
+                                    .setRequestTimeout((int) TimeUnit.SECONDS.toMillis(this.downloadTimeout))
+                                    .setReadTimeout((int) TimeUnit.SECONDS.toMillis(this.readTimeout));
+        if (logState != null) {
+            if (logState.getEtag() != null) {
+                request.addHeader(HttpHeaderNames.IF_NONE_MATCH, logState.getEtag());
+            }
+
+            if (logState.getLastModified() != null) {
+                request.addHeader(HttpHeaderNames.IF_MODIFIED_SINCE, logState.getLastModified());
+            }
+
+            // the log is requested again from its last indexed record, which may be continued by the appended lines,
+            // and at least with the tail of the indexed part to check that the log is only appended since the last run
+            if (logState.isRangesSupported()) {
+                request.addHeader(HttpHeaderNames.RANGE, "bytes=" + rangeStart(logState) + "-");
+            }
+        }
+
+        final var bodyHandler = new StreamingResponseBodyHandler(this.maxBufferedParts);
+        request.execute(bodyHandler);
+
+        // the body must be read out of the IO threads of the client, otherwise the download can't proceed
+        return bodyHandler.response().join();
+    }
+
+    private void processResponse(final RemoteLogStateEntity logState, final StreamedResponse response) {
+        final var statusCode = response.statusCode();
+        if (logState != null && statusCode == HttpResponseStatus.NOT_MODIFIED.code()) {
+            IOUtils.closeQuietly(response.body());
+            log.debug("Logs by settings {} not modified", this.indexingSettings.getSettingsId());
+        } else if (logState != null && statusCode == HttpResponseStatus.PARTIAL_CONTENT.code()) {
+            processAppendedData(logState, response);
+        } else if (logState != null && statusCode == HttpResponseStatus.REQUESTED_RANGE_NOT_SATISFIABLE.code()) {
+            IOUtils.closeQuietly(response.body());
+            indexWholeLog();
+        } else if (statusCode < 200 || statusCode >= 300) {
+            IOUtils.closeQuietly(response.body());
+            onError(new IllegalStateException("Unexpected response status: " + statusCode));
+        } else {
+            processDownloadedData(response);
+        }
+    }
+
+    private void processDownloadedData(final StreamedResponse response) {
+        final var logData = new TailTrackingInputStream(response.body(), LOG_TAIL_SIZE);
+        final var bufferedLogData = new BufferedInputStream(logData);
+        final var archive = this.zipUtil.isArchive(bufferedLogData);
+
+        indexData(
+                bufferedLogData,
+                logStream -> archive
+                        ? this.logsService.index(logStream, this.indexingSettings.getSettingsId(), createLogRecordFormat())
+                                            .thenApply(indexingKey -> new LogsService.IndexedLogTail(indexingKey, 0, false))
+                        : this.logsService.indexAppendable(logStream, this.indexingSettings.getSettingsId(), createLogRecordFormat())
+        ).ifPresent(logTail -> {
+            // ranges of archives, encoded data and logs in charsets incompatible with ASCII can't be indexed separately
+            final var rangesSupported = logTail.appendable()
+                    && "bytes".equalsIgnoreCase(response.headers().get(HttpHeaderNames.ACCEPT_RANGES))
+                    && !response.headers().contains(HttpHeaderNames.CONTENT_ENCODING);
+            final var logState = new RemoteLogStateEntity()
+                                        .setId(this.indexingSettings.getSettingsId())
+                                        .setUserKey(this.user.getHash())
+                                        .setLogsUrl(this.indexingSettings.getNetworkSettings().getLogsUrl())
+                                        .setIndexingKey(logTail.indexingKey())
+                                        .setLastRecordPosition(logTail.lastRecordPosition())
+                                        .setLength(logData.count())
+                                        .setTail(logData.tail(new byte[0]))
+                                        .setRangesSupported(rangesSupported);
+            saveLogState(logState, response);
+        });
     }
 
-    private void processDownloadedData(final InputStream is) {
-        final var dataFile = createTempFile();
-        try (final var userContext = this.userAccessor.as(this.user)) {
-            FileUtils.copyInputStreamToFile(is, dataFile);
-            final var indexingProcess = this.logsService.index(dataFile, createLogRecordFormat());
-
-            indexingProcess.thenAccept(
-                    indexingKey ->
-                            this.logsService.findStatisticsByKey(indexingKey)
-                                            .ifPresent(this::onComplete)
-            ).get(this.indexingTimeout, TimeUnit.SECONDS);
+    private void processAppendedData(final RemoteLogStateEntity logState, final StreamedResponse response) {
+        final var contentRange = response.headers().get(HttpHeaderNames.CONTENT_RANGE);
+        final var logData = new PushbackInputStream(response.body());
+        final byte[] lastRecordData;
+        final int firstAppendedByte;
+        try {
+            lastRecordData = readLastRecordData(logState, contentRange, logData);
+            if (lastRecordData == null) {
+                IOUtils.closeQuietly(logData);
+                indexWholeLog();
+                return;
+            }
+
+            firstAppendedByte = logData.read();
+        } catch (IOException | RuntimeException e) {
+            IOUtils.closeQuietly(logData);
+            onError(e);
+            return;
+        }
+
+        if (firstAppendedByte < 0) {
+            log.debug("Logs by settings {} have no appended data", this.indexingSettings.getSettingsId());
+            IOUtils.closeQuietly(logData);
+            saveLogState(logState, response);
+            return;
+        }
+
+        final var appendedData = new TailTrackingInputStream(logData, LOG_TAIL_SIZE);
+        try {
+            logData.unread(firstAppendedByte);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        final var indexedTail = new LogsService.IndexedLogTail(logState.getIndexingKey(), logState.getLastRecordPosition(), true);
+        indexData(
+                new SequenceInputStream(new ByteArrayInputStream(lastRecordData), appendedData),
+                logStream -> this.logsService.append(indexedTail, logStream, this.indexingSettings.getSettingsId(), createLogRecordFormat())
+        ).ifPresent(logTail -> {
+            logState.setTail(appendedData.tail(logState.getTail()))
+                    .setLength(logState.getLength() + appendedData.count())
+                    .setLastRecordPosition(logTail.lastRecordPosition());
+            saveLogState(logState, response);
+        });
+    }
+
+    /**
+     * Reads the already indexed data of the part from the start of the last indexed record. The part must continue
+     * the indexed data, otherwise the log was replaced by another one since the last run and {@code null} is returned.
+     */
+    private byte[] readLastRecordData(final RemoteLogStateEntity logState, final String contentRange, final InputStream logData) throws IOException {
+        final var rangeStart = rangeStart(logState);
+        if (contentRange == null || !contentRange.startsWith("bytes " + rangeStart + "-")) {
+            return null;
+        }
+
+        // the part is read into memory, so its length is bounded by the size of the record with the tail of the log
+        final var maxIndexedLength = this.maxRecordSizeKb <= 0 ? Integer.MAX_VALUE - 8 : this.maxRecordSizeKb * 1024L + LOG_TAIL_SIZE;
+        final var partLength = logState.getLength() - rangeStart;
+        if (rangeStart < 0 || logState.getLastRecordPosition() > logState.getLength() || partLength > maxIndexedLength) {
+            throw new IllegalStateException(
+                    "Last record of logs by settings " + this.indexingSettings.getSettingsId()
+                            + " can't be read again: position " + logState.getLastRecordPosition() + ", logs length " + logState.getLength()
+                            + ", max length " + maxIndexedLength
+            );
+        }
+
+        final var indexedLength = (int) partLength;
+        final var indexedData = logData.readNBytes(indexedLength);
+        final var tail = logState.getTail();
+        if (indexedData.length != indexedLength
+                || !Arrays.equals(indexedData, indexedLength - tail.length, indexedLength, tail, 0, tail.length)) {
+            return null;
+        }
+
+        return Arrays.copyOfRange(indexedData, (int) (logState.getLastRecordPosition() - rangeStart), indexedLength);
+    }
+
+    private void indexWholeLog() {
+        log.info("Logs by settings {} were replaced, so they are indexed entirely", this.indexingSettings.getSettingsId());
+        this.logStateRepository.deleteById(this.indexingSettings.getSettingsId());
+        processResponse(null, download(null));
+    }
+
+    private Optional<LogsService.IndexedLogTail> indexData(
+            final InputStream logData,
+            final Function<InputStream, CompletableFuture<LogsService.IndexedLogTail>> indexing) {
+        // the indexing is awaited until it completes, because it consumes the body which is closed then;
+        // it can't last longer than the download, which is limited by its timeouts
+        try (logData; final var userContext = this.userAccessor.as(this.user)) {
+            final var logTail = indexing.apply(logData).get();
+            this.logsService.findStatisticsByKey(logTail.indexingKey())
+                            .ifPresent(this::onComplete);
+            return Optional.of(logTail);
         } catch (Exception e) {
             onError(e);
-        } finally {
-            dataFile.delete();
+            return Optional.empty();
+        }
+    }
+
+    private RemoteLogStateEntity findLogState() {
+        final var logState = this.logStateRepository.findById(this.indexingSettings.getSettingsId()).orElse(null);
+        // the indexed data of the log may be removed by the cleaning task since the last run
+        if (logState == null
+                || !logState.getLogsUrl().equals(this.indexingSettings.getNetworkSettings().getLogsUrl())
+                || this.logsService.findStatisticsByKey(logState.getIndexingKey()).isEmpty()) {
+            return null;
         }
+
+        return logState;
+    }
+
+    private void saveLogState(final RemoteLogStateEntity logState, final StreamedResponse response) {
+        logState.setEtag(response.headers().get(HttpHeaderNames.ETAG))
+                .setLastModified(response.headers().get(HttpHeaderNames.LAST_MODIFIED))
+                .setLastDownloaded(LocalDateTime.now());
+        this.logStateRepository.save(logState);
+    }
+
+    private long rangeStart(final RemoteLogStateEntity logState) {
+        return Math.min(logState.getLastRecordPosition(), logState.getLength() - logState.getTail().length);
     }
 
     private void onComplete(final LogsStatisticsEntity statistics) {
@@ -147,40 +321,7 @@ public class NetworkDataIndexer implements Runnable {
         }
     }
 
-    private File createTempFile() {
-
-        final var uuid = UUID.randomUUID().toString();
-        try {
-            final Path destDirPath = Files.createTempDirectory(uuid);
-            final var destDir = destDirPath.toFile();
-            destDir.deleteOnExit();
-
-            return destDirPath.resolveSibling(uuid).toFile();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-    }
-
     private LogRecordFormat createLogRecordFormat() {
-
-        return new LogRecordFormat() {
-            @NonNull
-            @Override
-            public String pattern() {
-                return indexingSettings.getLogRecordPattern();
-            }
-
-            @NonNull
-            @Override
-            public String timeFormat() {
-                return indexingSettings.getTimeFormat();
-            }
-
-            @NonNull
-            @Override
-            public String dateFormat() {
-                return indexingSettings.getDateFormat();
-            }
-        };
+        return new ScheduledLogRecordFormat(this.indexingSettings);
     }
 }
@@ -4,6 +4,7 @@ import io.micrometer.core.annotation.Timed;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tag;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.analyzer.entities.ScheduledIndexingSettings;
 import org.analyzer.entities.UserEntity;
@@ -22,7 +23,9 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -41,7 +44,13 @@ public class ScheduledDataIndexingTask {
     private MeterRegistry meterRegistry;
 
     private volatile LocalDateTime lastScanInfoTime = LocalDateTime.ofInstant(Instant.EPOCH, ZoneOffset.UTC);
-    private final Map<UserEntity, Map<String, ScheduledFuture<?>>> settingsFuturesByUser = new ConcurrentHashMap<>();
+    private final Map<UserEntity, Map<String, Future<?>>> settingsFuturesByUser = new ConcurrentHashMap<>();
+    // following of directories blocks the thread all the time, so each of them has its own virtual thread
+    private final ExecutorService fileSystemIndexingExecutor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual()
+                    .name("file-system-indexer-", 0)
+                    .factory()
+    );
 
     @PostConstruct
     private void init() {
@@ -56,6 +65,11 @@ public class ScheduledDataIndexingTask {
         );
     }
 
+    @PreDestroy
+    private void destroy() {
+        this.fileSystemIndexingExecutor.shutdownNow();
+    }
+
     @Scheduled(fixedRate = 5, timeUnit = TimeUnit.MINUTES)
     @Timed(
             value = "data-indexing-tasks-manager",
@@ -103,11 +117,17 @@ public class ScheduledDataIndexingTask {
                 .filter(Predicate.not(scheduledSettingsIds::contains))
                 .map(userSettingsByKey::get)
                 .forEach(indexingSettings -> {
-                    final var indexer = createDataIndexer(userEntity, indexingSettings);
-                    final var future = this.taskScheduler.schedule(indexer, composeCronTrigger(indexingSettings));
-                    settingsFutures.put(indexingSettings.getSettingsId(), future);
-
-                    log.debug("Schedule task for user {} by settings = {}", userEntity.getUsername(), indexingSettings.getSettingsId());
+                    // settings stored before their validation may be broken, they must not prevent scheduling of the others
+                    try {
+                        final var future = indexingSettings.getFileSystemSettings() == null
+                                ? this.taskScheduler.schedule(createDataIndexer(userEntity, indexingSettings), composeCronTrigger(indexingSettings))
+                                : this.fileSystemIndexingExecutor.submit(createFileSystemDataIndexer(userEntity, indexingSettings));
+                        settingsFutures.put(indexingSettings.getSettingsId(), future);
+
+                        log.debug("Schedule task for user {} by settings = {}", userEntity.getUsername(), indexingSettings.getSettingsId());
+                    } catch (RuntimeException ex) {
+                        log.error("Task for user " + userEntity.getUsername() + " by settings = " + indexingSettings.getSettingsId() + " can't be scheduled", ex);
+                    }
                 });
 
         this.settingsFuturesByUser.putIfAbsent(userEntity, settingsFutures);
@@ -123,7 +143,20 @@ public class ScheduledDataIndexingTask {
         return indexer;
     }
 
+    private FileSystemDataIndexer createFileSystemDataIndexer(final UserEntity user, final ScheduledIndexingSettings indexingSettings) {
+
+        final var indexer = this.applicationContext.getBean(FileSystemDataIndexer.class);
+        indexer.setUser(user);
+        indexer.setIndexingSettings(indexingSettings);
+
+        return indexer;
+    }
+
     private Trigger composeCronTrigger(final ScheduledIndexingSettings indexingSettings) {
+        if (indexingSettings.getNetworkSettings() == null || indexingSettings.getSchedule() == null) {
+            throw new IllegalStateException("Network settings with schedule are required: " + indexingSettings.getSettingsId());
+        }
+
         return new CronTrigger(indexingSettings.getSchedule());
     }
 }
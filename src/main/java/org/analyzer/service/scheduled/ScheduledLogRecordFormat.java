@@ -0,0 +1,28 @@
+package org.analyzer.service.scheduled;
+
+import lombok.NonNull;
+import org.analyzer.entities.ScheduledIndexingSettings;
+import org.analyzer.service.logs.LogRecordFormat;
+
+record ScheduledLogRecordFormat(@NonNull ScheduledIndexingSettings indexingSettings) implements LogRecordFormat {
+
+    @Override
+    public String pattern() {
+        return this.indexingSettings.getLogRecordPattern();
+    }
+
+    @Override
+    public String timeFormat() {
+        return this.indexingSettings.getTimeFormat();
+    }
+
+    @Override
+    public String dateFormat() {
+        return this.indexingSettings.getDateFormat();
+    }
+
+    @Override
+    public String charset() {
+        return this.indexingSettings.getCharset();
+    }
+}
@@ -0,0 +1,222 @@
+package org.analyzer.service.scheduled;
+
+import io.netty.handler.codec.http.EmptyHttpHeaders;
+import io.netty.handler.codec.http.HttpHeaders;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.asynchttpclient.HttpResponseBodyPart;
+import org.asynchttpclient.HttpResponseStatus;
+import org.asynchttpclient.handler.StreamedAsyncHandler;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Exposes the response with the body as {@link InputStream} as soon as the headers are received.
+ * The status isn't checked, the body of an unexpected response should be just closed, so its download is aborted.
+ * The parts of the body are requested from the connection only when the reader consumed the previous ones,
+ * so at most {@code maxBufferedParts} parts are held in memory and the socket isn't read while the indexing lags behind.
+ * The body closed before its end fails the reads, so the reader never takes the aborted body as the complete one.
+ */
+@Slf4j
+final class StreamingResponseBodyHandler implements StreamedAsyncHandler<Void> {
+
+    private static final ByteBuffer END_OF_BODY = ByteBuffer.allocate(0);
+
+    private final int maxBufferedParts;
+    private final BlockingQueue<Object> parts;
+    private final CompletableFuture<StreamedResponse> response;
+    private volatile int statusCode;
+    private volatile HttpHeaders headers;
+    private volatile Subscription subscription;
+    private volatile boolean streamed;
+
+    StreamingResponseBodyHandler(final int maxBufferedParts) {
+        this.maxBufferedParts = maxBufferedParts;
+        this.parts = new LinkedBlockingQueue<>();
+        this.response = new CompletableFuture<>();
+    }
+
+    /**
+     * Returns the future which is completed with the response when its headers are received.
+     */
+    @NonNull
+    CompletableFuture<StreamedResponse> response() {
+        return this.response;
+    }
+
+    @Override
+    public State onStatusReceived(HttpResponseStatus responseStatus) {
+        log.debug("Response status received {}", responseStatus.getStatusCode());
+        this.statusCode = responseStatus.getStatusCode();
+        return State.CONTINUE;
+    }
+
+    @Override
+    public State onHeadersReceived(HttpHeaders headers) {
+        this.headers = headers;
+        return State.CONTINUE;
+    }
+
+    @Override
+    public State onStream(Publisher<HttpResponseBodyPart> publisher) {
+        this.streamed = true;
+        publisher.subscribe(new BodyPartsSubscriber());
+        completeResponse();
+        return State.CONTINUE;
+    }
+
+    @Override
+    public State onBodyPartReceived(HttpResponseBodyPart bodyPart) {
+        // is called only if the body isn't streamed to the publisher
+        this.parts.add(ByteBuffer.wrap(bodyPart.getBodyPartBytes()));
+        return State.CONTINUE;
+    }
+
+    @Override
+    public void onThrowable(Throwable t) {
+        log.error("", t);
+        this.response.completeExceptionally(t);
+        this.parts.add(t);
+    }
+
+    @Override
+    public Void onCompleted() {
+        // the streamed body is completed by the subscriber, parts may still be buffered by the publisher at this moment
+        if (!this.streamed) {
+            this.parts.add(END_OF_BODY);
+            completeResponse();
+        }
+
+        return null;
+    }
+
+    private void completeResponse() {
+        final var headers = this.headers == null ? EmptyHttpHeaders.INSTANCE : this.headers;
+        this.response.complete(new StreamedResponse(this.statusCode, headers, new BodyInputStream()));
+    }
+
+    record StreamedResponse(int statusCode, @NonNull HttpHeaders headers, @NonNull InputStream body) {
+    }
+
+    private class BodyPartsSubscriber implements Subscriber<HttpResponseBodyPart> {
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            subscription = s;
+            s.request(maxBufferedParts);
+        }
+
+        @Override
+        public void onNext(HttpResponseBodyPart bodyPart) {
+            parts.add(ByteBuffer.wrap(bodyPart.getBodyPartBytes()));
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            parts.add(t);
+        }
+
+        @Override
+        public void onComplete() {
+            parts.add(END_OF_BODY);
+        }
+    }
+
+    private class BodyInputStream extends InputStream {
+
+        private ByteBuffer currentPart = END_OF_BODY;
+        private boolean ended;
+        private volatile boolean closed;
+
+        @Override
+        public int read() throws IOException {
+            return nextPart() ? this.currentPart.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+
+            if (!nextPart()) {
+                return -1;
+            }
+
+            final var count = Math.min(len, this.currentPart.remaining());
+            this.currentPart.get(b, off, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return this.closed ? 0 : this.currentPart.remaining();
+        }
+
+        @Override
+        public void close() {
+            if (this.closed) {
+                return;
+            }
+
+            this.closed = true;
+            // the rest of the body isn't needed anymore, so the download is aborted
+            final var subscription = StreamingResponseBodyHandler.this.subscription;
+            if (subscription != null) {
+                subscription.cancel();
+            }
+
+            parts.clear();
+            // the reader waiting for the next part fails instead of the end of the body
+            parts.add(new IOException("Response body is closed"));
+        }
+
+        private boolean nextPart() throws IOException {
+            if (this.closed) {
+                throw new IOException("Response body is closed");
+            }
+
+            while (!this.currentPart.hasRemaining()) {
+                if (this.ended) {
+                    return false;
+                }
+
+                final Object part;
+                try {
+                    part = parts.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+
+                if (part instanceof IOException e) {
+                    this.ended = true;
+                    throw e;
+                } else if (part instanceof Throwable t) {
+                    this.ended = true;
+                    throw new IOException(t);
+                } else if (part == END_OF_BODY) {
+                    this.ended = true;
+                    return false;
+                }
+
+                this.currentPart = (ByteBuffer) part;
+                final var subscription = StreamingResponseBodyHandler.this.subscription;
+                if (subscription != null) {
+                    subscription.request(1);
+                }
+            }
+
+            return true;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.analyzer.service.scheduled;
+
+import lombok.NonNull;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Counts the bytes read from the stream and keeps the last of them, so the next part of the log can be checked
+ * to continue the read one.
+ */
+@NotThreadSafe
+final class TailTrackingInputStream extends FilterInputStream {
+
+    private final byte[] tail;
+    private long count;
+
+    TailTrackingInputStream(@NonNull final InputStream in, final int tailSize) {
+        super(in);
+        this.tail = new byte[tailSize];
+    }
+
+    long count() {
+        return this.count;
+    }
+
+    /**
+     * Returns the last read bytes appended to the given preceding bytes of the log, up to the tail size.
+     */
+    @NonNull
+    byte[] tail(@NonNull final byte[] precedingBytes) {
+        final var fromStream = (int) Math.min(this.count, this.tail.length);
+        final var fromPreceding = Math.min(precedingBytes.length, this.tail.length - fromStream);
+        final var result = new byte[fromPreceding + fromStream];
+        System.arraycopy(precedingBytes, precedingBytes.length - fromPreceding, result, 0, fromPreceding);
+
+        // the tail is a ring buffer where the oldest byte is at the current count position
+        for (int i = 0; i < fromStream; i++) {
+            result[fromPreceding + i] = this.tail[(int) ((this.count - fromStream + i) % this.tail.length)];
+        }
+
+        return result;
+    }
+
+    @Override
+    public int read() throws IOException {
+        final var b = super.read();
+        if (b >= 0) {
+            track((byte) b);
+        }
+
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        final var n = super.read(b, off, len);
+        for (int i = Math.max(0, n - this.tail.length); i < n; i++) {
+            this.tail[(int) ((this.count + i) % this.tail.length)] = b[off + i];
+        }
+
+        this.count += Math.max(n, 0);
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        // the skipped bytes must be tracked too
+        final var buffer = new byte[(int) Math.min(n, 8192)];
+        long skipped = 0;
+        int read;
+        while (skipped < n && (read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped))) > 0) {
+            skipped += read;
+        }
+
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void track(final byte b) {
+        this.tail[(int) (this.count++ % this.tail.length)] = b;
+    }
+}
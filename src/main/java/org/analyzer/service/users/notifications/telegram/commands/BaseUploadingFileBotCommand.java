@@ -12,6 +12,7 @@ import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
 import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
 import java.util.UUID;
 
@@ -49,4 +50,20 @@ abstract class BaseUploadingFileBotCommand extends ApplicationBotCommand {
             throw new RuntimeException(e);
         }
     }
+
+    protected InputStream openFileStream(final AbsSender sender, final String uploadedFileId) {
+
+        final var uploadedFile = new GetFile(uploadedFileId);
+        try {
+            final var file = sender.execute(uploadedFile);
+            final var fileUrl = file.getFileUrl(botConfiguration.getToken());
+
+            final var connection = new URL(fileUrl).openConnection();
+            connection.setConnectTimeout(CONNECT_TIMEOUT);
+            connection.setReadTimeout(READ_TIMEOUT);
+            return connection.getInputStream();
+        } catch (TelegramApiException | IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
 }
@@ -98,13 +98,12 @@ public class IndexLogsFileCommand extends BaseUploadingFileBotCommand implements
             return "<b>Expected file for indexing command.<b>";
         }
 
-        final var uploadedFile = downloadFile(absSender, message.getDocument().getFileId());
+        final var document = message.getDocument();
+        final var fileName = StringUtils.isEmpty(document.getFileName()) ? document.getFileId() : document.getFileName();
         final var logRecordFormat = createLogRecordFormatFromContext(context);
         executeInUserContext(message.getChatId(),
-                () -> this.logsService.index(uploadedFile, logRecordFormat)
+                () -> this.logsService.index(openFileStream(absSender, document.getFileId()), fileName, logRecordFormat)
                         .whenComplete((indexingKey, ex) -> {
-                            uploadedFile.delete();
-
                             final String resultMsgText;
                             if (ex != null) {
                                 resultMsgText = "Indexing process completed with error: " + ex.getMessage();
@@ -2,8 +2,10 @@ package org.analyzer.service.users.std;
 
 import lombok.NonNull;
 import org.analyzer.dao.UserRepository;
+import org.analyzer.entities.ScheduledIndexingSettings;
 import org.analyzer.entities.UserEntity;
 import org.analyzer.service.users.UserService;
+import org.analyzer.service.exceptions.IllegalIndexingSettingsException;
 import org.analyzer.service.exceptions.UserAlreadyDisabledException;
 import org.analyzer.service.exceptions.UserAlreadyExistsException;
 import org.analyzer.service.exceptions.UserNotDisabledException;
@@ -15,6 +17,7 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.support.CronExpression;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -33,6 +36,7 @@ public class DefaultUserService implements UserService {
     @Override
     @CachePut(value = USERS_CACHE, key = "#result.getUsername()")
     public UserEntity create(@NonNull UserEntity newUser) {
+        validateIndexingSettings(newUser);
         try {
             return this.userRepository.save(newUser);
         } catch (OptimisticLockingFailureException | DuplicateKeyException ex) {
@@ -85,6 +89,7 @@ public class DefaultUserService implements UserService {
             throw new UserNotFoundException(userToSave.getUsername());
         }
 
+        validateIndexingSettings(userToSave);
         return this.userRepository.save(userToSave);
     }
 
@@ -134,4 +139,26 @@ public class DefaultUserService implements UserService {
                 ? this.userRepository.countByActive(true)
                 : this.userRepository.count();
     }
+
+    private void validateIndexingSettings(final UserEntity user) {
+        if (user.getSettings() == null || user.getSettings().getScheduledIndexingSettings() == null) {
+            return;
+        }
+
+        user.getSettings()
+                .getScheduledIndexingSettings()
+                .forEach(this::validateIndexingSettings);
+    }
+
+    private void validateIndexingSettings(final ScheduledIndexingSettings settings) {
+        // the network data is downloaded by the schedule, the file system data is followed, so only one of them may be set
+        if ((settings.getNetworkSettings() == null) == (settings.getFileSystemSettings() == null)) {
+            throw new IllegalIndexingSettingsException(settings.getSettingsId(), "exactly one of network and file system settings must be set");
+        }
+
+        if (settings.getNetworkSettings() != null
+                && (settings.getSchedule() == null || !CronExpression.isValidExpression(settings.getSchedule()))) {
+            throw new IllegalIndexingSettingsException(settings.getSettingsId(), "the network settings require a valid cron schedule");
+        }
+    }
 }
@@ -0,0 +1,78 @@
+package org.analyzer.service.util;
+
+import lombok.NonNull;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Glob rules for names of archive entries. Patterns without {@code /} are matched against the file name
+ * of the entry, the rest against the whole path of the entry in the archive.
+ */
+public final class ArchiveEntriesFilter {
+
+    private final List<EntryMatcher> includes;
+    private final List<EntryMatcher> excludes;
+
+    private ArchiveEntriesFilter(final List<EntryMatcher> includes, final List<EntryMatcher> excludes) {
+        this.includes = includes;
+        this.excludes = excludes;
+    }
+
+    /**
+     * Creates filter which accepts entries matching any of includes (or any entry if there are no includes)
+     * and not matching any of excludes. The default excludes are applied only if there are no includes.
+     */
+    @Nonnull
+    public static ArchiveEntriesFilter of(
+            @Nullable final Collection<String> includes,
+            @Nullable final Collection<String> excludes,
+            @Nullable final Collection<String> defaultExcludes) {
+        final var includeMatchers = toMatchers(includes);
+        final var excludeMatchers = includeMatchers.isEmpty() && defaultExcludes != null && !defaultExcludes.isEmpty()
+                ? toMatchers(excludes == null ? defaultExcludes : concat(excludes, defaultExcludes))
+                : toMatchers(excludes);
+        return new ArchiveEntriesFilter(includeMatchers, excludeMatchers);
+    }
+
+    public boolean accepts(@NonNull final String entryName) {
+        final var entryPath = Path.of(entryName.replace('\\', '/'));
+        final var fileName = entryPath.getFileName();
+        if (fileName == null) {
+            return false;
+        }
+
+        final var included = this.includes.isEmpty()
+                || this.includes.stream().anyMatch(matcher -> matcher.matches(entryPath, fileName));
+        return included && this.excludes.stream().noneMatch(matcher -> matcher.matches(entryPath, fileName));
+    }
+
+    private static List<EntryMatcher> toMatchers(final Collection<String> patterns) {
+        if (patterns == null) {
+            return List.of();
+        }
+
+        return patterns.stream()
+                        .map(String::trim)
+                        .filter(pattern -> !pattern.isEmpty())
+                        .map(pattern -> new EntryMatcher(FileSystems.getDefault().getPathMatcher("glob:" + pattern), pattern.contains("/")))
+                        .toList();
+    }
+
+    private static List<String> concat(final Collection<String> first, final Collection<String> second) {
+        return Stream.concat(first.stream(), second.stream()).toList();
+    }
+
+    private record EntryMatcher(PathMatcher matcher, boolean byPath) {
+
+        boolean matches(final Path entryPath, final Path fileName) {
+            return this.matcher.matches(this.byPath ? entryPath : fileName);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package org.analyzer.service.util;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.InputStream;
+
+@FunctionalInterface
+public interface ArchiveEntryConsumer {
+
+    /**
+     * Consumes the entry of the archive, the stream of the entry is valid only during the call and mustn't be closed.
+     */
+    void accept(@Nonnull String entryName, @Nonnull InputStream entryStream) throws IOException;
+}
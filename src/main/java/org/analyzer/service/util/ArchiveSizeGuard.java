@@ -0,0 +1,60 @@
+package org.analyzer.service.util;
+
+import lombok.NonNull;
+import org.analyzer.service.exceptions.ArchiveLimitExceededException;
+import org.apache.commons.io.input.ProxyInputStream;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Counts the bytes actually read from entries of an archive (sizes declared in archive headers may be forged)
+ * and stops the processing when the total uncompressed size or the compression ratio of the archive is too large.
+ */
+@ThreadSafe
+final class ArchiveSizeGuard {
+
+    // small archives of very repetitive logs may be compressed quite well, so the ratio is checked only for large data
+    private static final long RATIO_CHECK_MIN_BYTES = 16L * 1024 * 1024;
+
+    private final long maxUncompressedBytes;
+    private final int maxCompressionRatio;
+    private final LongSupplier compressedBytes;
+    private final AtomicLong uncompressedBytes;
+
+    ArchiveSizeGuard(
+            final long maxUncompressedBytes,
+            final int maxCompressionRatio,
+            @NonNull final LongSupplier compressedBytes) {
+        this.maxUncompressedBytes = maxUncompressedBytes;
+        this.maxCompressionRatio = maxCompressionRatio;
+        this.compressedBytes = compressedBytes;
+        this.uncompressedBytes = new AtomicLong();
+    }
+
+    InputStream guard(@NonNull final InputStream entryStream) {
+        return new ProxyInputStream(entryStream) {
+            @Override
+            protected void afterRead(final int n) {
+                if (n > 0) {
+                    onRead(n);
+                }
+            }
+        };
+    }
+
+    private void onRead(final int bytes) {
+        final var total = this.uncompressedBytes.addAndGet(bytes);
+        if (this.maxUncompressedBytes > 0 && total > this.maxUncompressedBytes) {
+            throw new ArchiveLimitExceededException("max-uncompressed-size", this.maxUncompressedBytes);
+        }
+
+        if (this.maxCompressionRatio > 0
+                && total > RATIO_CHECK_MIN_BYTES
+                && total / Math.max(1, this.compressedBytes.getAsLong()) > this.maxCompressionRatio) {
+            throw new ArchiveLimitExceededException("max-compression-ratio", this.maxCompressionRatio);
+        }
+    }
+}
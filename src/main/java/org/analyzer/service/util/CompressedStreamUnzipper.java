@@ -0,0 +1,143 @@
+package org.analyzer.service.util;
+
+import lombok.NonNull;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.compressors.CompressorException;
+import org.apache.commons.compress.compressors.CompressorStreamFactory;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CloseShieldInputStream;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Supports single compressed files (like rotated {@code server.log.gz}) and tarballs
+ * compressed with gzip, bzip2, xz or zstd.
+ */
+@Component
+public class CompressedStreamUnzipper extends Unzipper {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int TAR_HEADER_SIZE = 512;
+
+    private static final int GZIP_SIGNATURE = 0x1F8B08;
+    private static final int BZIP2_SIGNATURE = 0x425A68;
+    private static final int XZ_SIGNATURE = 0xFD377A58;
+    private static final int ZSTD_SIGNATURE = 0x28B52FFD;
+
+    private static final Set<String> compressedFileExtensions = Set.of("gz", "gzip", "bz2", "xz", "zst", "zstd");
+    private static final Set<String> compressedTarExtensions = Set.of("tgz", "tbz2", "txz", "tzst");
+
+    @Override
+    protected boolean supported(int markerByte) {
+        return markerByte >>> 8 == GZIP_SIGNATURE
+                || markerByte >>> 8 == BZIP2_SIGNATURE
+                || markerByte == XZ_SIGNATURE
+                || markerByte == ZSTD_SIGNATURE;
+    }
+
+    @Override
+    protected void forEachEntry(
+            @NonNull InputStream archive,
+            @NonNull String archiveName,
+            @NonNull ArchiveEntryConsumer consumer) throws IOException {
+
+        final var data = decompress(archive);
+        if (!isTar(data)) {
+            consumer.accept(getDecompressedFileName(archiveName), CloseShieldInputStream.wrap(data));
+            return;
+        }
+
+        final var tis = new TarArchiveInputStream(data);
+        TarArchiveEntry tarEntry;
+
+        while ((tarEntry = tis.getNextTarEntry()) != null) {
+            if (tarEntry.isFile()) {
+                consumer.accept(tarEntry.getName(), CloseShieldInputStream.wrap(tis));
+            }
+        }
+    }
+
+    @Override
+    @NonNull
+    protected List<File> unzip(@NonNull File file, @NonNull File targetDir) throws IOException {
+
+        final List<File> result = new ArrayList<>();
+
+        try (final var fis = new FileInputStream(file);
+             final var data = decompress(fis)) {
+
+            if (!isTar(data)) {
+                final var extractedFile = new File(targetDir, getDecompressedFileName(file.getName()));
+                extractFile(data, extractedFile.getAbsolutePath());
+                result.add(extractedFile);
+
+                return result;
+            }
+
+            final var tis = new TarArchiveInputStream(data);
+            TarArchiveEntry tarEntry;
+
+            while ((tarEntry = tis.getNextTarEntry()) != null) {
+                final var filePath = targetDir.getAbsolutePath() + File.separator + tarEntry.getName();
+                if (tarEntry.isDirectory()) {
+                    var dir = new File(filePath);
+                    dir.mkdirs();
+                } else {
+                    createParentDirsIfNeed(tarEntry.getName(), targetDir);
+
+                    final var extractedFile = new File(filePath);
+                    extractFile(tis, filePath);
+
+                    result.add(extractedFile);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private InputStream decompress(final InputStream archive) throws IOException {
+        try {
+            final var compressedStream = new BufferedInputStream(archive, BUFFER_SIZE);
+            // rotated logs are often concatenated from several compressed members
+            final var decompressedStream = new CompressorStreamFactory(true).createCompressorInputStream(compressedStream);
+            return new BufferedInputStream(decompressedStream, BUFFER_SIZE);
+        } catch (CompressorException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    private boolean isTar(final InputStream data) throws IOException {
+        data.mark(TAR_HEADER_SIZE);
+        try {
+            final var header = IOUtils.readFully(data, TAR_HEADER_SIZE);
+            return TarArchiveInputStream.matches(header, header.length);
+        } catch (EOFException ex) {
+            return false;
+        } finally {
+            data.reset();
+        }
+    }
+
+    private String getDecompressedFileName(final String archiveName) {
+        final var fileName = getFileName(archiveName);
+        final var extensionIndex = fileName.lastIndexOf('.');
+        if (extensionIndex <= 0) {
+            return fileName;
+        }
+
+        final var extension = fileName.substring(extensionIndex + 1).toLowerCase();
+        if (compressedFileExtensions.contains(extension)) {
+            return fileName.substring(0, extensionIndex);
+        } else if (compressedTarExtensions.contains(extension)) {
+            return fileName.substring(0, extensionIndex) + ".tar";
+        }
+
+        return fileName;
+    }
+}
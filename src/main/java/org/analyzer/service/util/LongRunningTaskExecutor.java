@@ -36,4 +36,13 @@ public class LongRunningTaskExecutor {
         this.longRunningTasksCounter.increment();
         return this.taskExecutorDelegate.submitCompletable(this.timer.wrap(task));
     }
+
+    /**
+     * Runs the task on its own virtual thread instead of the pool, for the tasks which mostly wait for the data
+     * of their sources, so the waiting tasks don't hold the threads of the pool while the other tasks are queued.
+     */
+    public CompletableFuture<Void> executeDetached(@NonNull final Runnable task) {
+        this.longRunningTasksCounter.increment();
+        return CompletableFuture.runAsync(this.timer.wrap(task), command -> Thread.ofVirtual().name("long-running-detached-task").start(command));
+    }
 }
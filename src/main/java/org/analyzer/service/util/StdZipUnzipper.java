@@ -1,23 +1,82 @@
 package org.analyzer.service.util;
 
 import lombok.NonNull;
+import org.apache.commons.io.input.CloseShieldInputStream;
 import org.springframework.stereotype.Component;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
+import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 
 @Component
 public class StdZipUnzipper extends Unzipper {
 
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     @Override
     protected boolean supported(int markerByte) {
         return markerByte == 0x504B0304 || markerByte == 0x504B0506 || markerByte == 0x504B0708;
     }
 
+    @Override
+    protected boolean randomAccess() {
+        return true;
+    }
+
+    @Override
+    protected void forEachEntry(
+            @NonNull InputStream archive,
+            @NonNull String archiveName,
+            @NonNull ArchiveEntryConsumer consumer) throws IOException {
+
+        final var zipIn = new ZipInputStream(archive);
+        var entry = zipIn.getNextEntry();
+
+        while (entry != null) {
+            if (!entry.isDirectory()) {
+                consumer.accept(entry.getName(), CloseShieldInputStream.wrap(zipIn));
+            }
+            zipIn.closeEntry();
+            entry = zipIn.getNextEntry();
+        }
+    }
+
+    @Override
+    protected void forEachEntry(
+            @NonNull File archive,
+            int parallelism,
+            @NonNull ArchiveEntryConsumer consumer) throws IOException {
+
+        // entries are located by the central directory and inflated independently of each other
+        try (final var zipFile = new ZipFile(archive);
+             final var executor = Executors.newFixedThreadPool(Math.max(1, parallelism), Thread.ofVirtual().factory())) {
+
+            final var entriesFailure = new CompletableFuture<Void>();
+            final var entriesFutures = zipFile.stream()
+                                                .filter(entry -> !entry.isDirectory())
+                                                .map(entry -> CompletableFuture.runAsync(() -> processEntry(zipFile, entry, consumer), executor))
+                                                .map(future -> future.whenComplete((v, ex) -> {
+                                                    if (ex != null) {
+                                                        entriesFailure.completeExceptionally(ex);
+                                                    }
+                                                }))
+                                                .toArray(CompletableFuture[]::new);
+            try {
+                CompletableFuture.anyOf(CompletableFuture.allOf(entriesFutures), entriesFailure).join();
+            } catch (CompletionException ex) {
+                // stop processing of the rest entries, the whole archive is failed anyway
+                executor.shutdownNow();
+                throw ex;
+            }
+        }
+    }
+
     @Override
     @NonNull
     protected List<File> unzip(@NonNull File file, @NonNull File targetDir) throws IOException {
@@ -47,4 +106,12 @@ public class StdZipUnzipper extends Unzipper {
 
         return result;
     }
+
+    private void processEntry(final ZipFile zipFile, final ZipEntry entry, final ArchiveEntryConsumer consumer) {
+        try (final var entryStream = new BufferedInputStream(zipFile.getInputStream(entry), BUFFER_SIZE)) {
+            consumer.accept(entry.getName(), CloseShieldInputStream.wrap(entryStream));
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
 }
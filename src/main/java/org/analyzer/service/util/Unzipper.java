@@ -14,6 +14,35 @@ abstract class Unzipper {
     @NonNull
     protected abstract List<File> unzip(@NonNull File archive, @NonNull File targetDir) throws IOException;
 
+    /**
+     * Reads the archive in a single pass and passes every file entry to the consumer without extracting it to disk.
+     */
+    protected abstract void forEachEntry(
+            @NonNull InputStream archive,
+            @NonNull String archiveName,
+            @NonNull ArchiveEntryConsumer consumer) throws IOException;
+
+    /**
+     * Returns whether the entries of the archive on disk are read independently of each other,
+     * such archives are worth to be completely stored on disk before reading them.
+     */
+    protected boolean randomAccess() {
+        return false;
+    }
+
+    /**
+     * Passes every file entry of the archive on disk to the consumer, the archives which allow to read entries
+     * independently process up to {@code parallelism} entries concurrently.
+     */
+    protected void forEachEntry(
+            @NonNull File archive,
+            int parallelism,
+            @NonNull ArchiveEntryConsumer consumer) throws IOException {
+        try (final var stream = new BufferedInputStream(new FileInputStream(archive), 64 * 1024)) {
+            forEachEntry(stream, archive.getName(), consumer);
+        }
+    }
+
     @NonNull
     protected final List<File> unzip(@NonNull File file) {
 
@@ -32,6 +61,11 @@ abstract class Unzipper {
         }
     }
 
+    protected String getFileName(final String entryName) {
+        final var lastSeparatorIndex = Math.max(entryName.lastIndexOf('/'), entryName.lastIndexOf('\\'));
+        return entryName.substring(lastSeparatorIndex + 1);
+    }
+
     protected void createParentDirsIfNeed(final String entryName, final File destDir) {
 
         final var separator = entryName.contains(File.separator) ? File.separator : "/";
@@ -50,7 +84,7 @@ abstract class Unzipper {
 
         try (final var bos = new BufferedOutputStream(new FileOutputStream(filePath))) {
 
-            final var bytesIn = new byte[1024];
+            final var bytesIn = new byte[64 * 1024];
             int read;
             while ((read = in.read(bytesIn)) != -1) {
                 bos.write(bytesIn, 0, read);
@@ -1,25 +1,118 @@
 package org.analyzer.service.util;
 
 import lombok.NonNull;
+import org.apache.commons.io.input.CountingInputStream;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.io.File;
-import java.io.IOException;
-import java.io.RandomAccessFile;
+import java.io.*;
 import java.util.List;
+import java.util.function.LongSupplier;
 
 @Component
 public class UnzipperUtil {
 
     @Autowired
     private List<Unzipper> unzippers;
+    @Value("${logs.analyzer.indexing.archive-max-uncompressed-size-mb:0}")
+    private long maxUncompressedSizeMb;
+    @Value("${logs.analyzer.indexing.archive-max-compression-ratio:0}")
+    private int maxCompressionRatio;
 
     @NonNull
     public List<File> flat(@NonNull final File file) {
         return isArchive(file) ? flatArchive(file) : List.of(file);
     }
 
+    /**
+     * Checks the signature of the data without consuming it, the stream must support {@link InputStream#mark(int)}.
+     */
+    public boolean isArchive(@NonNull final InputStream stream) {
+        try {
+            stream.mark(Integer.BYTES);
+            try {
+                final var fileSignature = new DataInputStream(stream).readInt();
+                return isArchiveSignature(fileSignature);
+            } finally {
+                stream.reset();
+            }
+        } catch (EOFException ex) {
+            return false;
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * Passes the files of the archive accepted by the filter to the consumer (with the path of the entry in the archive,
+     * files with the same name may be in different directories) in a single pass over the archive data,
+     * the stream must support {@link InputStream#mark(int)}.
+     */
+    public void forEachEntry(
+            @NonNull final InputStream archive,
+            @NonNull final String archiveName,
+            @NonNull final ArchiveEntriesFilter filter,
+            @NonNull final ArchiveEntryConsumer consumer) {
+        final var countingArchive = new CountingInputStream(archive);
+        final var sizeGuard = createSizeGuard(countingArchive::getByteCount);
+        try {
+            archive.mark(Integer.BYTES);
+            final int fileSignature;
+            try {
+                fileSignature = new DataInputStream(archive).readInt();
+            } finally {
+                archive.reset();
+            }
+
+            final var unzipper = this.unzippers.stream()
+                                                .filter(u -> u.supported(fileSignature))
+                                                .findAny()
+                                                .orElseThrow();
+            unzipper.forEachEntry(countingArchive, archiveName, filterAndGuard(filter, sizeGuard, consumer));
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    public void forEachEntry(
+            @NonNull final File archive,
+            final int parallelism,
+            @NonNull final ArchiveEntriesFilter filter,
+            @NonNull final ArchiveEntryConsumer consumer) {
+        final var archiveSize = archive.length();
+        final var sizeGuard = createSizeGuard(() -> archiveSize);
+        try {
+            final int fileSignature;
+            try (final var raf = new RandomAccessFile(archive, "r")) {
+                fileSignature = raf.readInt();
+            }
+
+            final var unzipper = this.unzippers.stream()
+                                                .filter(u -> u.supported(fileSignature))
+                                                .findAny()
+                                                .orElseThrow();
+            unzipper.forEachEntry(archive, parallelism, filterAndGuard(filter, sizeGuard, consumer));
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private ArchiveSizeGuard createSizeGuard(final LongSupplier compressedBytes) {
+        return new ArchiveSizeGuard(this.maxUncompressedSizeMb * 1024 * 1024, this.maxCompressionRatio, compressedBytes);
+    }
+
+    private ArchiveEntryConsumer filterAndGuard(
+            final ArchiveEntriesFilter filter,
+            final ArchiveSizeGuard sizeGuard,
+            final ArchiveEntryConsumer consumer) {
+        return (entryName, entryStream) -> {
+            if (filter.accepts(entryName)) {
+                consumer.accept(entryName.replace('\\', '/'), sizeGuard.guard(entryStream));
+            }
+        };
+    }
+
     private List<File> flatArchive(@NonNull final File file) {
         try {
             try (final var raf = new RandomAccessFile(file, "r")) {
@@ -36,15 +129,34 @@ public class UnzipperUtil {
         }
     }
 
-    private boolean isArchive(@NonNull File file) {
+    public boolean isArchive(@NonNull File file) {
+        try (final var raf = new RandomAccessFile(file, "r")) {
+            final var fileSignature = raf.readInt();
+            return isArchiveSignature(fileSignature);
+        } catch (IOException ignored) {
+        }
+
+        return false;
+    }
+
+    /**
+     * Checks whether the file is the archive with the entries which are read independently of each other from disk.
+     */
+    public boolean isRandomAccessArchive(@NonNull File file) {
         try (final var raf = new RandomAccessFile(file, "r")) {
             final var fileSignature = raf.readInt();
             return this.unzippers
                             .stream()
-                            .anyMatch(unzipper -> unzipper.supported(fileSignature));
+                            .anyMatch(unzipper -> unzipper.supported(fileSignature) && unzipper.randomAccess());
         } catch (IOException ignored) {
         }
 
         return false;
     }
+
+    private boolean isArchiveSignature(final int fileSignature) {
+        return this.unzippers
+                        .stream()
+                        .anyMatch(unzipper -> unzipper.supported(fileSignature));
+    }
 }
@@ -0,0 +1,104 @@
+package org.analyzer.service.logs.lucene;
+
+import org.analyzer.dao.lucene.LuceneLogRecordBuilder;
+import org.analyzer.dao.lucene.LuceneLogRecordFieldMetadata;
+import org.analyzer.entities.LogRecordEntity;
+import org.analyzer.service.logs.SearchQuery;
+import org.analyzer.service.logs.std.AnalyzeQueryOnIndexWrapper;
+import org.analyzer.service.logs.std.DefaultLogKeysFactory;
+import org.analyzer.service.logs.std.SimpleSearchQuery;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LuceneSearchQueryParserTests {
+
+    private static final String USER_KEY = "user1";
+
+    private final DefaultLogKeysFactory logKeysFactory = new DefaultLogKeysFactory();
+    private final LuceneSearchQueryParser parser = new LuceneSearchQueryParser();
+    private final LuceneLogRecordBuilder recordBuilder = new LuceneLogRecordBuilder();
+
+    private ByteBuffersDirectory directory;
+
+    @BeforeEach
+    void setUp() {
+        final var fieldMetadata = new LuceneLogRecordFieldMetadata();
+        ReflectionTestUtils.setField(this.parser, "logRecordFieldMetadata", fieldMetadata);
+        ReflectionTestUtils.setField(this.recordBuilder, "logRecordFieldMetadata", fieldMetadata);
+        this.directory = new ByteBuffersDirectory();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        this.directory.close();
+    }
+
+    @Test
+    void analyzeQueryShouldSelectAllRecordsOfIndexing() throws IOException {
+        final var userIndexingKey = this.logKeysFactory.createUserIndexingKey(USER_KEY, "c0a4f5e2-54ad-4a4b-a0d1-4b6b5e1b7f3d");
+        final var otherIndexingKey = this.logKeysFactory.createUserIndexingKey(USER_KEY, "c0a4f5e2-54ad-4a4b-a0d1-4b6b5e1b7f3d1");
+        final var otherUserIndexingKey = this.logKeysFactory.createUserIndexingKey("user2", "c0a4f5e2-54ad-4a4b-a0d1-4b6b5e1b7f3d");
+        index(List.of(
+                createRecord(userIndexingKey, "server.log", 0, "ERROR"),
+                createRecord(userIndexingKey, "server.log", 120, "INFO"),
+                createRecord(userIndexingKey, "app.log", 0, "INFO"),
+                createRecord(otherIndexingKey, "server.log", 0, "INFO"),
+                createRecord(otherUserIndexingKey, "server.log", 0, "INFO")
+        ));
+
+        final var analyzeQuery = new AnalyzeQueryOnIndexWrapper("c0a4f5e2-54ad-4a4b-a0d1-4b6b5e1b7f3d", userIndexingKey);
+        assertEquals(3, count(analyzeQuery.toSearchQuery(0)));
+    }
+
+    @Test
+    void keywordFieldsShouldBeMatchedCaseSensitively() throws IOException {
+        final var userIndexingKey = this.logKeysFactory.createUserIndexingKey(USER_KEY, "1");
+        index(List.of(
+                createRecord(userIndexingKey, "server.log", 0, "ERROR"),
+                createRecord(userIndexingKey, "server.log", 120, "INFO")
+        ));
+
+        assertEquals(1, count(new SimpleSearchQuery("level:ERROR")));
+        assertEquals(0, count(new SimpleSearchQuery("level:error")));
+        assertEquals(2, count(new SimpleSearchQuery("record.keyword:test")));
+    }
+
+    private LogRecordEntity createRecord(final String userIndexingKey, final String fileName, final long position, final String level) {
+        final var fileKey = this.logKeysFactory.createIndexedLogFileKey(userIndexingKey, fileName);
+        return new LogRecordEntity()
+                    .setId(this.logKeysFactory.createLogRecordKey(fileKey, position))
+                    .setDate(LocalDate.of(2023, 1, 1))
+                    .setTime(LocalTime.of(10, 0))
+                    .setLevel(level)
+                    .setSource(fileName)
+                    .setRecord("Test record");
+    }
+
+    private void index(final List<LogRecordEntity> records) throws IOException {
+        try (final var writer = new IndexWriter(this.directory, new IndexWriterConfig())) {
+            for (final var record : records) {
+                writer.addDocument(this.recordBuilder.buildDocument(record));
+            }
+        }
+    }
+
+    private int count(final SearchQuery query) throws IOException {
+        try (final var reader = DirectoryReader.open(this.directory)) {
+            return new IndexSearcher(reader).count(this.parser.parse(query, USER_KEY));
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package org.analyzer.service.logs.std;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CharsetDetectorTests {
+
+    private static final String LOG = "2023-01-01 10:00:00,000 INFO  [org.example.Service] (thread-1) Запрос обработан\n";
+
+    @Test
+    void utf16WithoutBomShouldBeDetectedByZeroBytes() {
+        assertEquals(StandardCharsets.UTF_16LE, detect(StandardCharsets.UTF_16LE));
+        assertEquals(StandardCharsets.UTF_16BE, detect(StandardCharsets.UTF_16BE));
+    }
+
+    @Test
+    void utf8WithoutBomShouldBeDetected() {
+        assertEquals(StandardCharsets.UTF_8, detect(StandardCharsets.UTF_8));
+    }
+
+    private static Charset detect(final Charset charset) {
+        return CharsetDetector.detect(ByteBuffer.wrap(LOG.getBytes(charset)), null, StandardCharsets.ISO_8859_1).charset();
+    }
+}
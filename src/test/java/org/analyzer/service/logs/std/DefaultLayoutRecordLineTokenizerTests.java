@@ -0,0 +1,57 @@
+package org.analyzer.service.logs.std;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DefaultLayoutRecordLineTokenizerTests {
+
+    private final RecordLineTokenizer patternTokenizer = new PatternRecordLineTokenizer(DefaultLogRecordsParser.defaultRecordPattern);
+    private final RecordLineTokenizer scanningTokenizer = new DefaultLayoutRecordLineTokenizer((line, tokens) -> false);
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "2023-01-01 10:00:02,213 INFO  [org.example.SomeClass1] (thread-1) Any text",
+            "2023-01-01 10:00:02.213 ERROR [org.example.Some_Class] (pool-1-thread-2, worker 3)   text with (braces) [and] brackets",
+            "2023-01-01\t10:00:02 WARN[c](t)text",
+            "10:00:02,213 DEBUG [org.example.SomeClass1] (main) ",
+            "10:00:02,213,1.2 [category] (thread)",
+            "10:00:02INFO[category](thread)text",
+            "10:00:02 INFO [category] () text",
+            "10:00:02 INFO [] (thread) text",
+            "2023-01-01 10:00:02,213 INFO  [org.example.SomeClass1] thread-1 Any text",
+            "2023-01-01 10:00:02,213 INFO  (thread-1) Any text",
+            "2023-01-01 10:00:02,213 INFO  [org.example$Inner] (thread-1) Any text",
+            "2023-01-01 10:00:02,213 INFO  [org.example] (thread#1) Any text",
+            "2023-01-01 10:00:02,213 INFO1 [org.example] (thread-1) Any text",
+            "2023-01-01  10:00:02,213 INFO [org.example] (thread-1) Any text",
+            "2023-1-01 10:00:02,213 INFO [org.example] (thread-1) Any text",
+            "1:00:02,213 INFO [org.example] (thread-1) Any text",
+            "10:00 INFO [org.example] (thread-1) Any text",
+            "\tat org.example.SomeClass1.method(SomeClass1.java:10)",
+            "Caused by: java.lang.IllegalStateException: 10:00:02 INFO [c] (t)",
+            "",
+            "2023-01-01 ",
+            "10:00:02"
+    })
+    void scannerShouldProduceSameTokensAsPattern(final String line) {
+        final var expected = new RecordTokens();
+        final var actual = new RecordTokens();
+
+        final var expectedMatches = this.patternTokenizer.tokenize(line, expected);
+        final var actualMatches = this.scanningTokenizer.tokenize(line, actual);
+
+        assertEquals(expectedMatches, actualMatches, line);
+        if (expectedMatches) {
+            assertEquals(expected.date, actual.date, line);
+            assertEquals(expected.time, actual.time, line);
+            assertEquals(expected.level, actual.level, line);
+            assertEquals(expected.category, actual.category, line);
+            assertEquals(expected.thread, actual.thread, line);
+            assertEquals(expected.traceId, actual.traceId, line);
+            assertEquals(expected.spanId, actual.spanId, line);
+            assertEquals(expected.text, actual.text, line);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.analyzer.service.logs.std;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.analyzer.config.parsing.LogRecordsParsingProperties;
+import org.analyzer.entities.LogRecordEntity;
+import org.analyzer.i18n.MessageHelper;
+import org.analyzer.service.exceptions.UnsupportedApplicationOperationException;
+import org.analyzer.service.logs.LogRecordFormat;
+import org.analyzer.service.logs.LogRecordsParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.StaticMessageSource;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DefaultLogRecordsParserTests {
+
+    private static final String LOG = """
+            2023-01-01 10:00:00,000 INFO  [org.example.Service] (thread-1) first
+            2023-01-01 10:00:01,000 ERROR [org.example.Service] (thread-1) second
+            \tat continuation
+            2023-01-01 10:00:02,000 INFO  [org.example.Service] (thread-1) third
+            """;
+
+    private DefaultLogRecordsParser parser;
+
+    @BeforeEach
+    void setUp() {
+        final var messageSource = new StaticMessageSource();
+        messageSource.setUseCodeAsDefaultMessage(true);
+        new MessageHelper(messageSource);
+
+        final var meterRegistry = new SimpleMeterRegistry();
+        final var properties = new LogRecordsParsingProperties(1, 64, 16, 64, 64, 16, StandardCharsets.UTF_8, 1000, 64, 1024, 100);
+        this.parser = new DefaultLogRecordsParser(
+                meterRegistry,
+                new DefaultLogKeysFactory(),
+                new ThreadPoolTaskExecutor(),
+                properties,
+                new RecordsPackageSizing(properties, meterRegistry)
+        );
+    }
+
+    @Test
+    void logShouldBeParsedFromRecordPosition() {
+        final var data = LOG.getBytes(StandardCharsets.UTF_8);
+        final var records = parseAll(this.parser.parse("app.log", new ByteArrayInputStream(data), null));
+
+        final var resumedRecords = parseAll(this.parser.parseFrom("app.log", new ByteArrayInputStream(data), position(records.get(1)), null));
+
+        assertEquals(records.subList(1, 3).stream().map(LogRecordEntity::getId).toList(), resumedRecords.stream().map(LogRecordEntity::getId).toList());
+        assertEquals("second\n\tat continuation", resumedRecords.get(0).getRecord());
+    }
+
+    @Test
+    void transcodedLogShouldBeParsedFromRecordPosition() {
+        final var charset = Charset.forName("UTF-16");
+        final var data = LOG.getBytes(charset);
+        final var iterator = this.parser.parse("app.log", new ByteArrayInputStream(data), null);
+        assertFalse(iterator.bytePositions());
+        final var records = parseAll(iterator);
+
+        // positions of the records are counted in the transcoded data, so they are the same for the resumed parsing
+        final var resumedRecords = parseAll(this.parser.parseFrom("app.log", new ByteArrayInputStream(data), position(records.get(2)), null));
+
+        assertEquals(List.of(records.get(2).getId()), resumedRecords.stream().map(LogRecordEntity::getId).toList());
+    }
+
+    @Test
+    void transcodedLogShouldNotBeParsedFromBytePosition() {
+        final var charset = StandardCharsets.UTF_16LE;
+        final var data = LOG.getBytes(charset);
+        final LogRecordFormat recordFormat = new LogRecordFormat() {
+            @Override
+            public String pattern() {
+                return null;
+            }
+
+            @Override
+            public String timeFormat() {
+                return null;
+            }
+
+            @Override
+            public String dateFormat() {
+                return null;
+            }
+
+            @Override
+            public String charset() {
+                return charset.name();
+            }
+        };
+
+        assertThrows(UnsupportedApplicationOperationException.class, () -> this.parser.parse("app.log", new ByteArrayInputStream(data, 70, data.length - 70), 70, recordFormat));
+    }
+
+    private static List<LogRecordEntity> parseAll(final LogRecordsParser.LogRecordsPackageIterator iterator) {
+        final List<LogRecordEntity> result = new ArrayList<>();
+        try (iterator) {
+            iterator.forEachRemaining(result::addAll);
+        }
+
+        return result;
+    }
+
+    private static long position(final LogRecordEntity record) {
+        return new DefaultLogKeysFactory().getLogRecordPosition(record.getId());
+    }
+}
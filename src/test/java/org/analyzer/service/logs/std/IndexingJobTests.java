@@ -0,0 +1,153 @@
+package org.analyzer.service.logs.std;
+
+import org.analyzer.dao.IndexingJobRepository;
+import org.analyzer.dao.LogsStorage;
+import org.analyzer.entities.IndexingJobEntity;
+import org.analyzer.entities.LogRecordEntity;
+import org.analyzer.entities.UserEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class IndexingJobTests {
+
+    private static final long MB = 1024 * 1024;
+
+    @TempDir
+    Path jobsDirectory;
+
+    private IndexingJobRepository repository;
+    private LogsStorage logsStorage;
+    private IndexingJobs jobs;
+
+    @BeforeEach
+    void setUp() {
+        this.repository = mock(IndexingJobRepository.class);
+        this.logsStorage = mock(LogsStorage.class);
+        this.jobs = new IndexingJobs(this.repository, this.logsStorage, new DefaultLogKeysFactory(), this.jobsDirectory.toString(), "node", 1, 3, 10, 60);
+    }
+
+    @Test
+    void checkpointShouldNotPassNotIndexedPackage() {
+        final var job = this.jobs.create("1", new UserEntity().setHash("user"), "app.log", null);
+        final var progress = job.progress("app.log");
+        final var firstPackageIndexing = new CompletableFuture<Void>();
+
+        progress.index(createPackage(0), records -> firstPackageIndexing);
+        progress.index(createPackage(2 * MB), records -> CompletableFuture.completedFuture(null));
+        assertEquals(0, progress.offset());
+
+        firstPackageIndexing.complete(null);
+        progress.index(createPackage(4 * MB), records -> CompletableFuture.completedFuture(null));
+
+        assertEquals(2 * MB, progress.offset());
+        assertEquals(5 * MB, job.entity().getCheckpoints().get(0).getWatermark());
+        // records before the checkpoint are flushed before it is saved
+        verify(this.logsStorage).flush();
+    }
+
+    @Test
+    void resumedJobShouldReplaceRecordsUpToWatermark() {
+        final var job = this.jobs.create("1", new UserEntity().setHash("user"), "app.log", null);
+        job.entity()
+            .getCheckpoints()
+            .add(new IndexingJobEntity.FileCheckpoint()
+                        .setFileName("app.log")
+                        .setOffset(2 * MB)
+                        .setWatermark(5 * MB));
+
+        final var resumedJob = new IndexingJob(job.entity(), this.jobs);
+        final var progress = resumedJob.progress("app.log");
+        assertEquals(2 * MB, progress.offset());
+
+        progress.index(createPackage(3 * MB), records -> CompletableFuture.completedFuture(null));
+        verify(this.logsStorage).deleteAllByIds(List.of(recordId(3 * MB)));
+
+        progress.index(createPackage(6 * MB), records -> CompletableFuture.completedFuture(null));
+        verify(this.logsStorage, times(1)).deleteAllByIds(anyList());
+    }
+
+    @Test
+    void completedFileShouldBeSkippedAfterFlush() {
+        final var job = this.jobs.create("1", new UserEntity().setHash("user"), "app.zip", null);
+        final var firstFileProgress = job.progress("first.log");
+        firstFileProgress.index(createPackage(0), records -> CompletableFuture.completedFuture(null));
+        firstFileProgress.complete();
+        assertFalse(firstFileProgress.completed());
+
+        final var secondFileProgress = job.progress("second.log");
+        secondFileProgress.index(createPackage(0), records -> CompletableFuture.completedFuture(null));
+        secondFileProgress.index(createPackage(2 * MB), records -> CompletableFuture.completedFuture(null));
+        secondFileProgress.index(createPackage(4 * MB), records -> CompletableFuture.completedFuture(null));
+
+        assertTrue(job.progress("first.log").completed());
+    }
+
+    @Test
+    void firstAttemptShouldBeCountedByMaxAttempts() throws IOException {
+        final var job = this.jobs.create("1", new UserEntity().setHash("user"), "app.log", null);
+        Files.createFile(job.source());
+        job.onSourceCompleted();
+
+        job.onAttemptStarted();
+        assertTrue(this.jobs.isResumable(job));
+        assertEquals(Duration.ofSeconds(10), this.jobs.retryDelay(job));
+
+        job.onAttemptStarted();
+        assertTrue(this.jobs.isResumable(job));
+        assertEquals(Duration.ofSeconds(20), this.jobs.retryDelay(job));
+
+        job.onAttemptStarted();
+        assertFalse(this.jobs.isResumable(job));
+    }
+
+    @Test
+    void interruptedJobShouldBeResumedOnlyWhenClaimed() {
+        when(this.repository.findAllByNode("node")).thenReturn(List.of(createJobEntity("1"), createJobEntity("2")));
+        when(this.repository.claimById(eq("1"), anyString(), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(1L);
+
+        final var interruptedJobs = this.jobs.findAllInterrupted();
+
+        assertEquals(List.of("1"), interruptedJobs.stream().map(IndexingJob::indexingKey).toList());
+    }
+
+    @Test
+    void jobShouldNotBeSavedWhenLeaseIsLost() {
+        final var job = this.jobs.create("1", new UserEntity().setHash("user"), "app.log", null);
+
+        this.jobs.renewLeases();
+
+        assertTrue(job.leaseLost());
+        assertThrows(IllegalStateException.class, job::onAttemptStarted);
+    }
+
+    private static IndexingJobEntity createJobEntity(final String indexingKey) {
+        return new IndexingJobEntity()
+                    .setId(indexingKey)
+                    .setUserKey("user")
+                    .setNode("node")
+                    .setLogName("app.log")
+                    .setSourcePath(indexingKey)
+                    .setCreated(LocalDateTime.now());
+    }
+
+    private static List<LogRecordEntity> createPackage(final long offset) {
+        return List.of(new LogRecordEntity().setId(recordId(offset)).setSource("record"));
+    }
+
+    private static String recordId(final long offset) {
+        return "user#1$app.log@" + offset;
+    }
+}
@@ -0,0 +1,143 @@
+package org.analyzer.service.logs.std;
+
+import org.analyzer.entities.UserEntity;
+import org.analyzer.i18n.MessageHelper;
+import org.analyzer.service.exceptions.IllegalUploadChunkException;
+import org.analyzer.service.logs.LogRecordFormat;
+import org.analyzer.service.logs.LogsService;
+import org.analyzer.service.users.CurrentUserAccessor;
+import org.analyzer.service.util.UnzipperUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.support.StaticMessageSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StandardLogUploadsServiceTests {
+
+    @TempDir
+    Path uploadsDirectory;
+
+    private final StandardLogUploadsService service = new StandardLogUploadsService();
+    private final LogsService logsService = mock(LogsService.class);
+    private final UnzipperUtil zipUtil = mock(UnzipperUtil.class);
+    private final CompletableFuture<InputStream> uploadStream = new CompletableFuture<>();
+
+    @BeforeEach
+    void setUp() {
+        final var messageSource = new StaticMessageSource();
+        messageSource.setUseCodeAsDefaultMessage(true);
+        new MessageHelper(messageSource);
+
+        final var userAccessor = mock(CurrentUserAccessor.class);
+        when(userAccessor.get()).thenReturn(new UserEntity().setHash("user"));
+
+        when(this.logsService.index(any(InputStream.class), anyString(), nullable(LogRecordFormat.class))).thenAnswer(invocation -> {
+            this.uploadStream.complete(invocation.getArgument(0));
+            return new CompletableFuture<String>();
+        });
+
+        ReflectionTestUtils.setField(this.service, "logsService", this.logsService);
+        ReflectionTestUtils.setField(this.service, "userAccessor", userAccessor);
+        ReflectionTestUtils.setField(this.service, "zipUtil", this.zipUtil);
+        ReflectionTestUtils.setField(this.service, "uploadsDirectory", this.uploadsDirectory);
+        ReflectionTestUtils.setField(this.service, "maxChunkSizeMb", 1);
+        ReflectionTestUtils.setField(this.service, "idleTimeoutMinutes", 1);
+    }
+
+    @Test
+    void chunksReceivedOutOfOrderShouldBeReadInOrder() throws IOException {
+        final var upload = this.service.create("app.log", 4, null);
+        this.service.writeChunk(upload.id(), 2, toStream("ij"));
+        this.service.writeChunk(upload.id(), 1, toStream("efgh"));
+        this.service.writeChunk(upload.id(), 0, toStream("abcd"));
+        // the chunk already received is skipped
+        this.service.writeChunk(upload.id(), 1, toStream("xxxx"));
+        this.service.complete(upload.id(), 3);
+
+        assertTrue(this.service.findById(upload.id()).completed());
+        assertEquals("abcdefghij", new String(this.uploadStream.join().readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void onlyLastChunkMayBeShort() {
+        final var upload = this.service.create("app.log", 4, null);
+        assertThrows(IllegalUploadChunkException.class, () -> this.service.writeChunk(upload.id(), 0, toStream("abcde")));
+        this.service.writeChunk(upload.id(), 0, toStream("abcd"));
+        this.service.writeChunk(upload.id(), 1, toStream("ef"));
+
+        assertThrows(IllegalUploadChunkException.class, () -> this.service.writeChunk(upload.id(), 2, toStream("ghij")));
+        assertThrows(IllegalUploadChunkException.class, () -> this.service.writeChunk(upload.id(), 3, toStream("g")));
+        assertThrows(IllegalUploadChunkException.class, () -> this.service.complete(upload.id(), 3));
+
+        this.service.complete(upload.id(), 2);
+        assertTrue(this.service.findById(upload.id()).completed());
+    }
+
+    @Test
+    void uploadWithMissingChunksShouldNotBeCompleted() throws IOException {
+        final var upload = this.service.create("app.log", 4, null);
+        this.service.writeChunk(upload.id(), 0, toStream("abcd"));
+        this.service.writeChunk(upload.id(), 2, toStream("ij"));
+
+        assertThrows(IllegalUploadChunkException.class, () -> this.service.complete(upload.id(), 3));
+        assertEquals(List.of(0, 2), this.service.findById(upload.id()).receivedChunks());
+
+        this.service.writeChunk(upload.id(), 1, toStream("efgh"));
+        this.service.complete(upload.id(), 3);
+        assertEquals("abcdefghij", new String(this.uploadStream.join().readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void cancelledUploadShouldFailReading() throws IOException {
+        final var upload = this.service.create("app.log", 4, null);
+        this.service.writeChunk(upload.id(), 0, toStream("abcd"));
+        assertEquals("abcd", new String(this.uploadStream.join().readNBytes(4), StandardCharsets.UTF_8));
+
+        this.service.cancel(upload.id());
+
+        assertThrows(IOException.class, () -> this.uploadStream.join().read());
+        assertThrows(IllegalUploadChunkException.class, () -> this.service.writeChunk(upload.id(), 1, toStream("efgh")));
+        assertThrows(IllegalUploadChunkException.class, () -> this.service.complete(upload.id(), 1));
+    }
+
+    @Test
+    void zipUploadShouldBeIndexedFromFileWhenCompleted() throws IOException {
+        when(this.zipUtil.isRandomAccessArchive(any(File.class))).thenReturn(true);
+        final var uploadFile = new CompletableFuture<String>();
+        when(this.logsService.index(any(File.class), eq("app.zip"), nullable(LogRecordFormat.class))).thenAnswer(invocation -> {
+            uploadFile.complete(Files.readString(invocation.<File> getArgument(0).toPath()));
+            return new CompletableFuture<String>();
+        });
+
+        final var upload = this.service.create("app.zip", 4, null);
+        this.service.writeChunk(upload.id(), 0, toStream("abcd"));
+        this.service.writeChunk(upload.id(), 1, toStream("ef"));
+        assertThrows(TimeoutException.class, () -> uploadFile.get(100, TimeUnit.MILLISECONDS));
+
+        this.service.complete(upload.id(), 2);
+        assertEquals("abcdef", uploadFile.join());
+        assertFalse(this.uploadStream.isDone());
+    }
+
+    private static InputStream toStream(final String data) {
+        return new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,214 @@
+package org.analyzer.service.logs.std;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.analyzer.config.parsing.LogRecordsParsingProperties;
+import org.analyzer.dao.IndexingJobRepository;
+import org.analyzer.dao.LogsStorage;
+import org.analyzer.entities.LogRecordEntity;
+import org.analyzer.entities.UserEntity;
+import org.analyzer.i18n.MessageHelper;
+import org.analyzer.service.exceptions.ArchiveLimitExceededException;
+import org.analyzer.service.logs.LogRecordFormat;
+import org.analyzer.service.logs.LogRecordsParser;
+import org.analyzer.service.users.CurrentUserAccessor;
+import org.analyzer.service.util.CompressedStreamUnzipper;
+import org.analyzer.service.util.LongRunningTaskExecutor;
+import org.analyzer.service.util.StdZipUnzipper;
+import org.analyzer.service.util.UnzipperUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.support.StaticMessageSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class StandardLogsServiceTests {
+
+    @TempDir
+    Path tempDirectory;
+
+    private final StandardLogsService service = new StandardLogsService();
+    private final LogsStorage logsStorage = mock(LogsStorage.class);
+    private final LogRecordsParser parser = mock(LogRecordsParser.class);
+    private final IndexingJobRepository jobRepository = mock(IndexingJobRepository.class);
+
+    @BeforeEach
+    void setUp() {
+        final var messageSource = new StaticMessageSource();
+        messageSource.setUseCodeAsDefaultMessage(true);
+        new MessageHelper(messageSource);
+
+        final var userAccessor = mock(CurrentUserAccessor.class);
+        when(userAccessor.get()).thenReturn(new UserEntity().setHash("user"));
+
+        final var taskExecutor = mock(LongRunningTaskExecutor.class);
+        when(taskExecutor.execute(any())).thenAnswer(invocation -> CompletableFuture.runAsync(invocation.getArgument(0), Runnable::run));
+
+        final var jobs = new IndexingJobs(this.jobRepository, this.logsStorage, new DefaultLogKeysFactory(), this.tempDirectory.resolve("jobs").toString(), "node", 1, 3, 0, 60);
+
+        ReflectionTestUtils.setField(this.service, "logsStorage", this.logsStorage);
+        ReflectionTestUtils.setField(this.service, "parser", this.parser);
+        ReflectionTestUtils.setField(this.service, "zipUtil", mock(UnzipperUtil.class));
+        ReflectionTestUtils.setField(this.service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(this.service, "taskExecutor", taskExecutor);
+        ReflectionTestUtils.setField(this.service, "userAccessor", userAccessor);
+        ReflectionTestUtils.setField(this.service, "logKeysFactory", new DefaultLogKeysFactory());
+        ReflectionTestUtils.setField(this.service, "recordFormatDetector", mock(LogRecordFormatDetector.class));
+        ReflectionTestUtils.setField(this.service, "indexingJobs", jobs);
+        ReflectionTestUtils.invokeMethod(this.service, "init");
+        setRecordsIndexer(Runnable::run);
+    }
+
+    @Test
+    void failedJobShouldBeRetriedUpToMaxAttemptsAndRolledBackOnce() throws IOException {
+        final var logFile = Files.writeString(this.tempDirectory.resolve("app.log"), "2023-01-01 10:00:00,000 INFO record");
+        when(this.parser.parse(anyString(), any(InputStream.class), nullable(LogRecordFormat.class))).thenThrow(new RuntimeException(new IOException("failed")));
+
+        final var indexing = this.service.index(logFile.toFile(), null);
+
+        assertThrows(CompletionException.class, indexing::join);
+        // the first attempt is counted too
+        verify(this.parser, times(3)).parse(anyString(), any(InputStream.class), nullable(LogRecordFormat.class));
+        verify(this.logsStorage, times(1)).deleteAllByIdRegex(startsWith("user#"));
+        verify(this.jobRepository, times(1)).deleteById(anyString());
+        try (final var jobSources = Files.list(this.tempDirectory.resolve("jobs"))) {
+            assertFalse(jobSources.findAny().isPresent());
+        }
+    }
+
+    @Test
+    void deterministicFailureShouldNotBeRetried() throws IOException {
+        final var logFile = Files.writeString(this.tempDirectory.resolve("app.log"), "2023-01-01 10:00:00,000 INFO record");
+        when(this.parser.parse(anyString(), any(InputStream.class), nullable(LogRecordFormat.class))).thenThrow(new ArchiveLimitExceededException("max-uncompressed-size", 1));
+
+        final var indexing = this.service.index(logFile.toFile(), null);
+
+        assertThrows(CompletionException.class, indexing::join);
+        verify(this.parser, times(1)).parse(anyString(), any(InputStream.class), nullable(LogRecordFormat.class));
+        verify(this.logsStorage, times(1)).deleteAllByIdRegex(startsWith("user#"));
+    }
+
+    @Test
+    void failedAttemptShouldWaitForSubmittedPackages() throws IOException {
+        final var logFile = Files.writeString(this.tempDirectory.resolve("app.log"), "2023-01-01 10:00:00,000 INFO record");
+        final var storageAvailable = new CompletableFuture<Void>();
+        setRecordsIndexer(command -> storageAvailable.thenRun(command));
+        when(this.parser.parse(anyString(), any(InputStream.class), nullable(LogRecordFormat.class))).thenAnswer(invocation -> createFailingIterator());
+
+        final var indexing = CompletableFuture.supplyAsync(() -> this.service.index(logFile.toFile(), null)).thenCompose(future -> future);
+
+        // neither the next attempt nor the rollback is started while the package of the failed attempt is written
+        verify(this.parser, after(200).times(1)).parse(anyString(), any(InputStream.class), nullable(LogRecordFormat.class));
+        verify(this.logsStorage, never()).deleteAllByIdRegex(anyString());
+
+        storageAvailable.complete(null);
+        assertThrows(CompletionException.class, indexing::join);
+        verify(this.logsStorage, times(1)).deleteAllByIdRegex(startsWith("user#"));
+    }
+
+    @Test
+    void failedArchiveEntryShouldFailWholeIndexing() throws IOException {
+        final var archive = createZip(Map.of("first.log", "2023-01-01 10:00:00,000 INFO first", "second.log", "2023-01-01 10:00:00,000 INFO second"));
+        setZipUtil();
+        when(this.parser.parse(anyString(), any(InputStream.class), nullable(LogRecordFormat.class))).thenAnswer(invocation -> createEmptyIterator());
+        when(this.parser.parse(endsWith("second.log"), any(InputStream.class), nullable(LogRecordFormat.class))).thenThrow(new ArchiveLimitExceededException("max-uncompressed-size", 1));
+
+        final var indexing = this.service.index(archive.toFile(), null);
+
+        assertThrows(CompletionException.class, indexing::join);
+        // the failure of one entry fails the whole archive without retries
+        verify(this.parser, times(1)).parse(endsWith("second.log"), any(InputStream.class), nullable(LogRecordFormat.class));
+        verify(this.logsStorage, times(1)).deleteAllByIdRegex(startsWith("user#"));
+    }
+
+    private void setZipUtil() {
+        final var zipUtil = new UnzipperUtil();
+        ReflectionTestUtils.setField(zipUtil, "unzippers", List.of(new StdZipUnzipper(), new CompressedStreamUnzipper()));
+        ReflectionTestUtils.setField(this.service, "zipUtil", zipUtil);
+        ReflectionTestUtils.setField(this.service, "archiveFilesParallelism", 2);
+    }
+
+    private Path createZip(final Map<String, String> entries) throws IOException {
+        final var archive = this.tempDirectory.resolve("logs.zip");
+        try (final var zipOut = new ZipOutputStream(Files.newOutputStream(archive))) {
+            for (final var entry : entries.entrySet()) {
+                zipOut.putNextEntry(new ZipEntry(entry.getKey()));
+                zipOut.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+                zipOut.closeEntry();
+            }
+        }
+
+        return archive;
+    }
+
+    private void setRecordsIndexer(final Executor indexingPool) {
+        final var meterRegistry = new SimpleMeterRegistry();
+        final var properties = new LogRecordsParsingProperties(1, 64, 16, 64, 64, 16, StandardCharsets.UTF_8, 1000, 64, 1024, 100);
+        final var recordsIndexer = new LogRecordsIndexer(indexingPool, this.logsStorage, meterRegistry, new RecordsPackageSizing(properties, meterRegistry), 16, 256);
+        ReflectionTestUtils.setField(this.service, "logRecordsIndexer", recordsIndexer);
+    }
+
+    private static LogRecordsParser.LogRecordsPackageIterator createEmptyIterator() {
+        return new LogRecordsParser.LogRecordsPackageIterator() {
+
+            @Override
+            public boolean hasNext() {
+                return false;
+            }
+
+            @Override
+            public Collection<LogRecordEntity> next() {
+                throw new NoSuchElementException();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private static LogRecordsParser.LogRecordsPackageIterator createFailingIterator() {
+        return new LogRecordsParser.LogRecordsPackageIterator() {
+
+            private boolean packageReturned;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Collection<LogRecordEntity> next() {
+                if (this.packageReturned) {
+                    throw new IllegalStateException("failed");
+                }
+
+                this.packageReturned = true;
+                return List.of(new LogRecordEntity().setId("user#1$app.log@0").setSource("record"));
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
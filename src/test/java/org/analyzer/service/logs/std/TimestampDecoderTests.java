@@ -0,0 +1,102 @@
+package org.analyzer.service.logs.std;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimestampDecoderTests {
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "HH:mm:ss,SSS|10:00:02,213",
+            "HH:mm:ss,SSS|10:00:02,999",
+            "HH:mm:ss.SSSSSS|23:59:59.000001",
+            "HH:mm:ss|00:00:00",
+            "HH:mm|10:15",
+            "HHmmssSSS|101502213",
+            "HH:mm:ss,SSS|24:00:00,000",
+            "HH:mm:ss,SSS|10:0a:02,213",
+            "HH:mm:ss,SSS|10:00:02,2134",
+            "hh:mm:ss a|10:00:02 AM",
+            "HH:mm:ss,SSS|10:60:02,213"
+    })
+    void timeShouldBeDecodedAsWithFormatter(final String pattern, final String value) {
+        final var formatter = createFormatter(pattern);
+        final var decoder = new TimestampDecoder(
+                TimestampFormat.compile(formatter, true, "uuuu-MM-dd"),
+                TimestampFormat.compile(formatter, false, pattern)
+        );
+
+        assertSameResult(() -> LocalTime.from(formatter.parse(value)), () -> decoder.decodeTime(value));
+        // the second call of decoder goes through the memoized second
+        assertSameResult(() -> LocalTime.from(formatter.parse(value)), () -> decoder.decodeTime(value));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "yyyy-MM-dd|2023-01-01",
+            "uuuu-MM-dd|2024-02-29",
+            "yyyy-MM-dd|2023-02-30",
+            "dd.MM.yyyy|31.12.2023",
+            "dd.MM.yy|31.12.23",
+            "yyyyMMdd|20230101",
+            "yyyy-MM-dd|2023-13-01",
+            "yyyy-MM-dd|2023-1-01",
+            "yyyy-MMM-dd|2023-Jan-01"
+    })
+    void dateShouldBeDecodedAsWithFormatter(final String pattern, final String value) {
+        final var formatter = createFormatter(pattern);
+        final var decoder = new TimestampDecoder(
+                TimestampFormat.compile(formatter, true, pattern),
+                TimestampFormat.compile(formatter, false, "HH:mm:ss")
+        );
+
+        assertSameResult(() -> LocalDate.from(formatter.parse(value)), () -> decoder.decodeDate(value));
+    }
+
+    @Test
+    void timeOfSameSecondShouldBeDecodedWithNewFraction() {
+        final var decoder = new TimestampDecoder(
+                TimestampFormat.compile(DateTimeFormatter.ISO_DATE, true, "uuuu-MM-dd"),
+                TimestampFormat.compile(createFormatter("HH:mm:ss,SSS"), false, "HH:mm:ss,SSS")
+        );
+
+        assertEquals(LocalTime.of(10, 0, 2, 213_000_000), decoder.decodeTime("10:00:02,213"));
+        assertEquals(LocalTime.of(10, 0, 2, 7_000_000), decoder.decodeTime("10:00:02,007"));
+        assertEquals(LocalTime.of(10, 0, 3), decoder.decodeTime("10:00:03,000"));
+        assertThrows(DateTimeParseException.class, () -> decoder.decodeTime("10:00:03,00x"));
+    }
+
+    private static DateTimeFormatter createFormatter(final String pattern) {
+        return new DateTimeFormatterBuilder()
+                        .appendPattern(pattern)
+                        .toFormatter();
+    }
+
+    private static void assertSameResult(final Supplier<Object> expected, final Supplier<Object> actual) {
+        Object expectedResult;
+        try {
+            expectedResult = expected.get();
+        } catch (RuntimeException ex) {
+            expectedResult = ex.getClass();
+        }
+
+        Object actualResult;
+        try {
+            actualResult = actual.get();
+        } catch (RuntimeException ex) {
+            actualResult = ex.getClass();
+        }
+
+        assertEquals(expectedResult, actualResult);
+    }
+}
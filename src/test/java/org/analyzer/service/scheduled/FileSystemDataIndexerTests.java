@@ -0,0 +1,122 @@
+package org.analyzer.service.scheduled;
+
+import org.analyzer.dao.FileLogCheckpointRepository;
+import org.analyzer.entities.FileLogCheckpointEntity;
+import org.analyzer.entities.ScheduledIndexingSettings;
+import org.analyzer.entities.UserEntity;
+import org.analyzer.service.logs.LogRecordFormat;
+import org.analyzer.service.logs.LogsService;
+import org.analyzer.service.users.CurrentUserAccessor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class FileSystemDataIndexerTests {
+
+    private static final String FIRST_RECORD = "2023-01-01 10:00:00,000 INFO first\n";
+    private static final String SECOND_RECORD = "2023-01-01 10:00:01,000 ERROR second\n";
+
+    @TempDir
+    Path directory;
+
+    private final FileSystemDataIndexer indexer = new FileSystemDataIndexer();
+    private final LogsService logsService = mock(LogsService.class);
+    private final List<String> indexedData = new ArrayList<>();
+    private final FileLogCheckpointEntity checkpoint = new FileLogCheckpointEntity();
+
+    @BeforeEach
+    void setUp() {
+        final var userAccessor = mock(CurrentUserAccessor.class);
+        when(userAccessor.as(any(UserEntity.class))).thenReturn(mock(CurrentUserAccessor.UserContext.class));
+
+        // the last record of the indexed data is the second one
+        when(this.logsService.indexAppendable(any(InputStream.class), anyString(), any(LogRecordFormat.class)))
+                .thenAnswer(invocation -> index(invocation.getArgument(0), new LogsService.IndexedLogTail("1", FIRST_RECORD.length(), true)));
+        when(this.logsService.append(any(LogsService.IndexedLogTail.class), any(InputStream.class), anyString(), any(LogRecordFormat.class)))
+                .thenAnswer(invocation -> index(invocation.getArgument(1), invocation.getArgument(0)));
+
+        this.indexer.setLogsService(this.logsService);
+        this.indexer.setUserAccessor(userAccessor);
+        this.indexer.setCheckpointRepository(mock(FileLogCheckpointRepository.class));
+        this.indexer.setUser(new UserEntity().setHash("user"));
+        this.indexer.setIndexingSettings(ScheduledIndexingSettings.builder().settingsId("1").build());
+    }
+
+    @Test
+    void appendedDataShouldBeIndexedFromLastRecord() throws IOException {
+        final var logFile = Files.writeString(this.directory.resolve("app.log"), FIRST_RECORD + SECOND_RECORD + "\tat continuation");
+        this.checkpoint.setPath(logFile.toString());
+
+        indexAppendedData(logFile);
+        // the incomplete line isn't indexed until it is completed
+        assertEquals(List.of(FIRST_RECORD + SECOND_RECORD), this.indexedData);
+
+        Files.writeString(logFile, "\n", StandardOpenOption.APPEND);
+        indexAppendedData(logFile);
+
+        assertEquals(SECOND_RECORD + "\tat continuation\n", this.indexedData.get(1));
+        verify(this.logsService).append(eq(new LogsService.IndexedLogTail("1", FIRST_RECORD.length(), true)), any(InputStream.class), eq("app.log"), any(LogRecordFormat.class));
+        assertEquals(FIRST_RECORD.length() + SECOND_RECORD.length() + "\tat continuation\n".length(), this.checkpoint.getOffset());
+    }
+
+    @Test
+    void fileTruncatedAndWrittenPastOffsetShouldBeIndexedFromBeginning() throws IOException {
+        final var logFile = Files.writeString(this.directory.resolve("app.log"), FIRST_RECORD + SECOND_RECORD);
+        ReflectionTestUtils.setField(this.indexer, "checkpoints", new HashMap<Path, FileLogCheckpointEntity>());
+        checkFile(logFile);
+
+        // copytruncate rotation between two checks of the file
+        final var rotatedData = "2023-01-01 11:00:00,000 INFO rotated\n" + SECOND_RECORD + SECOND_RECORD;
+        Files.writeString(logFile, rotatedData, StandardOpenOption.TRUNCATE_EXISTING);
+        checkFile(logFile);
+
+        assertEquals(List.of(FIRST_RECORD + SECOND_RECORD, rotatedData), this.indexedData);
+        verify(this.logsService, never()).append(any(LogsService.IndexedLogTail.class), any(InputStream.class), anyString(), any(LogRecordFormat.class));
+    }
+
+    @Test
+    void directoryUnderSymlinkedAllowedDirectoryShouldBeAllowed() throws IOException {
+        final var logsDirectory = Files.createDirectories(this.directory.resolve("data").resolve("log").resolve("app"));
+        final var allowedDirectory = Files.createSymbolicLink(this.directory.resolve("log"), logsDirectory.getParent());
+        ReflectionTestUtils.setField(this.indexer, "allowedDirectories", List.of(this.directory.resolve("missing").toString(), allowedDirectory.toString()));
+
+        final Boolean allowed = ReflectionTestUtils.invokeMethod(this.indexer, "isAllowedDirectory", allowedDirectory.resolve("app").toRealPath());
+
+        assertEquals(Boolean.TRUE, allowed);
+    }
+
+    private void checkFile(final Path logFile) {
+        ReflectionTestUtils.invokeMethod(this.indexer, "checkFile", logFile);
+    }
+
+    private void indexAppendedData(final Path logFile) {
+        ReflectionTestUtils.invokeMethod(this.indexer, "indexAppendedData", logFile, this.checkpoint, false);
+    }
+
+    private CompletableFuture<LogsService.IndexedLogTail> index(final InputStream logStream, final LogsService.IndexedLogTail logTail) {
+        try (logStream) {
+            this.indexedData.add(new String(logStream.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return CompletableFuture.completedFuture(logTail);
+    }
+}
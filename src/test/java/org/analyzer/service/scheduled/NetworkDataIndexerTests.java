@@ -0,0 +1,51 @@
+package org.analyzer.service.scheduled;
+
+import org.analyzer.entities.RemoteLogStateEntity;
+import org.analyzer.entities.ScheduledIndexingSettings;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class NetworkDataIndexerTests {
+
+    private final NetworkDataIndexer indexer = createIndexer();
+
+    @Test
+    void lastRecordDataShouldBeReadFromRecordPosition() {
+        final var logState = createLogState(20, 12, "tail");
+
+        final byte[] lastRecordData = readLastRecordData(logState, "bytes 12-40/41", "1234tail");
+
+        assertArrayEquals("1234tail".getBytes(StandardCharsets.UTF_8), lastRecordData);
+    }
+
+    @Test
+    void tooLongLastRecordShouldNotBeRead() {
+        final var logState = createLogState(10 * 1024 * 1024, 0, "tail");
+
+        assertThrows(IllegalStateException.class, () -> readLastRecordData(logState, "bytes 0-20971519/20971520", "tail"));
+    }
+
+    private byte[] readLastRecordData(final RemoteLogStateEntity logState, final String contentRange, final String data) {
+        return ReflectionTestUtils.invokeMethod(this.indexer, "readLastRecordData", logState, contentRange, new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static RemoteLogStateEntity createLogState(final long length, final long lastRecordPosition, final String tail) {
+        return new RemoteLogStateEntity()
+                    .setLength(length)
+                    .setLastRecordPosition(lastRecordPosition)
+                    .setTail(tail.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static NetworkDataIndexer createIndexer() {
+        final var indexer = new NetworkDataIndexer();
+        indexer.setIndexingSettings(ScheduledIndexingSettings.builder().settingsId("1").build());
+        indexer.setMaxRecordSizeKb(1024);
+        return indexer;
+    }
+}
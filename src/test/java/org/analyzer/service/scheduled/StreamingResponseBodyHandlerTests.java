@@ -0,0 +1,63 @@
+package org.analyzer.service.scheduled;
+
+import org.asynchttpclient.HttpResponseBodyPart;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StreamingResponseBodyHandlerTests {
+
+    private final StreamingResponseBodyHandler handler = new StreamingResponseBodyHandler(4);
+
+    @Test
+    void completedBodyShouldBeReadToEnd() throws IOException {
+        this.handler.onBodyPartReceived(createPart("abc"));
+        this.handler.onBodyPartReceived(createPart("def"));
+        this.handler.onCompleted();
+
+        final var body = this.handler.response().join().body();
+        assertEquals("abcdef", new String(body.readAllBytes(), StandardCharsets.UTF_8));
+        assertEquals(-1, body.read());
+    }
+
+    @Test
+    void closedBodyShouldFailReadsInsteadOfEnd() throws IOException {
+        this.handler.onBodyPartReceived(createPart("abc"));
+        this.handler.onCompleted();
+
+        final var body = this.handler.response().join().body();
+        assertEquals('a', body.read());
+        body.close();
+
+        assertThrows(IOException.class, body::read);
+    }
+
+    @Test
+    void readerWaitingForPartShouldFailWhenBodyIsClosed() throws Exception {
+        this.handler.onStream(subscriber -> {});
+        final var body = this.handler.response().join().body();
+
+        final var reading = CompletableFuture.supplyAsync(() -> {
+            try {
+                return body.read();
+            } catch (IOException e) {
+                return -2;
+            }
+        });
+        body.close();
+
+        assertEquals(-2, reading.get());
+    }
+
+    private static HttpResponseBodyPart createPart(final String data) {
+        final var part = mock(HttpResponseBodyPart.class);
+        when(part.getBodyPartBytes()).thenReturn(data.getBytes(StandardCharsets.UTF_8));
+        return part;
+    }
+}
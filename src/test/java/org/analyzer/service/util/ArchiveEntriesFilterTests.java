@@ -0,0 +1,43 @@
+package org.analyzer.service.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArchiveEntriesFilterTests {
+
+    @Test
+    void excludedEntriesShouldBeSkipped() {
+        final var filter = ArchiveEntriesFilter.of(null, List.of("*.jar"), null);
+
+        assertFalse(filter.accepts("lib/app.jar"));
+        assertTrue(filter.accepts("logs/server.log"));
+    }
+
+    @Test
+    void patternsWithSlashShouldMatchWholeEntryPath() {
+        final var filter = ArchiveEntriesFilter.of(List.of("logs/**/*.log"), null, null);
+
+        assertTrue(filter.accepts("logs/node1/server.log"));
+        assertTrue(filter.accepts("logs\\node1\\server.log"));
+        assertFalse(filter.accepts("backup/node1/server.log"));
+        assertFalse(filter.accepts("logs/node1/server.out"));
+    }
+
+    @Test
+    void defaultExcludesShouldBeAppliedOnlyWithoutIncludes() {
+        final var defaultExcludes = List.of("*.hprof");
+
+        assertFalse(ArchiveEntriesFilter.of(null, null, defaultExcludes).accepts("dumps/heap.hprof"));
+        assertFalse(ArchiveEntriesFilter.of(null, List.of("*.jar"), defaultExcludes).accepts("dumps/heap.hprof"));
+        assertTrue(ArchiveEntriesFilter.of(List.of("*.hprof"), null, defaultExcludes).accepts("dumps/heap.hprof"));
+    }
+
+    @Test
+    void directoryEntriesShouldNotBeAccepted() {
+        assertFalse(ArchiveEntriesFilter.of(null, null, null).accepts("/"));
+    }
+}
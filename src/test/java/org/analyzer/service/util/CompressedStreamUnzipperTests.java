@@ -0,0 +1,80 @@
+package org.analyzer.service.util;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.compressors.CompressorException;
+import org.apache.commons.compress.compressors.CompressorStreamFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CompressedStreamUnzipperTests {
+
+    private final CompressedStreamUnzipper unzipper = new CompressedStreamUnzipper();
+
+    @Test
+    void allMembersOfConcatenatedGzipShouldBeRead() throws IOException {
+        final var first = compress(CompressorStreamFactory.GZIP, "first\n".getBytes(StandardCharsets.UTF_8));
+        final var second = compress(CompressorStreamFactory.GZIP, "second\n".getBytes(StandardCharsets.UTF_8));
+        final var archive = new ByteArrayOutputStream();
+        archive.write(first);
+        archive.write(second);
+
+        assertEquals(Map.of("server.log", "first\nsecond\n"), readEntries(archive.toByteArray(), "server.log.gz"));
+    }
+
+    @Test
+    void compressedTarShouldBeReadByEntries() throws IOException {
+        final var tar = new ByteArrayOutputStream();
+        try (final var tarOut = new TarArchiveOutputStream(tar)) {
+            addTarEntry(tarOut, "node1/server.log", "first\n");
+            addTarEntry(tarOut, "node2/server.log", "second\n");
+        }
+
+        final var archive = compress(CompressorStreamFactory.GZIP, tar.toByteArray());
+
+        assertEquals(Map.of("node1/server.log", "first\n", "node2/server.log", "second\n"), readEntries(archive, "logs.tgz"));
+    }
+
+    @Test
+    void filesCompressedByOtherFormatsShouldBeRead() throws IOException {
+        final var data = "record\n".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(Map.of("server.log", "record\n"), readEntries(compress(CompressorStreamFactory.BZIP2, data), "server.log.bz2"));
+        assertEquals(Map.of("server.log", "record\n"), readEntries(compress(CompressorStreamFactory.XZ, data), "server.log.xz"));
+        assertEquals(Map.of("server.log", "record\n"), readEntries(compress(CompressorStreamFactory.ZSTANDARD, data), "server.log.zst"));
+    }
+
+    private Map<String, String> readEntries(final byte[] archive, final String archiveName) throws IOException {
+        final Map<String, String> result = new LinkedHashMap<>();
+        this.unzipper.forEachEntry(new ByteArrayInputStream(archive), archiveName, (entryName, entryStream) -> result.put(entryName, new String(entryStream.readAllBytes(), StandardCharsets.UTF_8)));
+        return result;
+    }
+
+    private static void addTarEntry(final TarArchiveOutputStream tarOut, final String name, final String data) throws IOException {
+        final var bytes = data.getBytes(StandardCharsets.UTF_8);
+        final var entry = new TarArchiveEntry(name);
+        entry.setSize(bytes.length);
+        tarOut.putArchiveEntry(entry);
+        tarOut.write(bytes);
+        tarOut.closeArchiveEntry();
+    }
+
+    private static byte[] compress(final String format, final byte[] data) throws IOException {
+        final var result = new ByteArrayOutputStream();
+        try (final var compressedOut = new CompressorStreamFactory().createCompressorOutputStream(format, result)) {
+            compressedOut.write(data);
+        } catch (CompressorException e) {
+            throw new IOException(e);
+        }
+
+        return result.toByteArray();
+    }
+}
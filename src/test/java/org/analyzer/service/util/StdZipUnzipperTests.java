@@ -0,0 +1,98 @@
+package org.analyzer.service.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StdZipUnzipperTests {
+
+    @TempDir
+    Path directory;
+
+    private final StdZipUnzipper unzipper = new StdZipUnzipper();
+
+    @Test
+    void entriesShouldBeReadInParallel() throws IOException {
+        final var archive = createZip(List.of("first.log", "second.log"));
+        final var started = new CountDownLatch(2);
+        final Map<String, String> entries = new ConcurrentHashMap<>();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> this.unzipper.forEachEntry(archive.toFile(), 2, (entryName, entryStream) -> {
+            started.countDown();
+            // each entry waits for the other one, so the reading completes only if the entries are processed concurrently
+            await(started);
+            entries.put(entryName, new String(entryStream.readAllBytes(), StandardCharsets.UTF_8));
+        }));
+
+        assertEquals(Map.of("first.log", "first.log", "second.log", "second.log"), entries);
+    }
+
+    @Test
+    void parallelReadingShouldFailFastOnFirstEntryError() throws IOException {
+        final var archive = createZip(List.of("broken.log", "first.log", "second.log", "third.log"));
+        final var neverReleased = new CountDownLatch(1);
+
+        final var ex = assertTimeoutPreemptively(
+                Duration.ofSeconds(10),
+                () -> assertThrows(RuntimeException.class, () -> this.unzipper.forEachEntry(archive.toFile(), 4, (entryName, entryStream) -> {
+                    if (entryName.equals("broken.log")) {
+                        throw new IOException("Broken entry");
+                    }
+
+                    // remaining entries are blocked until they are interrupted by the failure of the archive
+                    await(neverReleased);
+                }))
+        );
+
+        var cause = ex.getCause();
+        while (cause != null && !(cause instanceof IOException)) {
+            cause = cause.getCause();
+        }
+
+        assertNotNull(cause);
+        assertEquals("Broken entry", cause.getMessage());
+    }
+
+    private Path createZip(final List<String> entryNames) throws IOException {
+        final Map<String, String> entries = new LinkedHashMap<>();
+        entryNames.forEach(entryName -> entries.put(entryName, entryName));
+
+        final var archive = this.directory.resolve("logs.zip");
+        try (final var zipOut = new ZipOutputStream(Files.newOutputStream(archive))) {
+            for (final var entry : entries.entrySet()) {
+                zipOut.putNextEntry(new ZipEntry(entry.getKey()));
+                zipOut.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+                zipOut.closeEntry();
+            }
+        }
+
+        return archive;
+    }
+
+    private static void await(final CountDownLatch latch) throws IOException {
+        try {
+            if (!latch.await(1, TimeUnit.MINUTES)) {
+                throw new IOException("Entries are not processed in parallel");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package org.analyzer.service.util;
+
+import org.analyzer.i18n.MessageHelper;
+import org.analyzer.service.exceptions.ArchiveLimitExceededException;
+import org.apache.commons.io.input.CountingInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.support.StaticMessageSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UnzipperUtilTests {
+
+    @TempDir
+    Path directory;
+
+    private final UnzipperUtil zipUtil = createZipUtil();
+
+    @BeforeEach
+    void setUp() {
+        final var messageSource = new StaticMessageSource();
+        messageSource.setUseCodeAsDefaultMessage(true);
+        new MessageHelper(messageSource);
+    }
+
+    @Test
+    void entriesWithSameFileNameShouldBePassedByPaths() throws IOException {
+        final var archive = createZip(Map.of("node1/server.log", "first", "node2/server.log", "second"));
+        final Map<String, String> entries = new ConcurrentHashMap<>();
+
+        this.zipUtil.forEachEntry(archive.toFile(), 2, ArchiveEntriesFilter.of(null, null, null), (entryPath, entryStream) -> entries.put(entryPath, new String(entryStream.readAllBytes(), StandardCharsets.UTF_8)));
+
+        assertEquals(Map.of("node1/server.log", "first", "node2/server.log", "second"), entries);
+    }
+
+    @Test
+    void streamedArchiveShouldBeReadInSinglePass() throws IOException {
+        final var archive = createZip(Map.of("node1/server.log", "first", "node2/server.log", "second"));
+        final Map<String, String> entries = new ConcurrentHashMap<>();
+
+        try (final var countingStream = new CountingInputStream(Files.newInputStream(archive));
+             final var archiveStream = new BufferedInputStream(countingStream)) {
+            this.zipUtil.forEachEntry(archiveStream, "logs.zip", ArchiveEntriesFilter.of(null, null, null), (entryPath, entryStream) -> entries.put(entryPath, new String(entryStream.readAllBytes(), StandardCharsets.UTF_8)));
+
+            // entries are read directly from the stream without extracting the archive or reading it twice
+            assertTrue(countingStream.getByteCount() <= Files.size(archive));
+        }
+
+        assertEquals(Map.of("node1/server.log", "first", "node2/server.log", "second"), entries);
+        try (final var files = Files.list(this.directory)) {
+            assertEquals(List.of(archive), files.toList());
+        }
+    }
+
+    @Test
+    void excludedEntriesShouldBeSkipped() throws IOException {
+        final var archive = createZip(Map.of("logs/server.log", "record", "lib/app.jar", "binary"));
+        final Map<String, String> entries = new ConcurrentHashMap<>();
+
+        try (final var archiveStream = new BufferedInputStream(Files.newInputStream(archive))) {
+            this.zipUtil.forEachEntry(archiveStream, "logs.zip", ArchiveEntriesFilter.of(null, List.of("*.jar"), null), (entryPath, entryStream) -> entries.put(entryPath, new String(entryStream.readAllBytes(), StandardCharsets.UTF_8)));
+        }
+
+        assertEquals(Map.of("logs/server.log", "record"), entries);
+    }
+
+    @Test
+    void entryWithTooLargeCompressionRatioShouldBeRejected() throws IOException {
+        // 32 MB of the same byte is deflated to a few dozens of KB
+        final var archive = createZip(Map.of("server.log", "a".repeat(32 * 1024 * 1024)));
+        ReflectionTestUtils.setField(this.zipUtil, "maxCompressionRatio", 100);
+
+        final var ex = assertThrows(CompletionException.class, () -> this.zipUtil.forEachEntry(archive.toFile(), 1, ArchiveEntriesFilter.of(null, null, null), (entryPath, entryStream) -> entryStream.transferTo(OutputStream.nullOutputStream())));
+        assertInstanceOf(ArchiveLimitExceededException.class, ex.getCause());
+    }
+
+    @Test
+    void entriesExceedingMaxUncompressedSizeShouldBeRejected() throws IOException {
+        final var archive = createZip(Map.of("first.log", "a".repeat(600 * 1024), "second.log", "b".repeat(600 * 1024)));
+        ReflectionTestUtils.setField(this.zipUtil, "maxUncompressedSizeMb", 1L);
+
+        try (final var archiveStream = new BufferedInputStream(Files.newInputStream(archive))) {
+            assertThrows(ArchiveLimitExceededException.class, () -> this.zipUtil.forEachEntry(archiveStream, "logs.zip", ArchiveEntriesFilter.of(null, null, null), (entryPath, entryStream) -> entryStream.transferTo(OutputStream.nullOutputStream())));
+        }
+    }
+
+    private Path createZip(final Map<String, String> entries) throws IOException {
+        final var archive = this.directory.resolve("logs.zip");
+        try (final var zipOut = new ZipOutputStream(Files.newOutputStream(archive))) {
+            for (final var entry : entries.entrySet()) {
+                zipOut.putNextEntry(new ZipEntry(entry.getKey()));
+                zipOut.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+                zipOut.closeEntry();
+            }
+        }
+
+        return archive;
+    }
+
+    private static UnzipperUtil createZipUtil() {
+        final var zipUtil = new UnzipperUtil();
+        ReflectionTestUtils.setField(zipUtil, "unzippers", List.of(new StdZipUnzipper(), new CompressedStreamUnzipper()));
+        return zipUtil;
+    }
+}